@@ -0,0 +1,304 @@
+package com.example.learningjavafx.Application;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Elevator.StateSnapshot;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.PasswordField;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The view of the building, generated from its number of floors and elevators when the application starts.
+ * <p>
+ * The floors are the rows of a ListView, the last floor at the top. The list only creates the rows of the floors
+ * in the viewport and gives them another floor when scrolling, so a building of 200 floors has as many nodes
+ * as a building of 20. A row holds the up and down buttons of its floor, the called sign and the cell of each
+ * elevator, and is painted from the last snapshot as soon as it gets a floor.
+ * <p>
+ * The controls of the elevators (alarm, input of the destination, queues) are created once, in a header above
+ * the shafts, with the ids looked up by the Handler: lock0, internal0, state0... The fireman controls and the
+ * messages of the system keep the ids they had in elevator.fxml: firemanpassword, firemanEnter, groundLock, fireLock,
+ * firemanexit and systemupdate.
+ */
+public class BuildingView {
+    public static final double FLOOR_WIDTH = 170;
+    public static final double CAR_WIDTH = 70;
+    public static final double ROW_HEIGHT = 36;
+    public static final double CELL_SIZE = 30;
+
+    private static final Color CURRENT_FLOOR = Color.rgb(0, 0, 0);
+    private static final Color LOCKED = Color.rgb(105, 0, 0);
+    private static final Color EMPTY = Color.rgb(255, 255, 255);
+    private static final Color CALLED = Color.rgb(0, 255, 0);
+    private static final Color BORDER = Color.web("#b2b2b2");
+
+    private final Handler handler;
+    private final int totalFloors;
+    private final int elevators;
+
+    private final VBox root;
+    private final ListView<Integer> floorList;
+    /**
+     * Rows of the list showing a floor, added and removed by updateItem as the list reuses its rows
+     */
+    private final List<FloorRow> rows;
+    private final Label[] stateLabels;
+    private final TextField[] internalInputs;
+
+    /**
+     * Last snapshot given to the view, null before the first one
+     */
+    private StateSnapshot snapshot;
+
+    public BuildingView(Building building, Handler handler) {
+        this.handler = handler;
+        this.totalFloors = building.getTotalFloors();
+        this.elevators = building.elevators.size();
+        this.rows = new ArrayList<>();
+        this.stateLabels = new Label[this.elevators];
+        this.internalInputs = new TextField[this.elevators];
+
+        this.floorList = new ListView<>();
+        for (int i = this.totalFloors - 1; i >= 0; i--) this.floorList.getItems().add(i);
+        this.floorList.setFixedCellSize(ROW_HEIGHT);
+        this.floorList.setFocusTraversable(false);
+        this.floorList.setCellFactory(list -> new FloorRow());
+        this.floorList.setMinWidth(FLOOR_WIDTH + this.elevators * CAR_WIDTH + 20);
+        VBox.setVgrow(this.floorList, Priority.ALWAYS);
+
+        VBox shafts = new VBox(this.createElevatorControls(), this.floorList);
+        ScrollPane scrollPane = new ScrollPane(shafts);
+        scrollPane.setFitToHeight(true);
+        scrollPane.setFitToWidth(true);
+        VBox.setVgrow(scrollPane, Priority.ALWAYS);
+
+        Label systemUpdate = new Label();
+        systemUpdate.setId("systemupdate");
+        systemUpdate.setWrapText(true);
+        systemUpdate.setMinHeight(60);
+        systemUpdate.setStyle("-fx-padding: 12px;");
+
+        this.root = new VBox(this.createTitleBar(), scrollPane, systemUpdate);
+    }
+
+    /**
+     * Title and fireman controls: the lock buttons and the exit are hidden until the fireman enters the password
+     */
+    private Node createTitleBar() {
+        Label title = new Label("ELEVATOR SIMULATOR");
+        title.setFont(Font.font("System", FontWeight.BOLD, 18));
+        title.setTextFill(Color.web("#243254"));
+        title.setUnderline(true);
+
+        PasswordField password = new PasswordField();
+        password.setId("firemanpassword");
+        password.setPromptText("Enter fireman password");
+
+        HBox bar = new HBox(10, title, new Label("FIREMAN CONTROLS"), password,
+                createButton("firemanEnter", "Enter panel", 10, true),
+                createButton("groundLock", "GROUND LOCK", 10, false),
+                createButton("fireLock", "FIRE LOCK", 10, false),
+                createButton("firemanexit", "EXIT", 10, false));
+        bar.setAlignment(Pos.CENTER_LEFT);
+        bar.setPadding(new Insets(8));
+        return bar;
+    }
+
+    /**
+     * The alarm, the input of the destination and the queues of each elevator, above its shaft
+     */
+    private Node createElevatorControls() {
+        HBox header = new HBox();
+        Region hall = new Region();
+        hall.setMinWidth(FLOOR_WIDTH);
+        header.getChildren().add(hall);
+
+        for (int j = 0; j < this.elevators; j++) {
+            TextField internalInput = new TextField();
+            internalInput.setId("internal"+j);
+            internalInput.setDisable(true);
+            internalInput.setMaxWidth(CAR_WIDTH - 20);
+            Label stateLabel = new Label("Status");
+            stateLabel.setId("state"+j);
+            stateLabel.setFont(Font.font(10));
+
+            VBox controls = new VBox(4, createButton("lock"+j, "ALARM", 10, true), internalInput, stateLabel);
+            controls.setAlignment(Pos.TOP_CENTER);
+            controls.setMinWidth(CAR_WIDTH);
+            controls.setMaxWidth(CAR_WIDTH);
+            header.getChildren().add(controls);
+
+            this.stateLabels[j] = stateLabel;
+            this.internalInputs[j] = internalInput;
+        }
+        header.setPadding(new Insets(4, 0, 4, 0));
+        return header;
+    }
+
+    /**
+     * A hidden button does not take any space in its box
+     */
+    private static Button createButton(String id, String text, double fontSize, boolean visible) {
+        Button button = new Button(text);
+        button.setId(id);
+        button.setMnemonicParsing(false);
+        button.setFont(Font.font(fontSize));
+        button.managedProperty().bind(button.visibleProperty());
+        button.setVisible(visible);
+        return button;
+    }
+
+    /**
+     * Paint the cells of the elevators of the rows in the viewport from the last snapshot
+     */
+    public void paintElevators() {
+        if (this.snapshot == null) return;
+        for (FloorRow row : this.rows) row.paintElevators();
+    }
+
+    /**
+     * Paint the called signs of the rows in the viewport from the last snapshot
+     */
+    public void paintCalledSigns() {
+        if (this.snapshot == null) return;
+        for (FloorRow row : this.rows) row.paintCalledSign();
+    }
+
+    /**
+     * Scroll the list so that the floor is in the viewport
+     */
+    public void scrollToFloor(int floor) {
+        this.floorList.scrollTo(this.totalFloors - 1 - floor);
+    }
+
+    /**
+     * The row of a floor: label, up and down buttons, called sign and the cell of each elevator.
+     * <p>
+     * A row is created by the list for a place in the viewport and gets the floor shown at that place:
+     * the buttons submit the call of the current floor of the row. The colours are constants, setting
+     * the colour a cell already has does not change the node.
+     */
+    private class FloorRow extends ListCell<Integer> {
+        private final Label floorLabel;
+        private final Button up;
+        private final Button down;
+        private final Rectangle calledSign;
+        private final Rectangle[] cells;
+        private final HBox graphic;
+        private int floor = -1;
+
+        FloorRow() {
+            this.floorLabel = new Label();
+            this.floorLabel.setFont(Font.font(10));
+            this.floorLabel.setMinWidth(30);
+            this.up = new Button("UP");
+            this.up.setFont(Font.font(9));
+            this.up.setMinWidth(36);
+            this.up.setOnAction(event -> BuildingView.this.handler.handleUpCall(this.floor));
+            this.down = new Button("DOWN");
+            this.down.setFont(Font.font(9));
+            this.down.setMinWidth(48);
+            this.down.setOnAction(event -> BuildingView.this.handler.handleDownCall(this.floor));
+            this.calledSign = createRectangle(12);
+
+            HBox hall = new HBox(4, this.floorLabel, this.up, this.down, this.calledSign);
+            hall.setAlignment(Pos.CENTER_LEFT);
+            hall.setMinWidth(FLOOR_WIDTH);
+            hall.setMaxWidth(FLOOR_WIDTH);
+            this.graphic = new HBox(hall);
+            this.graphic.setAlignment(Pos.CENTER_LEFT);
+
+            this.cells = new Rectangle[BuildingView.this.elevators];
+            for (int j = 0; j < this.cells.length; j++) {
+                this.cells[j] = createRectangle(CELL_SIZE);
+                StackPane shaft = new StackPane(this.cells[j]);
+                shaft.setMinWidth(CAR_WIDTH);
+                shaft.setMaxWidth(CAR_WIDTH);
+                this.graphic.getChildren().add(shaft);
+            }
+            this.setPadding(Insets.EMPTY);
+        }
+
+        @Override
+        protected void updateItem(Integer item, boolean empty) {
+            super.updateItem(item, empty);
+            // Painted only while it shows a floor: a row emptied by the list is no longer held by the view
+            if (empty || item == null) {
+                if (this.floor != -1) BuildingView.this.rows.remove(this);
+                this.floor = -1;
+                this.setGraphic(null);
+                return;
+            }
+            if (this.floor == -1) BuildingView.this.rows.add(this);
+            this.floor = item;
+            this.floorLabel.setText(String.valueOf(item));
+            this.up.setVisible(item < BuildingView.this.totalFloors - 1);
+            this.down.setVisible(item > 0);
+            this.setGraphic(this.graphic);
+            if (BuildingView.this.snapshot != null) {
+                this.paintElevators();
+                this.paintCalledSign();
+            }
+        }
+
+        /**
+         * Black cell where the elevator is, red column when it is locked
+         */
+        void paintElevators() {
+            if (this.floor == -1) return;
+            StateSnapshot snapshot = BuildingView.this.snapshot;
+            for (int j = 0; j < this.cells.length; j++) {
+                this.cells[j].setFill(snapshot.isLocked(j) ? LOCKED : snapshot.getFloor(j) == this.floor ? CURRENT_FLOOR : EMPTY);
+            }
+        }
+
+        /**
+         * The floor is called if any of the elevators will stop there
+         */
+        void paintCalledSign() {
+            if (this.floor == -1) return;
+            StateSnapshot snapshot = BuildingView.this.snapshot;
+            boolean called = false;
+            for (int j = 0; j < this.cells.length && !called; j++) {
+                called = snapshot.hasStop(j, this.floor);
+            }
+            this.calledSign.setFill(called ? CALLED : EMPTY);
+        }
+    }
+
+    private static Rectangle createRectangle(double size) {
+        Rectangle rectangle = new Rectangle(size, size, EMPTY);
+        rectangle.setArcWidth(5);
+        rectangle.setArcHeight(5);
+        rectangle.setStroke(BORDER);
+        return rectangle;
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public Parent getRoot() {return this.root;}
+    public Label[] getStateLabels() {return this.stateLabels;}
+    public TextField[] getInternalInputs() {return this.internalInputs;}
+    public StateSnapshot getSnapshot() {return this.snapshot;}
+    public void setSnapshot(StateSnapshot snapshot) {this.snapshot = snapshot;}
+}
@@ -0,0 +1,263 @@
+package com.example.learningjavafx.Application;
+
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Elevator.StateSnapshot;
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draw the whole building on a single Canvas instead of one node per floor and per elevator.
+ * <p>
+ * The BuildingView has a Rectangle for each elevator at each floor in the viewport, so the scene graph (and its
+ * layout and CSS) grows with the elevators and the height of the window. Here the scene has one node whatever the
+ * size of the building: each frame draws a StateSnapshot with the GraphicsContext.
+ * <p>
+ * The hall calls are on the left, next to the number of each floor (up on the left half, down on the right half).
+ * Then each elevator has its shaft, with a dot on the floors of its queues (blue for a car call) and the car at
+ * its floor: black when it moves, yellow while the door is not closed, red when it is locked. The bar inside
+ * the car is its load.
+ * <p>
+ * Only what is in the viewport is drawn: the floors and the shafts outside of it are skipped, so the cost of a
+ * frame depends on the size of the window and not on the size of the building. The building can be zoomed
+ * (height of a floor) and scrolled in both directions.
+ * <p>
+ * The snapshots come from a simulation running on its own thread (SimulationLoop): update is called on every
+ * frame with the latest one, and the cars glide from their floor in the previous snapshot to their floor in
+ * the latest one during the real duration of a tick, instead of jumping once per tick.
+ */
+public class CanvasRenderer {
+    public static final double DEFAULT_FLOOR_HEIGHT = 20;
+    private static final double MIN_FLOOR_HEIGHT = 2;
+    private static final double MAX_FLOOR_HEIGHT = 80;
+    private static final double HALL_WIDTH = 56;
+    private static final double MIN_SHAFT_WIDTH = 6;
+    /**
+     * Smallest floor height where the numbers of the floors are written
+     */
+    private static final double TEXT_FLOOR_HEIGHT = 10;
+
+    private static final Color BACKGROUND = Color.rgb(255, 255, 255);
+    private static final Color FLOOR_LINE = Color.rgb(230, 230, 230);
+    private static final Color SHAFT = Color.rgb(245, 245, 245);
+    private static final Color TEXT = Color.rgb(90, 90, 90);
+    private static final Color CALLED = Color.rgb(0, 200, 0);
+    private static final Color STOP = Color.rgb(150, 150, 150);
+    private static final Color CAR_CALL = Color.rgb(40, 90, 220);
+    private static final Color MOVING = Color.rgb(0, 0, 0);
+    private static final Color DOOR_OPEN = Color.rgb(230, 180, 0);
+    private static final Color LOCKED = Color.rgb(105, 0, 0);
+    private static final Color LOAD = Color.rgb(255, 255, 255, 0.6);
+
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    private StateSnapshot snapshot;
+    private double shaftWidth;
+    /**
+     * Snapshot before the current one, time of the frame where the current one was received,
+     * and fraction of the move from the previous snapshot to the current one
+     */
+    private StateSnapshot previous;
+    private long receivedNanos;
+    private double progress;
+
+    /**
+     * Height of a floor in pixels, and pixels scrolled from the top left corner of the building
+     */
+    private double floorHeight;
+    private double scrollX;
+    private double scrollY;
+
+    public CanvasRenderer(Canvas canvas) {
+        this.canvas = canvas;
+        this.graphics = canvas.getGraphicsContext2D();
+        this.floorHeight = DEFAULT_FLOOR_HEIGHT;
+    }
+
+    /**
+     * Draw the snapshot, kept to draw it again when the view is scrolled, zoomed or resized
+     */
+    public void render(StateSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.previous = null;
+        this.progress = 1;
+        this.redraw();
+    }
+
+    /**
+     * Draw a frame at the given time (of the AnimationTimer) with the latest snapshot published,
+     * the cars being placed between the previous snapshot and this one
+     *
+     * @param tickNanos real duration of a tick of the simulation
+     */
+    public void update(StateSnapshot latest, long now, double tickNanos) {
+        if (latest != this.snapshot) {
+            this.previous = this.snapshot;
+            this.snapshot = latest;
+            this.receivedNanos = now;
+        } else if (this.progress >= 1) {
+            return;
+        }
+        this.progress = this.previous == null ? 1 : Math.min(1, (now - this.receivedNanos) / tickNanos);
+        this.redraw();
+    }
+
+    public void redraw() {
+        GraphicsContext graphics = this.graphics;
+        double width = this.canvas.getWidth();
+        double height = this.canvas.getHeight();
+        graphics.setFill(BACKGROUND);
+        graphics.fillRect(0, 0, width, height);
+        if (this.snapshot == null) return;
+
+        StateSnapshot snapshot = this.snapshot;
+        int floors = snapshot.getTotalFloors();
+        double shaftWidth = this.getShaftWidth();
+        this.shaftWidth = shaftWidth;
+        this.clampScroll();
+
+        // Visible floors, from the top of the viewport to its bottom
+        int topFloor = Math.min(floors - 1, floors - 1 - (int) (this.scrollY / this.floorHeight));
+        int bottomFloor = Math.max(0, floors - 1 - (int) ((this.scrollY + height) / this.floorHeight));
+        int firstElevator = Math.max(0, (int) (this.scrollX / shaftWidth));
+        int lastElevator = Math.min(snapshot.size() - 1, (int) ((this.scrollX + width - HALL_WIDTH) / shaftWidth));
+        boolean text = this.floorHeight >= TEXT_FLOOR_HEIGHT;
+        double dot = Math.max(1, Math.min(shaftWidth, this.floorHeight) / 3);
+
+        // Shafts
+        graphics.setFill(SHAFT);
+        for (int row = firstElevator; row <= lastElevator; row++) {
+            graphics.fillRect(this.getShaftX(row) + 1, 0, shaftWidth - 2, height);
+        }
+
+        for (int floor = bottomFloor; floor <= topFloor; floor++) {
+            double y = this.getFloorY(floor);
+            if (this.floorHeight >= 4) {
+                graphics.setStroke(FLOOR_LINE);
+                graphics.strokeLine(0, y + this.floorHeight, width, y + this.floorHeight);
+            }
+            if (text) {
+                graphics.setFill(TEXT);
+                graphics.fillText(Integer.toString(floor), 4, y + this.floorHeight - 3);
+            }
+
+            // Hall calls of all the elevators
+            boolean up = false;
+            boolean down = false;
+            for (int row = 0; row < snapshot.size() && !(up && down); row++) {
+                up |= snapshot.hasStop(row, ElevatorStateStore.HALL_UP_SET, floor);
+                down |= snapshot.hasStop(row, ElevatorStateStore.HALL_DOWN_SET, floor);
+            }
+            graphics.setFill(CALLED);
+            if (up) graphics.fillRect(HALL_WIDTH - 20, y + 1, 8, Math.max(1, this.floorHeight - 2));
+            if (down) graphics.fillRect(HALL_WIDTH - 10, y + 1, 8, Math.max(1, this.floorHeight - 2));
+
+            // Queues of the visible elevators
+            for (int row = firstElevator; row <= lastElevator; row++) {
+                if (!snapshot.hasStop(row, floor)) continue;
+                graphics.setFill(snapshot.hasStop(row, ElevatorStateStore.CAR_CALL_SET, floor) ? CAR_CALL : STOP);
+                graphics.fillOval(this.getShaftX(row) + (shaftWidth - dot) / 2, y + (this.floorHeight - dot) / 2, dot, dot);
+            }
+        }
+
+        // Cars, between their floor in the previous snapshot and in this one
+        StateSnapshot previous = this.previous != null && this.previous.size() == snapshot.size() ? this.previous : snapshot;
+        for (int row = firstElevator; row <= lastElevator; row++) {
+            double floor = previous.getFloor(row) + (snapshot.getFloor(row) - previous.getFloor(row)) * this.progress;
+            if (floor < bottomFloor - 1 || floor > topFloor + 1) continue;
+            double x = this.getShaftX(row) + 1;
+            double y = this.getFloorY(floor) + 1;
+            double carWidth = shaftWidth - 2;
+            double carHeight = Math.max(1, this.floorHeight - 2);
+
+            if (snapshot.isLocked(row)) graphics.setFill(LOCKED);
+            else if (snapshot.getDoorStatus(row) != DoorStatus.CLOSE) graphics.setFill(DOOR_OPEN);
+            else graphics.setFill(MOVING);
+            graphics.fillRect(x, y, carWidth, carHeight);
+
+            double load = Math.min(1, snapshot.getPassengers(row) * ElevatorStateStore.PASSENGER_MASS / (double) snapshot.getRatedLoad(row));
+            if (load > 0) {
+                graphics.setFill(LOAD);
+                graphics.fillRect(x, y + carHeight * (1 - load), Math.max(1, carWidth / 4), carHeight * load);
+            }
+            if (text && shaftWidth >= 12 && snapshot.getDirection(row) != ElevatorDirection.IDLE) {
+                graphics.setFill(BACKGROUND);
+                graphics.fillText(snapshot.getDirection(row) == ElevatorDirection.UP ? "^" : "v", x + carWidth / 2 - 3, y + carHeight - 3);
+            }
+        }
+    }
+
+    /**
+     * Move the view by the given pixels, positive to go right and down
+     */
+    public void scroll(double dx, double dy) {
+        this.scrollX += dx;
+        this.scrollY += dy;
+        this.redraw();
+    }
+
+    /**
+     * Change the height of the floors by the factor, keeping the floor under the y coordinate in place
+     */
+    public void zoom(double factor, double y) {
+        double height = Math.max(MIN_FLOOR_HEIGHT, Math.min(MAX_FLOOR_HEIGHT, this.floorHeight * factor));
+        this.scrollY = (this.scrollY + y) * height / this.floorHeight - y;
+        this.floorHeight = height;
+        this.redraw();
+    }
+
+    /**
+     * Floor under the y coordinate of the canvas, -1 if there is none
+     */
+    public int getFloorAt(double y) {
+        if (this.snapshot == null) return -1;
+        int floor = this.snapshot.getTotalFloors() - 1 - (int) Math.floor((y + this.scrollY) / this.floorHeight);
+        return floor >= 0 && floor < this.snapshot.getTotalFloors() ? floor : -1;
+    }
+
+    /**
+     * Elevator of the shaft under the x coordinate of the canvas, -1 for the hall calls or outside the shafts
+     */
+    public int getElevatorAt(double x) {
+        if (this.snapshot == null || x < HALL_WIDTH) return -1;
+        int row = (int) ((x - HALL_WIDTH + this.scrollX) / this.getShaftWidth());
+        return row < this.snapshot.size() ? row : -1;
+    }
+
+    /**
+     * Check if the x coordinate is on the up half of the hall calls, the other half being the down calls
+     */
+    public boolean isUpCallAt(double x) {
+        return x < HALL_WIDTH - 10;
+    }
+
+    /**
+     * The shafts share the width of the canvas, but are never narrower than MIN_SHAFT_WIDTH
+     */
+    private double getShaftWidth() {
+        return Math.max(MIN_SHAFT_WIDTH, (this.canvas.getWidth() - HALL_WIDTH) / Math.max(1, this.snapshot.size()));
+    }
+
+    private double getShaftX(int row) {
+        return HALL_WIDTH + row * this.shaftWidth - this.scrollX;
+    }
+
+    private double getFloorY(double floor) {
+        return (this.snapshot.getTotalFloors() - 1 - floor) * this.floorHeight - this.scrollY;
+    }
+
+    private void clampScroll() {
+        double maxX = this.snapshot.size() * this.getShaftWidth() - (this.canvas.getWidth() - HALL_WIDTH);
+        double maxY = this.snapshot.getTotalFloors() * this.floorHeight - this.canvas.getHeight();
+        this.scrollX = Math.max(0, Math.min(this.scrollX, maxX));
+        this.scrollY = Math.max(0, Math.min(this.scrollY, maxY));
+    }
+
+    /**
+     * GETTERS
+     */
+    public Canvas getCanvas() {return this.canvas;}
+    public double getFloorHeight() {return this.floorHeight;}
+}
@@ -0,0 +1,154 @@
+package com.example.learningjavafx.Application;
+
+import com.example.learningjavafx.Metrics.CallMetrics;
+import com.example.learningjavafx.Metrics.PerformanceMonitor;
+import com.example.learningjavafx.Metrics.TimeSeries;
+import com.example.learningjavafx.Simulation.SimulationLoop;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * Rolling charts of the performance of the building, next to the view: average wait, longest waiting hall call,
+ * calls per minute, utilization of the cars and duration of a tick, sampled by a PerformanceMonitor.
+ * <p>
+ * The charts are drawn on a single Canvas, like the CanvasRenderer: a chart is one path of the samples in
+ * its TimeSeries, and the series keep the last SAMPLES samples, so neither the nodes nor the memory grow
+ * while the application runs.
+ * <p>
+ * update is called on every frame but the work is throttled: the monitor samples every SAMPLE_NANOS of
+ * real time, and the five charts are drawn together every DRAW_NANOS when a sample has been added.
+ * Everything runs on the JavaFX thread and only reads what the simulation thread publishes.
+ */
+public class DashboardView {
+    public static final int SAMPLES = 600;
+    public static final long SAMPLE_NANOS = 500_000_000L;
+    public static final long DRAW_NANOS = 1_000_000_000L;
+    public static final double WIDTH = 300;
+    private static final double CHART_HEIGHT = 110;
+    private static final double PADDING = 8;
+    private static final double TITLE_HEIGHT = 18;
+
+    private static final Color BACKGROUND = Color.rgb(255, 255, 255);
+    private static final Color AREA = Color.rgb(245, 245, 245);
+    private static final Color TEXT = Color.rgb(90, 90, 90);
+    private static final Color LINE = Color.rgb(40, 90, 220);
+
+    private final SimulationLoop simulationLoop;
+    private final PerformanceMonitor monitor;
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    /**
+     * Title, unit and series of each chart, from the top
+     */
+    private final String[] titles;
+    private final String[] units;
+    private final TimeSeries[] series;
+
+    private long sampledNanos;
+    private long drawnNanos;
+    private boolean sampled;
+
+    public DashboardView(SimulationLoop simulationLoop, CallMetrics callMetrics) {
+        this.simulationLoop = simulationLoop;
+        this.monitor = new PerformanceMonitor(callMetrics, SAMPLES);
+        this.titles = new String[] {"Average wait", "Longest waiting call", "Calls per minute", "Car utilization", "Tick duration"};
+        this.units = new String[] {"s", "s", "", "%", "us"};
+        this.series = new TimeSeries[] {this.monitor.getAverageWait(), this.monitor.getLongestWait(),
+                this.monitor.getCallsPerMinute(), this.monitor.getUtilization(), this.monitor.getTickMicros()};
+        this.canvas = new Canvas(WIDTH, this.series.length * CHART_HEIGHT);
+        this.graphics = this.canvas.getGraphicsContext2D();
+        this.sampledNanos = Long.MIN_VALUE;
+        this.drawnNanos = Long.MIN_VALUE;
+        this.draw();
+    }
+
+    /**
+     * Called on every frame with the time of the AnimationTimer: sample and draw when their interval is over
+     */
+    public void update(long now) {
+        if (now - this.sampledNanos >= SAMPLE_NANOS || this.sampledNanos == Long.MIN_VALUE) {
+            this.sampledNanos = now;
+            SimulationLoop loop = this.simulationLoop;
+            this.sampled |= this.monitor.sample(loop.getLatest(), loop.getTicks(), loop.getTotalTickNanos());
+        }
+        if (!this.sampled || !this.canvas.isVisible()) return;
+        if (now - this.drawnNanos >= DRAW_NANOS || this.drawnNanos == Long.MIN_VALUE) {
+            this.drawnNanos = now;
+            this.sampled = false;
+            this.draw();
+        }
+    }
+
+    /**
+     * Draw all the charts
+     */
+    public void draw() {
+        GraphicsContext graphics = this.graphics;
+        graphics.setFill(BACKGROUND);
+        graphics.fillRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+        graphics.setFont(Font.font(11));
+        graphics.setTextBaseline(VPos.TOP);
+        for (int i = 0; i < this.series.length; i++) {
+            this.drawChart(this.titles[i], this.units[i], this.series[i], i * CHART_HEIGHT);
+        }
+    }
+
+    /**
+     * Title with the last value, then the samples of the series from 0 (bottom) to its highest value (top),
+     * the last sample on the right. A sample without measure breaks the line.
+     */
+    private void drawChart(String title, String unit, TimeSeries series, double top) {
+        GraphicsContext graphics = this.graphics;
+        double left = PADDING;
+        double width = this.canvas.getWidth() - 2 * PADDING;
+        double areaTop = top + TITLE_HEIGHT;
+        double height = CHART_HEIGHT - TITLE_HEIGHT - PADDING;
+        double last = series.getLast();
+        double max = series.getMax();
+
+        graphics.setFill(TEXT);
+        graphics.fillText(title + ": " + (Double.isNaN(last) ? "-" : format(last) + " " + unit), left, top + 3);
+        graphics.setFill(AREA);
+        graphics.fillRect(left, areaTop, width, height);
+        if (series.size() < 2) return;
+
+        graphics.setFill(TEXT);
+        graphics.fillText(format(max), left + 2, areaTop + 1);
+        double scale = max > 0 ? height / max : 0;
+        long end = series.getTime(series.size() - 1);
+        long span = Math.max(1, end - series.getTime(0));
+        double bottom = areaTop + height;
+
+        graphics.setStroke(LINE);
+        graphics.setLineWidth(1.5);
+        graphics.beginPath();
+        boolean drawing = false;
+        for (int i = 0; i < series.size(); i++) {
+            double value = series.getValue(i);
+            if (Double.isNaN(value)) {
+                drawing = false;
+                continue;
+            }
+            double x = left + width - (end - series.getTime(i)) * width / span;
+            double y = bottom - value * scale;
+            if (drawing) graphics.lineTo(x, y);
+            else graphics.moveTo(x, y);
+            drawing = true;
+        }
+        graphics.stroke();
+    }
+
+    private static String format(double value) {
+        return value >= 100 ? String.valueOf(Math.round(value)) : String.format("%.1f", value);
+    }
+
+    /**
+     * GETTERS
+     */
+    public Node getNode() {return this.canvas;}
+    public PerformanceMonitor getMonitor() {return this.monitor;}
+}
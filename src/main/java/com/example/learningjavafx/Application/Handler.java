@@ -1,7 +1,8 @@
 package com.example.learningjavafx.Application;
 
 import com.example.learningjavafx.Elevator.ElevatorController;
-import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.CommandType;
+import com.example.learningjavafx.Enumerations.LogLevel;
 import com.example.learningjavafx.Helpers.Console;
 import com.example.learningjavafx.RunnableApplication;
 import com.example.learningjavafx.RunnableBuilding;
@@ -20,6 +21,9 @@ import javafx.scene.control.TextField;
  * For instance, the buttons have the index in front of them
  * and using a for loop, we can target each button and add the functionality
  * by keeping the code concise and elegant.
+ * <p>
+ * The actions do not change the elevators: they are submitted to the command queue of the scheduler
+ * and applied by the thread running the elevators, at the start of its next tick.
  */
 public class Handler {
     /**
@@ -46,11 +50,11 @@ public class Handler {
 
             try {
                 int value = Integer.parseInt(newValue);
-                if (value < 0 || value >= RunnableBuilding.floors) {
-                    Console.log("HANDLER", "INVALID INTERNAL FLOOR SELECTION");
+                if (!elevator.isValidFloor(value)) {
+                    Console.log(LogLevel.WARN, "HANDLER", "INVALID INTERNAL FLOOR SELECTION");
                     RunnableApplication.setUpdateSystem("Invalid floor value");
                 } else {
-                    elevator.internalRequest(value);
+                    RunnableBuilding.building.scheduler.submit(CommandType.CAR_CALL, index, value);
                 }
             } catch(Exception ignored) {}
 
@@ -60,48 +64,21 @@ public class Handler {
     }
 
     /**
-     * Add the event listener to all the up button for the elevator.
-     * We can target each button without duplicates using their index.
-     * <p>
-     * We need to give an action method to each button to trigger the request into
-     * the scheduler. This can be done by looping all the buttons and adding a
-     * setOnAction lambda method. The method will add the floor to the request.
+     * Press the up button of a floor: the button belongs to the row of the floor in the BuildingView,
+     * which only exists while the floor is in the viewport, so the row calls the handler with its current floor.
      * <p>
      * We do not need to ensure if the floor is already to process as the Scheduler
      * class contains the logic for it,
      */
-    public void handleUpCalls() {
-        for (int i = 0; i < RunnableBuilding.floors; i++) {
-            Button button = (Button) RunnableApplication.scene.lookup("#callup"+i);
-            if (i == RunnableBuilding.floors-1) {
-                button.setVisible(false);
-                continue;
-            }
-            int finalI = i;
-            button.setOnAction(event -> RunnableBuilding.building.scheduler.acceptRequestAndProcess(ElevatorDirection.UP, finalI));
-        }
+    public void handleUpCall(int floor) {
+        RunnableBuilding.building.scheduler.submit(CommandType.HALL_CALL_UP, -1, floor);
     }
+
     /**
-     * Add the event listener to all the down button for the elevator.
-     * We can target each button without duplicates using their index.
-     * <p>
-     * We need to give an action method to each button to trigger the request into
-     *      * the scheduler. This can be done by looping all the buttons and adding a
-     *      * setOnAction lambda method. The method will add the floor to the request.
-     *      *
-     *      * We do not need to ensure if the floor is already to process as the Scheduler
-     *      * class contains the logic for it,
+     * Press the down button of a floor, as handleUpCall
      */
-    public void handleDownCalls() {
-        for (int i = 0; i < RunnableBuilding.floors; i++) {
-            Button button = (Button) RunnableApplication.scene.lookup("#calldown"+i);
-            if (i == 0) {
-                button.setVisible(false);
-                continue;
-            }
-            int finalI = i;
-            button.setOnAction(event -> RunnableBuilding.building.scheduler.acceptRequestAndProcess(ElevatorDirection.UP, finalI));
-        }
+    public void handleDownCall(int floor) {
+        RunnableBuilding.building.scheduler.submit(CommandType.HALL_CALL_DOWN, -1, floor);
     }
 
     /**
@@ -120,19 +97,19 @@ public class Handler {
      */
     public void handleLock() {
         // Loop for each lock in the elevator
-        for (int i = 0; i < RunnableBuilding.elevators; i++) {
+        for (int i = 0; i < RunnableBuilding.building.elevators.size(); i++) {
             Button button = (Button) RunnableApplication.scene.lookup("#lock"+i);
             button.setOnAction(event -> {
                 boolean locked = RunnableBuilding.building.scheduler.isFireLocked();
                 Button fireButton = (Button) RunnableApplication.scene.lookup("#fireLock");
 
                 if (locked) {
-                    RunnableBuilding.building.scheduler.disableFireLock();
+                    RunnableBuilding.building.scheduler.submit(CommandType.FIRE_UNLOCK, -1, 0);
                     fireButton.setText("FIRE LOCK");
                     updateAlarmButtonsStatus("ALARM", false);
                     RunnableApplication.setUpdateSystem("The elevators has been unlocked.\nAll elevators to the last floor.");
                 } else {
-                    RunnableBuilding.building.scheduler.enableFireLock();
+                    RunnableBuilding.building.scheduler.submit(CommandType.FIRE_LOCK, -1, 0);
                     fireButton.setText("FIRE UNLOCK");
                     updateAlarmButtonsStatus("DIS ALARM", false);
                     RunnableApplication.setUpdateSystem("The elevators has been locked.\nAll elevators to the last floor.");
@@ -159,12 +136,12 @@ public class Handler {
         button.setOnAction(actionEvent -> {
             if (RunnableBuilding.building.scheduler.isGroundLocked()) {
                 button.setText("GROUND LOCK");
-                RunnableBuilding.building.scheduler.disableGroundLock();
+                RunnableBuilding.building.scheduler.submit(CommandType.GROUND_UNLOCK, -1, 0);
                 updateAlarmButtonsStatus("ALARM", false);
                 RunnableApplication.setUpdateSystem("The elevators has been unlocked.\nAll elevators to the ground floor.");
             } else {
                 button.setText("GROUND UNLOCK");
-                RunnableBuilding.building.scheduler.enableGroundLock();
+                RunnableBuilding.building.scheduler.submit(CommandType.GROUND_LOCK, -1, 0);
                 updateAlarmButtonsStatus("LOCKED", true);
                 RunnableApplication.setUpdateSystem("The elevators has been locked.\nAll elevators to the ground floor.");
             }
@@ -181,12 +158,12 @@ public class Handler {
         button.setOnAction(actionEvent -> {
             if (RunnableBuilding.building.scheduler.isFireLocked()) {
                 button.setText("FIRE LOCK");
-                RunnableBuilding.building.scheduler.disableFireLock();
+                RunnableBuilding.building.scheduler.submit(CommandType.FIRE_UNLOCK, -1, 0);
                 updateAlarmButtonsStatus("ALARM", false);
                 RunnableApplication.setUpdateSystem("The elevators has been unlocked.\nAll elevators to the last floor.");
             } else {
                 button.setText("FIRE UNLOCK");
-                RunnableBuilding.building.scheduler.enableFireLock();
+                RunnableBuilding.building.scheduler.submit(CommandType.FIRE_LOCK, -1, 0);
                 updateAlarmButtonsStatus("LOCKED", true);
                 RunnableApplication.setUpdateSystem("The elevators has been locked.\nAll elevators to the last floor.");
             }
@@ -200,7 +177,7 @@ public class Handler {
      * This will lock all the elevator status based on the value of the provider.
      */
     public void updateAlarmButtonsStatus(String status, boolean disabled) {
-        for (int i = 0; i < RunnableBuilding.elevators; i++) {
+        for (int i = 0; i < RunnableBuilding.building.elevators.size(); i++) {
             Button alarm = (Button) RunnableApplication.scene.lookup("#lock"+i);
             alarm.setText(status);
             alarm.setDisable(disabled);
@@ -234,7 +211,7 @@ public class Handler {
                 Console.log("APPLICATION", "LOGIN SUCCESS");
                 RunnableApplication.setUpdateSystem("Login success.");
             } else {
-                Console.log("APPLICATION", "WRONG PASSWORD");
+                Console.log(LogLevel.WARN, "APPLICATION", "WRONG PASSWORD");
                 RunnableApplication.setUpdateSystem("Wrong password.");
             }
         });
@@ -1,28 +1,54 @@
 package com.example.learningjavafx.Application;
 
-import com.example.learningjavafx.Elevator.ElevatorController;
-import com.example.learningjavafx.RunnableApplication;
-import com.example.learningjavafx.RunnableBuilding;
+import com.example.learningjavafx.Elevator.StateSnapshot;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
+
+import java.util.Arrays;
 
 /**
  * The updater methods are called by the Timeframe to refresh the graphic
  * on a particular interval.
  * <p>
  * These include the status of the elevator, the messages and the desired system control.
+ * <p>
+ * The nodes come from the BuildingView: the controls of each elevator are kept in arrays indexed by elevator,
+ * the floors are painted by the rows of the view in the viewport. The updater keeps the version of the queues
+ * it has drawn, so that a refresh only builds the text of the queues that have changed since the previous one.
+ * <p>
+ * The state is read from a StateSnapshot published by the simulation thread, never from the elevators
+ * themselves, which are moved by another thread.
  */
 public class Updater {
+    private final BuildingView view;
+    /**
+     * Nodes of the scene: the queues and the input field of each elevator
+     */
+    private final Label[] stateLabels;
+    private final TextField[] internalInputs;
+
+    /**
+     * Version of the queues drawn by the last refresh, -1 when nothing is drawn yet
+     */
+    private final int[] drawnQueueVersions;
+    private final int[] calledVersions;
+
+    public Updater(BuildingView view) {
+        this.view = view;
+        this.stateLabels = view.getStateLabels();
+        this.internalInputs = view.getInternalInputs();
+        this.drawnQueueVersions = new int[this.stateLabels.length];
+        this.calledVersions = new int[this.stateLabels.length];
+        Arrays.fill(this.drawnQueueVersions, -1);
+        Arrays.fill(this.calledVersions, -1);
+    }
+
     /**
      * Update the state of the elevators for each timeframe:
      * update color of the elevators
      * <p>
-     * We need to loop each elevator to get the status. For each floor
-     * we check if the elevator is at that elevator. if the elevator is at that
-     * elevator, we will change the color of the elevator state BOX (central ones)
-     * to black. The default color is white.
+     * For each floor in the viewport, we check if the elevator is at that floor. If the elevator is there,
+     * the row changes the color of the elevator state BOX (central ones) to black. The default color is white.
      * <p>
      * If the elevator is locked, the colors will be changed to red.
      * <p>
@@ -31,25 +57,14 @@ public class Updater {
      * In this case, we wait until the user inputs the internal floor value and then move the elevator
      * in the next direction.
      */
-    public void updateElevatorsState() {
-        for (int j = 0; j < RunnableBuilding.elevators; j++) {
-            ElevatorController elevator = RunnableBuilding.building.elevators.get(j);
-            int currentFloor = elevator.getCurrentFloor();
+    public void updateElevatorsState(StateSnapshot snapshot) {
+        this.view.setSnapshot(snapshot);
+        this.view.paintElevators();
 
-            for (int i = 0; i < RunnableBuilding.floors; i++) {
-                Rectangle floorTime = (Rectangle) RunnableApplication.scene.lookup("#e"+j+i);
-                if (i == currentFloor && !elevator.isLocked()) {
-                    floorTime.setFill(Color.rgb(0,0,0));
-                } else if (elevator.isLocked()) {
-                    floorTime.setFill(Color.rgb (105,0,0));
-                } else {
-                    floorTime.setFill(Color.rgb(255,255,255));
-                }
-            }
-            if (elevator.hasToWaitUserInput()) {
-                TextField internalInput = (TextField) RunnableApplication.scene.lookup("#internal"+j);
-                internalInput.setDisable(false);
-            }
+        // The input is closed again when the door closed without a destination (timeout, lock)
+        for (int j = 0; j < this.internalInputs.length; j++) {
+            boolean waiting = snapshot.hasToWaitUserInput(j);
+            if (waiting == this.internalInputs[j].isDisabled()) this.internalInputs[j].setDisable(!waiting);
         }
     }
 
@@ -57,16 +72,20 @@ public class Updater {
      * Show the list of all the items in the queue for status
      * To do this, we need to map each elevator and retrieve the up, down and current
      * queues. These dequeues are displayed in the state[index] label.
+     * <p>
+     * The text is only built again when the queues of the elevator have changed.
      */
-    public void updateElevatorQueueStatus() {
-        for (int i = 0; i < RunnableBuilding.elevators; i++) {
-            Label label = (Label) RunnableApplication.scene.lookup("#state"+i);
-            ElevatorController controller = RunnableBuilding.building.elevators.get(i);
-            label.setText(
-                    controller.getCurrentQueue().toString()+
-                    "\n"+controller.getUpQueue()+
-                    "\n"+controller.getDownQueue()
+    public void updateElevatorQueueStatus(StateSnapshot snapshot) {
+        for (int i = 0; i < this.stateLabels.length; i++) {
+            int version = snapshot.getQueueVersion(i);
+            if (version == this.drawnQueueVersions[i]) continue;
+
+            this.stateLabels[i].setText(
+                    snapshot.getCurrentQueue(i).toString()+
+                    "\n"+snapshot.getUpQueue(i)+
+                    "\n"+snapshot.getDownQueue(i)
             );
+            this.drawnQueueVersions[i] = version;
         }
     }
 
@@ -74,26 +93,21 @@ public class Updater {
      * These are the small tiny tiles near the up button to show which elevator has been
      * called and where is the next destination of it.
      * <p>
-     * To do this, we need to loop each floor. On each floor, we loop the elevators
-     * If any of the elevator will reach a particular floor i, we change the colors of the
-     * indicator with id called[index] to green. WE must break from the loop because if any
-     * of the other elevators is not at that floor, the state will be overridden.
-     *
+     * A floor is called if any of the elevators will reach it. The floors in the viewport are only checked again
+     * when the queues of an elevator have changed.
      */
-    public void updateCalledSigns() {
-        for (int i = 0; i < RunnableBuilding.floors; i++) {
-            Rectangle calledContainer = (Rectangle) RunnableApplication.scene.lookup("#called"+i);
-            for (int j = 0; j < RunnableBuilding.elevators; j++) {
-                ElevatorController controller = RunnableBuilding.building.elevators.get(j);
-
-                if (controller.getUpQueue().contains(i) || controller.getDownQueue().contains(i)) {
-                    calledContainer.setFill(Color.rgb(0, 255, 0));
-                    break;
-                } else {
-                    calledContainer.setFill(Color.rgb(255, 255, 255));
-                }
+    public void updateCalledSigns(StateSnapshot snapshot) {
+        boolean changed = false;
+        for (int j = 0; j < this.calledVersions.length; j++) {
+            int version = snapshot.getQueueVersion(j);
+            if (version != this.calledVersions[j]) {
+                this.calledVersions[j] = version;
+                changed = true;
             }
-
         }
+        if (!changed) return;
+
+        this.view.setSnapshot(snapshot);
+        this.view.paintCalledSigns();
     }
 }
@@ -2,15 +2,29 @@ package com.example.learningjavafx;
 
 import com.example.learningjavafx.Components.Floor;
 import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Journal.EventJournal;
+import com.example.learningjavafx.Metrics.CallMetrics;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 /**
  * The building class will contain an instance of the scheduler, floors and elevators moving
  * the building will be identifiable with an id
  */
 public class Building {
+    public static final int SNAPSHOT_MAGIC = 0x53564C45;
+    public static final int SNAPSHOT_VERSION = 1;
+
     private final UUID id;
     /**
      * A private instance of the floor
@@ -20,6 +34,10 @@ public class Building {
      * A public and final instance of the elevators
      */
     public final ArrayList<ElevatorController> elevators;
+    /**
+     * The state of all the elevators, the controllers are views over its rows
+     */
+    private final ElevatorStateStore stateStore;
     /**
      * A public and final instance of the scheduler.
      */
@@ -31,9 +49,10 @@ public class Building {
         /**
          * Creating the elevators and appending them to the list
          */
-        this.elevators = new ArrayList<>();
+        this.stateStore = new ElevatorStateStore(totalElevators, totalFloors);
+        this.elevators = new ArrayList<>(totalElevators);
         for (int i = 0; i < totalElevators; i++) {
-            this.elevators.add(new ElevatorController());
+            this.elevators.add(this.stateStore.getController(i));
         }
 
         /**
@@ -47,7 +66,7 @@ public class Building {
         /**
          * Initializing the scheduler with the elevators to control
          */
-        this.scheduler = new Scheduler(elevators);
+        this.scheduler = new Scheduler(elevators, this.stateStore);
     }
 
     /**
@@ -60,4 +79,130 @@ public class Building {
     public UUID getId() {
         return id;
     }
+
+    /**
+     * Get the total number of floors in the building
+     */
+    public int getTotalFloors() {
+        return this.floors.size();
+    }
+
+    /**
+     * Change the durations of the door phases of all the elevators, in ticks
+     */
+    public void setDoorTimings(int openingTicks, int dwellTicks, int closingTicks) {
+        this.stateStore.setDoorTimings(openingTicks, dwellTicks, closingTicks);
+    }
+
+    /**
+     * Change the number of ticks the elevators wait for the user input with the door open, 0 to wait forever
+     */
+    public void setUserInputTimeout(int ticks) {
+        this.stateStore.setUserInputTimeout(ticks);
+    }
+
+    /**
+     * Change the rated load of all the elevators, in kg
+     */
+    public void setRatedLoad(int ratedLoad) {
+        for (int row = 0; row < this.stateStore.size(); row++) this.stateStore.setRatedLoad(row, ratedLoad);
+    }
+
+    /**
+     * Start recording the wait and journey time of every call, with the given clock in milliseconds
+     * (the wall clock in the application, the virtual clock of a SimulationEngine)
+     */
+    public CallMetrics enableCallMetrics(LongSupplier clock) {
+        CallMetrics callMetrics = new CallMetrics(this.getTotalFloors(), this.elevators.size(), clock);
+        this.stateStore.setCallMetrics(callMetrics);
+        this.scheduler.setCallMetrics(callMetrics);
+        return callMetrics;
+    }
+
+    /**
+     * Start recording every change of the elevators and every decision of the scheduler in a journal at the
+     * given path, with the given clock in milliseconds. The journal must be closed at the end of the recording,
+     * which detaches it from the building.
+     */
+    public EventJournal enableJournal(Path path, LongSupplier clock) throws IOException {
+        EventJournal journal = new EventJournal(path, this.elevators.size(), this.getTotalFloors(), clock);
+        this.stateStore.setJournal(journal);
+        this.scheduler.setJournal(journal);
+        journal.setOnClose(() -> this.disableJournal(journal));
+        return journal;
+    }
+
+    /**
+     * Stop recording in the journal, if it is still the journal of the building
+     */
+    public void disableJournal(EventJournal journal) {
+        if (this.stateStore.getJournal() == journal) this.stateStore.setJournal(null);
+        if (this.scheduler.getJournal() == journal) this.scheduler.setJournal(null);
+    }
+
+    /**
+     * SNAPSHOT
+     */
+
+    /**
+     * Copy the state of the elevators (queues, direction, locks, hall calls waiting for the user input, door, load)
+     * and of the scheduler, in little endian: magic "ELVS", version, then the store and the scheduler.
+     * The recordings (call metrics, journal) and the listeners are not part of the snapshot.
+     */
+    public ByteBuffer snapshot() {
+        ByteBuffer buffer = ByteBuffer.allocate(this.getSnapshotBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        this.writeSnapshot(buffer);
+        return buffer.flip();
+    }
+
+    public int getSnapshotBytes() {
+        return 2 * Integer.BYTES + this.stateStore.getSnapshotBytes() + this.scheduler.getSnapshotBytes();
+    }
+
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION);
+        this.stateStore.writeSnapshot(buffer);
+        this.scheduler.writeSnapshot(buffer);
+    }
+
+    /**
+     * Go back to the state of a snapshot of a building with the same number of elevators and floors
+     */
+    public void restore(ByteBuffer buffer) {
+        if (buffer.getInt() != SNAPSHOT_MAGIC) throw new IllegalArgumentException("Not a building snapshot");
+        if (buffer.getInt() != SNAPSHOT_VERSION) throw new IllegalArgumentException("Unsupported version of building snapshot");
+        this.stateStore.readSnapshot(buffer);
+        this.scheduler.readSnapshot(buffer);
+    }
+
+    public void saveSnapshot(Path path) throws IOException {
+        writeFile(path, this.snapshot());
+    }
+
+    public void restoreSnapshot(Path path) throws IOException {
+        this.restore(readFile(path));
+    }
+
+    /**
+     * Write the whole buffer to the file, replacing it
+     */
+    public static void writeFile(Path path, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read the whole file in a little endian buffer
+     */
+    public static ByteBuffer readFile(Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Get the store containing the state of all the elevators
+     */
+    public ElevatorStateStore getStateStore() {
+        return this.stateStore;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+
+import java.util.Arrays;
+
+/**
+ * Assign a batch of hall calls to the elevators all together.
+ * <p>
+ * When the calls are given one by one, each call takes the best elevator at that moment, and a burst
+ * of calls (end of a meeting, lobby rush) can end up on the same few elevators. Here the cost of every
+ * elevator for every call is computed first, then the assignment with the lowest total cost is found
+ * with the Hungarian algorithm.
+ * <p>
+ * The Hungarian algorithm assigns each row to a different column, but an elevator can take more than one
+ * call. Each elevator is therefore repeated in several slots: the k-th slot of an elevator costs k extra
+ * stops, because the calls taken before it will delay it. There are enough slots for all the calls.
+ * <p>
+ * The cost of an elevator for a call is the estimated time of the EstimatedTimePolicy, and the extra stops
+ * of the slots cost the stop ticks of the elevator, door cycle included.
+ */
+public class BatchAssigner {
+    private final EstimatedTimePolicy estimator;
+
+    /**
+     * Duration of the last solve, in nanoseconds
+     */
+    private long lastSolveNanos;
+
+    public BatchAssigner() {
+        this(EstimatedTimePolicy.ELEVATOR_STOP_TICKS);
+    }
+
+    public BatchAssigner(int stopTicks) {
+        this.estimator = new EstimatedTimePolicy(stopTicks);
+    }
+
+    /**
+     * Find the elevator for each call.
+     *
+     * @param index the elevators, only the available ones are used (unlocked and not full)
+     * @param callFloors the floor of each call
+     * @return int[]: for each call, the index of the elevator, -1 if all the elevators are locked
+     */
+    public int[] assign(ElevatorIndex index, int[] callFloors) {
+        long start = System.nanoTime();
+        int calls = callFloors.length;
+        int[] assignment = new int[calls];
+
+        int[] elevators = new int[index.size()];
+        int available = 0;
+        for (int i = index.findNextAvailable(0); i != -1; i = index.findNextAvailable(i + 1)) elevators[available++] = i;
+        if (available == 0 || calls == 0) {
+            Arrays.fill(assignment, -1);
+            this.lastSolveNanos = System.nanoTime() - start;
+            return assignment;
+        }
+
+        // Estimated time of each elevator for each call, computed once and reused for all the slots
+        int[][] times = new int[calls][available];
+        int[] stopTicks = new int[available];
+        for (int e = 0; e < available; e++) stopTicks[e] = this.estimator.getStopTicks(index.get(elevators[e]));
+        for (int call = 0; call < calls; call++) {
+            for (int e = 0; e < available; e++) {
+                ElevatorController elevator = index.get(elevators[e]);
+                times[call][e] = this.estimator.estimateTime(elevator, callFloors[call]);
+            }
+        }
+
+        int candidates = available;
+        int slots = (calls + candidates - 1) / candidates;
+        int columns = candidates * slots;
+        int[] columnOfRow = hungarian(calls, columns, (row, column) -> times[row][column % candidates] + (long) (column / candidates) * stopTicks[column % candidates]);
+
+        for (int call = 0; call < calls; call++) assignment[call] = elevators[columnOfRow[call] % candidates];
+        this.lastSolveNanos = System.nanoTime() - start;
+        return assignment;
+    }
+
+    public long getLastSolveNanos() {
+        return this.lastSolveNanos;
+    }
+
+    /**
+     * Cost of assigning a row to a column
+     */
+    interface CostMatrix {
+        long cost(int row, int column);
+    }
+
+    /**
+     * Hungarian algorithm with potentials, O(rows^2 * columns), for rows <= columns.
+     * Returns the column assigned to each row such that the sum of the costs is minimal.
+     * <p>
+     * The rows and columns are 1-based inside the method, the index 0 is the fictitious column
+     * used to start each augmenting path.
+     */
+    static int[] hungarian(int rows, int columns, CostMatrix matrix) {
+        long[] rowPotential = new long[rows + 1];
+        long[] columnPotential = new long[columns + 1];
+        int[] rowOfColumn = new int[columns + 1];
+        int[] previousColumn = new int[columns + 1];
+        long[] minSlack = new long[columns + 1];
+        boolean[] used = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minSlack, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+
+            // Grow the alternating tree until a free column is reached
+            do {
+                used[column] = true;
+                int currentRow = rowOfColumn[column];
+                long delta = Long.MAX_VALUE;
+                int nextColumn = 0;
+                for (int j = 1; j <= columns; j++) {
+                    if (used[j]) continue;
+                    long slack = matrix.cost(currentRow - 1, j - 1) - rowPotential[currentRow] - columnPotential[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        previousColumn[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (used[j]) {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            // Flip the augmenting path
+            do {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] columnOfRow = new int[rows];
+        for (int j = 1; j <= columns; j++) {
+            if (rowOfColumn[j] != 0) columnOfRow[rowOfColumn[j] - 1] = j - 1;
+        }
+        return columnOfRow;
+    }
+}
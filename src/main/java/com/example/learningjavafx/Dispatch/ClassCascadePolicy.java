@@ -0,0 +1,76 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.LogLevel;
+import com.example.learningjavafx.Helpers.Console;
+
+/**
+ * The original policy of the scheduler: the elevators are divided into the classes A, B, C and D
+ * depending on their direction and position compared to the request (see the Scheduler documentation),
+ * and the first non-empty class wins.
+ * <p>
+ * It does not look at how many stops the elevators already have to serve.
+ */
+public class ClassCascadePolicy implements DispatchPolicy {
+    /**
+     * Find the most optimal elevator given the constraint of requestDirection and floor
+     * <p>
+     * We need to first filter all the elevators that are not unlocked because
+     * it does not make sense to process a request in an elevator that will not move.
+     * <p>
+     * Then, we need to prioritize the elevator of class A or IDLE
+     * Then the class B, C and lastly D
+     * <p>
+     * As base case, we will process the first unlocked elevator that is not full
+     * <p>
+     * For each class, the nearest or farthest elevator is found directly by the index, where the
+     * elevators are already divided by state and ordered by floor: there is no scan of the elevators
+     * and no list to allocate for each request.
+     */
+    @Override
+    public ElevatorController findOptimalElevator(ElevatorIndex index, ElevatorDirection requestElevatorDirection, int requestFloor) {
+        int classA = index.findInClassA(requestElevatorDirection, requestFloor);
+        int idle = index.findClosestIDLE(requestFloor);
+        if (classA != -1 || idle != -1) {
+            Console.log(LogLevel.DEBUG, "SCHEDULER", "CLASS A OR IDLE");
+            return index.get(this.findClosestElevator(index, classA, idle, requestFloor));
+        }
+
+        int classB = index.findInClassB(requestElevatorDirection, requestFloor);
+        if (classB != -1) {
+            Console.log(LogLevel.DEBUG, "SCHEDULER", "CLASS B");
+            return index.get(classB);
+        }
+
+        int classC = index.findInClassC(requestElevatorDirection, requestFloor);
+        if (classC != -1) {
+            Console.log(LogLevel.DEBUG, "SCHEDULER", "CLASS C");
+            return index.get(classC);
+        }
+
+        int classD = index.findInClassD(requestElevatorDirection, requestFloor);
+        if (classD != -1) {
+            Console.log(LogLevel.DEBUG, "SCHEDULER", "CLASS D");
+            return index.get(classD);
+        }
+
+        Console.log(LogLevel.DEBUG, "SCHEDULER", "GENERAL");
+        return index.get(index.findFirstAvailable());
+    }
+
+    /**
+     * Finding the closest elevator between the best of class A and the best IDLE one.
+     * <p>
+     * The closest one is the one given by the absolute of the difference in floors.
+     * If they are at the same distance, the class A elevator is preferred because it is already moving
+     * in the direction of the request.
+     */
+    private int findClosestElevator(ElevatorIndex index, int classA, int idle, int requestFloor) {
+        if (classA == -1) return idle;
+        if (idle == -1) return classA;
+        int classADistance = Math.abs(requestFloor - index.getFloor(classA));
+        int idleDistance = Math.abs(requestFloor - index.getFloor(idle));
+        return idleDistance < classADistance ? idle : classA;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+/**
+ * Strategy used by the scheduler to choose which elevator takes a hall call.
+ * <p>
+ * The policy only chooses: the scheduler adds the request to the elevator returned.
+ * The scheduler calls the policy only if at least one elevator is unlocked.
+ */
+public interface DispatchPolicy {
+    ElevatorController findOptimalElevator(ElevatorIndex index, ElevatorDirection requestElevatorDirection, int requestFloor);
+}
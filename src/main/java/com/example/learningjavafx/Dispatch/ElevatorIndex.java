@@ -0,0 +1,330 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.ElevatorStateListener;
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Incremental index of the elevators used by the scheduler and its dispatch policies.
+ * <p>
+ * Instead of filtering every elevator for each class on each request, the elevators are kept in
+ * three sets depending on their state (IDLE, going UP, going DOWN), each ordered by the current floor.
+ * Every class of the scheduler is then one or two ordered lookups in one of the sets:
+ * for instance, the class A for an UP request is the highest elevator going UP that is below the request.
+ * <p>
+ * The index listens to the controllers, so the sets are updated only when an elevator changes floor,
+ * direction, lock or when its queues become empty.
+ * <p>
+ * The sets contain the index of the elevator and are ordered by the floor stored in the index itself,
+ * not by the live floor of the controller: this way an elevator can be removed with its previous
+ * position before being inserted again with the new one.
+ * When two elevators are at the same floor, the one with the lowest index comes first.
+ * <p>
+ * A full elevator does not stop for the hall calls, so it is in none of the sets and is not available.
+ */
+public class ElevatorIndex implements ElevatorStateListener {
+    private static final int LOCKED = 0;
+    private static final int IDLE = 1;
+    private static final int UP = 2;
+    private static final int DOWN = 3;
+    /**
+     * Requests in the queues but direction set to IDLE: the elevator does not match any class
+     */
+    private static final int OTHER = 4;
+    private static final int FULL = 5;
+
+    private final ArrayList<ElevatorController> controllers;
+    /**
+     * When the controllers are the rows of one store in the same order (as in a Building), the index of
+     * a controller is its row and the map is not needed.
+     */
+    private final ElevatorStateStore stateStore;
+    private final HashMap<ElevatorController, Integer> indexes;
+
+    /**
+     * Floor and state of each elevator as stored in the sets.
+     * The extra slot at the end is the probe used for the lookups.
+     */
+    private final int[] floors;
+    private final int[] states;
+    private final Integer[] keys;
+    private final int probe;
+
+    private final TreeSet<Integer> idleElevators;
+    private final TreeSet<Integer> upElevators;
+    private final TreeSet<Integer> downElevators;
+    private final BitSet unlockedElevators;
+    private final BitSet availableElevators;
+
+    /**
+     * While the elevators move in parallel, the sets cannot be modified from the worker threads.
+     * The notifications only mark the elevator, and the sets are updated afterwards in index order.
+     */
+    private boolean deferringUpdates;
+    private final boolean[] pendingUpdates;
+
+    public ElevatorIndex(ArrayList<ElevatorController> controllers) {
+        this.controllers = controllers;
+        int total = controllers.size();
+
+        this.stateStore = sharedStateStore(controllers);
+        this.indexes = new HashMap<>();
+        this.floors = new int[total + 1];
+        this.states = new int[total + 1];
+        this.keys = new Integer[total + 1];
+        this.probe = total;
+        for (int i = 0; i <= total; i++) this.keys[i] = i;
+
+        this.idleElevators = new TreeSet<>(this::compare);
+        this.upElevators = new TreeSet<>(this::compare);
+        this.downElevators = new TreeSet<>(this::compare);
+        this.unlockedElevators = new BitSet(total);
+        this.availableElevators = new BitSet(total);
+        this.pendingUpdates = new boolean[total];
+
+        for (int i = 0; i < total; i++) {
+            ElevatorController controller = controllers.get(i);
+            if (this.stateStore == null) this.indexes.put(controller, i);
+            this.states[i] = LOCKED;
+            this.insert(i, controller);
+            controller.setStateListener(this);
+        }
+    }
+
+    /**
+     * Move the elevator to the right set if its floor or state has changed
+     */
+    @Override
+    public void onElevatorStateChanged(ElevatorController controller) {
+        int index = this.indexOf(controller);
+        if (index == -1) return;
+        if (this.deferringUpdates) {
+            this.pendingUpdates[index] = true;
+            return;
+        }
+        this.update(index, controller);
+    }
+
+    /**
+     * Position of the controller in the list of the index, -1 if it is not indexed
+     */
+    public int indexOf(ElevatorController controller) {
+        if (this.stateStore != null && controller.getStateStore() == this.stateStore) return controller.getRow();
+        Integer index = this.indexes.get(controller);
+        return index == null ? -1 : index;
+    }
+
+    private static ElevatorStateStore sharedStateStore(ArrayList<ElevatorController> controllers) {
+        if (controllers.isEmpty()) return null;
+        ElevatorStateStore store = controllers.get(0).getStateStore();
+        for (int i = 0; i < controllers.size(); i++) {
+            if (controllers.get(i).getStateStore() != store || controllers.get(i).getRow() != i) return null;
+        }
+        return store;
+    }
+
+    /**
+     * Start collecting the notifications instead of updating the sets.
+     * Each elevator only writes its own slot, so the notifications can come from several threads.
+     */
+    public void deferUpdates() {
+        this.deferringUpdates = true;
+    }
+
+    /**
+     * Stop collecting the notifications and update the sets for all the elevators that changed,
+     * in index order so that the result does not depend on the order of the threads.
+     */
+    public void applyDeferredUpdates() {
+        this.deferringUpdates = false;
+        for (int i = 0; i < this.pendingUpdates.length; i++) {
+            if (!this.pendingUpdates[i]) continue;
+            this.pendingUpdates[i] = false;
+            this.update(i, this.controllers.get(i));
+        }
+    }
+
+    private void update(int index, ElevatorController controller) {
+        int state = stateOf(controller);
+        if (state == this.states[index] && controller.getCurrentFloor() == this.floors[index]) return;
+
+        TreeSet<Integer> set = this.setOf(this.states[index]);
+        if (set != null) set.remove(this.keys[index]);
+        this.insert(index, controller);
+    }
+
+    private void insert(int index, ElevatorController controller) {
+        this.floors[index] = controller.getCurrentFloor();
+        this.states[index] = stateOf(controller);
+
+        TreeSet<Integer> set = this.setOf(this.states[index]);
+        if (set != null) set.add(this.keys[index]);
+        this.unlockedElevators.set(index, this.states[index] != LOCKED);
+        this.availableElevators.set(index, this.states[index] != LOCKED && this.states[index] != FULL);
+    }
+
+    private static int stateOf(ElevatorController controller) {
+        if (controller.isLocked()) return LOCKED;
+        if (controller.isFull()) return FULL;
+        if (controller.isIDLEMode()) return IDLE;
+        if (controller.getDirection() == ElevatorDirection.UP) return UP;
+        if (controller.getDirection() == ElevatorDirection.DOWN) return DOWN;
+        return OTHER;
+    }
+
+    private TreeSet<Integer> setOf(int state) {
+        return switch (state) {
+            case IDLE -> this.idleElevators;
+            case UP -> this.upElevators;
+            case DOWN -> this.downElevators;
+            default -> null;
+        };
+    }
+
+    private int compare(Integer a, Integer b) {
+        if (this.floors[a] != this.floors[b]) return Integer.compare(this.floors[a], this.floors[b]);
+        return Integer.compare(a, b);
+    }
+
+    /**
+     * CLASS LOOKUPS
+     * All of them return the index of the elevator, or -1 if there is none.
+     */
+
+    /**
+     * Class A: the elevator reaches the floor in its current direction, the closest is the best
+     */
+    public int findInClassA(ElevatorDirection requestDirection, int requestFloor) {
+        if (requestDirection == ElevatorDirection.UP) return this.highestAtOrBelow(this.upElevators, requestFloor);
+        if (requestDirection == ElevatorDirection.DOWN) return this.lowestAtOrAbove(this.downElevators, requestFloor);
+        return -1;
+    }
+
+    /**
+     * Class B: the elevator turns once before the request, the farthest one turns first
+     */
+    public int findInClassB(ElevatorDirection requestDirection, int requestFloor) {
+        if (requestDirection == ElevatorDirection.UP) return this.lowestIfAtOrBelow(this.downElevators, requestFloor);
+        if (requestDirection == ElevatorDirection.DOWN) return this.highestIfAtOrAbove(this.upElevators, requestFloor);
+        return -1;
+    }
+
+    /**
+     * Class C: the elevator passes the floor and takes a U-turn, the closest is the best
+     */
+    public int findInClassC(ElevatorDirection requestDirection, int requestFloor) {
+        if (requestDirection == ElevatorDirection.UP) return this.lowestAtOrAbove(this.downElevators, requestFloor);
+        if (requestDirection == ElevatorDirection.DOWN) return this.highestAtOrBelow(this.upElevators, requestFloor);
+        return -1;
+    }
+
+    /**
+     * Class D: the elevator has passed the floor in the same direction, the farthest one turns first
+     */
+    public int findInClassD(ElevatorDirection requestDirection, int requestFloor) {
+        if (requestDirection == ElevatorDirection.UP) return this.highestIfAtOrAbove(this.upElevators, requestFloor);
+        if (requestDirection == ElevatorDirection.DOWN) return this.lowestIfAtOrBelow(this.downElevators, requestFloor);
+        return -1;
+    }
+
+    /**
+     * The IDLE elevator closest to the floor, the lowest index if two are at the same distance
+     */
+    public int findClosestIDLE(int requestFloor) {
+        int below = this.highestAtOrBelow(this.idleElevators, requestFloor);
+        int above = this.lowestAtOrAbove(this.idleElevators, requestFloor);
+        if (below == -1) return above;
+        if (above == -1) return below;
+
+        int belowDistance = requestFloor - this.floors[below];
+        int aboveDistance = this.floors[above] - requestFloor;
+        if (belowDistance != aboveDistance) return belowDistance < aboveDistance ? below : above;
+        return Math.min(below, above);
+    }
+
+    /**
+     * The first elevator that is not locked
+     */
+    public int findFirstUnlocked() {
+        return this.unlockedElevators.nextSetBit(0);
+    }
+
+    /**
+     * The first elevator that is not locked starting from the given index, -1 if there is none.
+     * Used to iterate all the unlocked elevators without allocating a list.
+     */
+    public int findNextUnlocked(int fromIndex) {
+        return this.unlockedElevators.nextSetBit(fromIndex);
+    }
+
+    /**
+     * The first elevator that can take a new hall call starting from the given index, -1 if there is none:
+     * the unlocked elevators that are not full, or all the unlocked ones when they are all full
+     * (the call is then bypassed and dispatched again once a car has room).
+     */
+    public int findNextAvailable(int fromIndex) {
+        BitSet elevators = this.availableElevators.isEmpty() ? this.unlockedElevators : this.availableElevators;
+        return elevators.nextSetBit(fromIndex);
+    }
+
+    public int findFirstAvailable() {
+        return this.findNextAvailable(0);
+    }
+
+    public boolean areAllLocked() {
+        return this.unlockedElevators.isEmpty();
+    }
+
+    /**
+     * Floor of the elevator as known by the index
+     */
+    public int getFloor(int index) {
+        return this.floors[index];
+    }
+
+    public int size() {
+        return this.controllers.size();
+    }
+
+    public ElevatorController get(int index) {
+        return index == -1 ? null : this.controllers.get(index);
+    }
+
+    /**
+     * ORDERED LOOKUPS
+     * The probe slot is placed after every elevator of its floor, so higher(probe at floor - 1)
+     * is the first elevator at or above the floor.
+     */
+    private int highestAtOrBelow(TreeSet<Integer> set, int floor) {
+        this.floors[this.probe] = floor;
+        Integer found = set.floor(this.keys[this.probe]);
+        return found == null ? -1 : this.lowestIndexAt(set, this.floors[found]);
+    }
+
+    private int lowestAtOrAbove(TreeSet<Integer> set, int floor) {
+        this.floors[this.probe] = floor - 1;
+        Integer found = set.higher(this.keys[this.probe]);
+        return found == null ? -1 : found;
+    }
+
+    private int lowestIfAtOrBelow(TreeSet<Integer> set, int floor) {
+        if (set.isEmpty() || this.floors[set.first()] > floor) return -1;
+        return set.first();
+    }
+
+    private int highestIfAtOrAbove(TreeSet<Integer> set, int floor) {
+        if (set.isEmpty() || this.floors[set.last()] < floor) return -1;
+        return this.lowestIndexAt(set, this.floors[set.last()]);
+    }
+
+    private int lowestIndexAt(TreeSet<Integer> set, int floor) {
+        this.floors[this.probe] = floor - 1;
+        return set.higher(this.keys[this.probe]);
+    }
+}
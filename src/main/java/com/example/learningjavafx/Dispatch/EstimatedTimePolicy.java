@@ -0,0 +1,95 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.StopSet;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.LogLevel;
+import com.example.learningjavafx.Helpers.Console;
+
+
+/**
+ * Policy choosing the elevator with the lowest estimated time of arrival (ETA) at the request floor.
+ * <p>
+ * The class cascade only looks at the direction and the position of the elevators, so a class A elevator
+ * with six stops to serve is preferred to an elevator that is almost free. Here, the route of each elevator
+ * is simulated following the same rules as the controller:
+ * - the elevator serves all the stops of its current direction, then it turns
+ * - a request above the elevator goes in the up queue, below it in the down queue
+ * <p>
+ * The estimate is one tick for each floor to travel plus stopTicks for each stop served before the
+ * request floor. An elevator that is waiting for the user input counts as one more stop.
+ * By default, the ticks of a stop are the ones of the elevator: the move processing the floor and its
+ * door cycle, so the dispatch follows the door timings of the building.
+ * If two elevators have the same estimate, the lowest index wins.
+ */
+public class EstimatedTimePolicy implements DispatchPolicy {
+    /**
+     * Use the ticks of a stop of each elevator, door cycle included
+     */
+    public static final int ELEVATOR_STOP_TICKS = -1;
+
+    private final int stopTicks;
+
+    public EstimatedTimePolicy() {
+        this(ELEVATOR_STOP_TICKS);
+    }
+
+    /**
+     * Policy with a fixed number of ticks for each stop, whatever the door of the elevators
+     */
+    public EstimatedTimePolicy(int stopTicks) {
+        this.stopTicks = stopTicks;
+    }
+
+    /**
+     * Ticks lost by the elevator for each stop
+     */
+    public int getStopTicks(ElevatorController elevator) {
+        return this.stopTicks == ELEVATOR_STOP_TICKS ? elevator.getStopTicks() : this.stopTicks;
+    }
+
+    @Override
+    public ElevatorController findOptimalElevator(ElevatorIndex index, ElevatorDirection requestElevatorDirection, int requestFloor) {
+        int best = -1;
+        int bestTime = Integer.MAX_VALUE;
+        for (int i = index.findNextAvailable(0); i != -1; i = index.findNextAvailable(i + 1)) {
+            int time = this.estimateTime(index.get(i), requestFloor);
+            if (time < bestTime) {
+                bestTime = time;
+                best = i;
+            }
+        }
+        Console.log(LogLevel.DEBUG, "SCHEDULER", "LOWEST ETA");
+        return index.get(best);
+    }
+
+    /**
+     * Estimated number of ticks for the elevator to reach the request floor
+     */
+    public int estimateTime(ElevatorController elevator, int requestFloor) {
+        int floor = elevator.getCurrentFloor();
+        int stopTicks = this.getStopTicks(elevator);
+        int time = elevator.hasToWaitUserInput() ? stopTicks : 0;
+        StopSet upQueue = elevator.getUpQueue();
+        StopSet downQueue = elevator.getDownQueue();
+
+        if (elevator.isIDLEMode()) return time + Math.abs(requestFloor - floor);
+
+        if (elevator.getDirection() == ElevatorDirection.UP) {
+            // On the way: the request is added to the up queue
+            if (requestFloor >= floor) return time + (requestFloor - floor) + stopTicks * upQueue.countBelow(requestFloor);
+            // Behind: go to the top of the up queue, then come back down
+            int top = Math.max(floor, upQueue.max());
+            return time + (top - floor) + (top - requestFloor) + stopTicks * (upQueue.size() + downQueue.countAbove(requestFloor));
+        }
+
+        if (elevator.getDirection() == ElevatorDirection.DOWN) {
+            if (requestFloor <= floor) return time + (floor - requestFloor) + stopTicks * downQueue.countAbove(requestFloor);
+            int bottom = downQueue.isEmpty() ? floor : Math.min(floor, downQueue.min());
+            return time + (floor - bottom) + (requestFloor - bottom) + stopTicks * (downQueue.size() + upQueue.countBelow(requestFloor));
+        }
+
+        // Requests in the queues without a direction: count all of them
+        return time + Math.abs(requestFloor - floor) + stopTicks * (upQueue.size() + downQueue.size());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+/**
+ * Listener notified by the scheduler each time a hall call is given to an elevator.
+ * <p>
+ * Without batching it is called during acceptRequestAndProcess, with batching it is called
+ * later, when the pending calls are assigned together.
+ * <p>
+ * When a full elevator passes the floor of a call it was given, onHallCallBypassed is called during its move
+ * (after the move of all the elevators when they move in parallel, in their order), and the call is given
+ * again to an elevator after the move.
+ */
+public interface HallCallListener {
+    void onHallCallAssigned(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor);
+
+    default void onHallCallBypassed(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {}
+}
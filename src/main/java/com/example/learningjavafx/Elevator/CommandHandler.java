@@ -0,0 +1,12 @@
+package com.example.learningjavafx.Elevator;
+
+import com.example.learningjavafx.Enumerations.CommandType;
+
+/**
+ * Receiver of the commands of a CommandQueue, called by the thread that drains the queue.
+ * <p>
+ * The Scheduler applies the commands at the start of each tick, before the elevators move.
+ */
+public interface CommandHandler {
+    void onCommand(CommandType type, int elevator, int floor);
+}
@@ -0,0 +1,110 @@
+package com.example.learningjavafx.Elevator;
+
+import com.example.learningjavafx.Enumerations.CommandType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Queue of the inputs of the elevators (calls, requests, locks) sent by any thread and applied by the single
+ * thread that moves the elevators.
+ * <p>
+ * The queues of the elevators are not thread safe: the buttons of the application, the ScannerRunnable and any
+ * other producer offer commands here instead of changing the elevators, and the simulation thread drains
+ * the queue at the start of each tick. The elevators are then only changed by the thread that moves them.
+ * <p>
+ * The queue is a ring allocated once, as the ring of the Console: a command is packed in a long (type in the
+ * highest byte, elevator in the next 24 bits, floor in the lowest 32), a producer takes the next sequence with
+ * a compare and set, writes its slot and publishes the sequence. Nothing is locked and nothing is allocated.
+ * When the ring is full, offer returns false instead of waiting: the producer can be the thread that drains.
+ */
+public class CommandQueue {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final CommandType[] TYPES = CommandType.values();
+    private static final int ELEVATOR_MASK = (1 << 24) - 1;
+
+    private final int capacity;
+    private final int mask;
+    /**
+     * Commands of the ring. A slot holds sequence + 1 once the command with that sequence is written.
+     */
+    private final long[] commands;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed;
+    private volatile long consumed;
+    private final AtomicLong rejected;
+
+    public CommandQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Queue holding at most the given number of commands, a power of 2
+     */
+    public CommandQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("The capacity must be a power of 2: " + capacity);
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.commands = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.claimed = new AtomicLong();
+        this.rejected = new AtomicLong();
+    }
+
+    /**
+     * Add a command from any thread. The elevator is -1 for a command of the whole building.
+     *
+     * @return boolean: false if the queue is full, the command is then dropped
+     */
+    public boolean offer(CommandType type, int elevator, int floor) {
+        long sequence;
+        do {
+            sequence = this.claimed.get();
+            if (sequence - this.consumed >= this.capacity) {
+                this.rejected.incrementAndGet();
+                return false;
+            }
+        } while (!this.claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & this.mask);
+        this.commands[slot] = (long) type.ordinal() << 56 | (long) (elevator & ELEVATOR_MASK) << 32 | (floor & 0xFFFFFFFFL);
+        this.published.set(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Apply the commands in the order of their sequences, from the single consumer thread.
+     * Only the commands offered before the call are applied: a command offered by the handler itself
+     * waits for the next drain, so a tick always ends.
+     *
+     * @return int: the number of commands applied
+     */
+    public int drain(CommandHandler handler) {
+        long next = this.consumed;
+        long end = this.claimed.get();
+        int applied = 0;
+        while (next < end) {
+            int slot = (int) (next & this.mask);
+            // The sequence is taken but its command is not written yet: it is applied on the next drain
+            if (this.published.get(slot) != next + 1) break;
+
+            long command = this.commands[slot];
+            this.consumed = ++next;
+            handler.onCommand(TYPES[(int) (command >>> 56)], (int) (command << 8 >> 40), (int) command);
+            applied++;
+        }
+        return applied;
+    }
+
+    public boolean isEmpty() {
+        return this.consumed == this.claimed.get();
+    }
+
+    /**
+     * GETTERS
+     */
+    public int getCapacity() {return this.capacity;}
+    public int size() {return (int) (this.claimed.get() - this.consumed);}
+    public long getOffered() {return this.claimed.get();}
+    public long getRejected() {return this.rejected.get();}
+}
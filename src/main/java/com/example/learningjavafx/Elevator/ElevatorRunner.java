@@ -1,5 +1,6 @@
 package com.example.learningjavafx.Elevator;
 
+import com.example.learningjavafx.Enumerations.CommandType;
 import com.example.learningjavafx.Helpers.ScannerRunnable;
 
 import java.util.Scanner;
@@ -9,24 +10,32 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Creating the runnable class for enabling animation using multithreading and concurrency features.
+ * <p>
+ * Only the thread moving the elevator changes it: the requests read by the ScannerRunnable go through
+ * the command queue, drained before each move.
  */
-public class ElevatorRunner {
+public class ElevatorRunner implements CommandHandler {
     /**
      * It is efficient to declare the data fields that do not expect to be changed as final in the Runnable Inheritance
      * An object reference that is declared as final ensures that the object it refers to will be fully constructed
      * and initialized before the usage in the system.
      */
     private final ElevatorController controller;
+    private final CommandQueue commandQueue;
 
     public ElevatorRunner(ElevatorController controller) {
         this.controller = controller;
+        this.commandQueue = new CommandQueue();
     }
 
     public void run(Scanner scanner) {
         // Create a runnable thread for move
-        Runnable elevatorRunner = controller::move;
+        Runnable elevatorRunner = () -> {
+            this.commandQueue.drain(this);
+            this.controller.move();
+        };
 
-        ScannerRunnable runner = new ScannerRunnable(scanner, controller);
+        ScannerRunnable runner = new ScannerRunnable(scanner, this.commandQueue);
 
 
         // Generating a new multi-thread
@@ -42,4 +51,17 @@ public class ElevatorRunner {
         ScheduledExecutorService executor2 = Executors.newScheduledThreadPool(1);
         executor2.scheduleAtFixedRate(elevatorRunner, 0, 4, TimeUnit.SECONDS);
     }
+
+    /**
+     * Apply a request read by the scanner, on the thread moving the elevator
+     */
+    @Override
+    public void onCommand(CommandType type, int elevator, int floor) {
+        if (type == CommandType.CAR_CALL) this.controller.internalRequest(floor);
+        else if (type == CommandType.REQUEST) this.controller.addRequest(floor);
+    }
+
+    public CommandQueue getCommandQueue() {
+        return this.commandQueue;
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.learningjavafx.Elevator;
+
+/**
+ * Listener notified by the ElevatorController whenever the floor, the direction, the lock
+ * or the emptiness of the queues might have changed.
+ * <p>
+ * The scheduler uses it to keep its indexes up to date instead of scanning all the elevators
+ * on each request.
+ */
+public interface ElevatorStateListener {
+    void onElevatorStateChanged(ElevatorController controller);
+}
@@ -0,0 +1,882 @@
+package com.example.learningjavafx.Elevator;
+
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.JournalEventType;
+import com.example.learningjavafx.Enumerations.LogEvent;
+import com.example.learningjavafx.Enumerations.LogLevel;
+import com.example.learningjavafx.Helpers.Console;
+import com.example.learningjavafx.Journal.EventJournal;
+import com.example.learningjavafx.Metrics.CallMetrics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * State of all the elevators of a building, stored as parallel primitive arrays (one row per elevator).
+ * <p>
+ * With one object per elevator, a building of 100k elevators is mostly object headers and references:
+ * the controller, its UUID, three stop sets with their arrays, the door and its UUID.
+ * Here the state of an elevator is one int for the floor, one byte for the direction, one byte of flags
+ * and the words of its stop sets in the shared stops array, next to the stops of the other elevators.
+ * <p>
+ * The algorithm of the elevator (the up and down queues described in ElevatorController) is implemented
+ * here on a row, so the scheduler can move all the elevators with moveAll without going through the objects.
+ * The ElevatorController is a view over one row: it is created on demand by getController and
+ * all its methods are delegated to the store.
+ * <p>
+ * Each row is only modified by the methods called on that row, so the rows can be moved from different threads.
+ * <p>
+ * The door of each elevator is a state machine driven by move(): when the elevator stops at a floor, the door
+ * goes through OPENING, OPEN and CLOSING, and every move() call while the door is not closed advances it by
+ * one tick instead of moving the elevator. The door stays OPEN while the elevator waits for the user input,
+ * and an obstruction reopens a closing door or restarts the dwell of an open door. The durations (in ticks)
+ * are the same for all the elevators of the store.
+ * <p>
+ * The hall calls are kept by direction, apart from the car calls (the destinations entered inside the car).
+ * With the number of passengers in the car, this lets a full car pass a floor where it only had to pick up
+ * passengers: the hall call is removed from the car and given back to the HallCallBypassListener (the scheduler)
+ * to be dispatched again. A car is full for the hall calls above FULL_LOAD_FACTOR of its rated load, as with
+ * a load-weighing device, and nobody can board once the rated load is reached.
+ * <p>
+ * A car waiting for the user input keeps its door open, but not forever: after the user input timeout (in ticks of
+ * the open door), the hall calls of the floor are cancelled as if nobody had entered, the door closes and the car
+ * goes on with its queue. Each timeout is counted for the row and in the call metrics.
+ * <p>
+ * With an EventJournal, every change of a row (floor, direction, door, flags, stops, load) is recorded, so the
+ * JournalReplayer can rebuild the state of the elevators at any time. The remaining ticks of the door phases
+ * are not recorded.
+ * <p>
+ * The whole state can be copied into a ByteBuffer (writeSnapshot) and read back into a store of the same size
+ * (readSnapshot): as it only lives in primitive arrays, each array is copied in bulk.
+ */
+public class ElevatorStateStore {
+    private static final ElevatorDirection[] DIRECTIONS = ElevatorDirection.values();
+    private static final DoorStatus[] DOOR_STATUSES = DoorStatus.values();
+
+    /**
+     * Default durations of the door phases, in ticks
+     */
+    public static final int DEFAULT_DOOR_OPENING_TICKS = 2;
+    public static final int DEFAULT_DOOR_DWELL_TICKS = 3;
+    public static final int DEFAULT_DOOR_CLOSING_TICKS = 3;
+    /**
+     * Default number of ticks a car waits for the user input with the door open, 0 to wait forever
+     */
+    public static final int DEFAULT_USER_INPUT_TIMEOUT_TICKS = 20;
+
+    /**
+     * Rated load of the cars in kg, and mass of a passenger used to turn it into a number of passengers
+     */
+    public static final int DEFAULT_RATED_LOAD = 1000;
+    public static final int PASSENGER_MASS = 75;
+    /**
+     * Fraction of the rated load above which the car does not stop for the hall calls anymore
+     */
+    public static final double FULL_LOAD_FACTOR = 0.8;
+
+    /**
+     * Bits of the flags of each elevator, also the values of the FLAGS events of the journal
+     */
+    public static final byte LOCKED = 1;
+    public static final byte FIRE_LOCK = 2;
+    public static final byte GROUND_LOCK = 4;
+    /**
+     * Set when the currentQueue of the elevator is the down queue
+     */
+    public static final byte CURRENT_DOWN = 8;
+    /**
+     * Set when the door has already opened at the current floor, so that processing the stop
+     * after the user input does not open it a second time
+     */
+    public static final byte DOOR_SERVED = 16;
+
+    /**
+     * Index of the stop sets inside the stops of a row, also the values of the STOP events of the journal
+     */
+    public static final int UP_SET = 0;
+    public static final int DOWN_SET = 1;
+    public static final int HALL_UP_SET = 2;
+    public static final int HALL_DOWN_SET = 3;
+    public static final int CAR_CALL_SET = 4;
+    public static final int SETS = 5;
+
+    private final int size;
+    private final int totalFloors;
+    /**
+     * Number of words of each stop set
+     */
+    private final int words;
+
+    private final int[] floors;
+    private final byte[] directions;
+    private final byte[] flags;
+    /**
+     * Stops of the elevators: row after row, the words of the up queue, the down queue,
+     * the up and down hall calls waiting for the user input, and the car calls
+     */
+    private final long[] stops;
+    /**
+     * Number of changes of the stops and of the current queue of each row, for the views redrawn only on change
+     */
+    private final int[] queueVersions;
+    /**
+     * Passengers in each car and rated load of each car
+     */
+    private final int[] passengers;
+    private final int[] ratedLoads;
+    private HallCallBypassListener bypassListener;
+    /**
+     * Optional recording of the wait and journey times, the car of a row being its index
+     */
+    private CallMetrics callMetrics;
+    /**
+     * Optional recording of every change of the rows
+     */
+    private EventJournal journal;
+
+    /**
+     * Door of each elevator: status, ticks left in the current phase, number of times it opened
+     */
+    private final byte[] doorStatuses;
+    private final short[] doorTimers;
+    private final int[] doorCycles;
+    private int doorOpeningTicks;
+    private int doorDwellTicks;
+    private int doorClosingTicks;
+
+    /**
+     * Ticks each car has been waiting for the user input with the door open, and number of waits that timed out
+     */
+    private final int[] inputWaitTicks;
+    private final int[] inputTimeouts;
+    private int userInputTimeoutTicks;
+
+    /**
+     * Controllers created for the rows, and the listener of each row (null if there is none)
+     */
+    private final ElevatorController[] controllers;
+    private final ElevatorStateListener[] listeners;
+
+    /**
+     * All the elevators start at the ground floor, in IDLE mode
+     */
+    public ElevatorStateStore(int size, int totalFloors) {
+        this.size = size;
+        this.totalFloors = totalFloors;
+        this.words = StopSet.wordsFor(totalFloors);
+        this.floors = new int[size];
+        this.directions = new byte[size];
+        this.flags = new byte[size];
+        this.stops = new long[size * SETS * this.words];
+        this.queueVersions = new int[size];
+        this.doorStatuses = new byte[size];
+        this.doorTimers = new short[size];
+        this.doorCycles = new int[size];
+        this.passengers = new int[size];
+        this.ratedLoads = new int[size];
+        this.doorOpeningTicks = DEFAULT_DOOR_OPENING_TICKS;
+        this.doorDwellTicks = DEFAULT_DOOR_DWELL_TICKS;
+        this.doorClosingTicks = DEFAULT_DOOR_CLOSING_TICKS;
+        this.inputWaitTicks = new int[size];
+        this.inputTimeouts = new int[size];
+        this.userInputTimeoutTicks = DEFAULT_USER_INPUT_TIMEOUT_TICKS;
+        this.controllers = new ElevatorController[size];
+        this.listeners = new ElevatorStateListener[size];
+        for (int row = 0; row < size; row++) {
+            this.directions[row] = (byte) ElevatorDirection.IDLE.ordinal();
+            this.doorStatuses[row] = (byte) DoorStatus.CLOSE.ordinal();
+            this.ratedLoads[row] = DEFAULT_RATED_LOAD;
+        }
+    }
+
+    /**
+     * The controller of the row, created on the first call
+     */
+    public ElevatorController getController(int row) {
+        if (this.controllers[row] == null) this.controllers[row] = new ElevatorController(this, row);
+        return this.controllers[row];
+    }
+
+    /**
+     * A controller created on its own store is the one given to the listeners of its row
+     */
+    void setController(int row, ElevatorController controller) {
+        this.controllers[row] = controller;
+    }
+
+    /**
+     * Place the elevator at its initial floor, before any request.
+     * In the top half of the building the current queue is the down queue.
+     */
+    void setInitialFloor(int row, int floor) {
+        this.floors[row] = floor;
+        if (this.journal != null) this.journal.record(JournalEventType.FLOOR, row, floor, 0);
+        this.setFlag(row, CURRENT_DOWN, floor > this.totalFloors / 2 && floor < this.totalFloors);
+    }
+
+    /**
+     * REQUESTS
+     */
+    public void internalRequest(int row, int requestFloor) {
+        if (this.callMetrics != null) this.recordHallCallsServed(row);
+        this.removeStop(row, HALL_UP_SET, this.floors[row]);
+        this.removeStop(row, HALL_DOWN_SET, this.floors[row]);
+        if (this.isValidFloor(requestFloor) && requestFloor != this.floors[row]) {
+            this.addStop(row, CAR_CALL_SET, requestFloor);
+            if (this.callMetrics != null) this.callMetrics.recordCarCall(row, requestFloor);
+        }
+        this.addRequest(row, requestFloor);
+    }
+
+    /**
+     * Hall call without its direction: it is recorded in the direction from the elevator to the floor
+     */
+    public void externalRequest(int row, int requestFloor) {
+        this.externalRequest(row, requestFloor, requestFloor >= this.floors[row] ? ElevatorDirection.UP : ElevatorDirection.DOWN);
+    }
+
+    public void externalRequest(int row, int requestFloor, ElevatorDirection requestElevatorDirection) {
+        int set = requestElevatorDirection == ElevatorDirection.DOWN ? HALL_DOWN_SET : HALL_UP_SET;
+        if (this.isValidFloor(requestFloor)) this.addStop(row, set, requestFloor);
+        this.addRequest(row, requestFloor);
+    }
+
+    public void addRequest(int row, int requestFloor) {
+        if (!this.isValidFloor(requestFloor)) {
+            Console.event(LogLevel.ERROR, LogEvent.INVALID_FLOOR, row, requestFloor, this.totalFloors - 1);
+            return;
+        }
+        if (this.journal != null) this.journal.record(JournalEventType.REQUEST, row, requestFloor, 0);
+
+        int upOffset = this.offset(row, UP_SET);
+        int downOffset = this.offset(row, DOWN_SET);
+        if (StopSet.contains(this.stops, upOffset, this.words, requestFloor) || StopSet.contains(this.stops, downOffset, this.words, requestFloor)) return;
+
+        int currentFloor = this.floors[row];
+        if (currentFloor == requestFloor) {
+            // Entering IDLE while other requests are still queued would leave the elevator stuck
+            // with a non-empty currentQueue and no direction to move in.
+            if (this.isIDLEMode(row)) this.changeDirectionToIDLE(row);
+        }
+        else if (this.directions[row] == ElevatorDirection.IDLE.ordinal()) {
+            if (requestFloor < currentFloor) {
+                this.addStop(row, DOWN_SET, requestFloor);
+                this.changeDirectionToDown(row);
+            } else {
+                this.addStop(row, UP_SET, requestFloor);
+                this.changeDirectionToUp(row);
+            }
+        }
+        else {
+            this.addStop(row, currentFloor < requestFloor ? UP_SET : DOWN_SET, requestFloor);
+        }
+        this.notifyStateChanged(row);
+        if (Console.isEnabled(LogLevel.TRACE)) {
+            Console.log(LogLevel.TRACE, "ELEVATOR-" + row, "UP QUEUE: " + this.getUpQueue(row));
+            Console.log(LogLevel.TRACE, "ELEVATOR-" + row, "DOWN QUEUE: " + this.getDownQueue(row));
+        }
+    }
+
+    /**
+     * MOVEMENT
+     */
+
+    /**
+     * Move every elevator of the store, as Scheduler.run() does with the controllers
+     */
+    public void moveAll() {
+        for (int row = 0; row < this.size; row++) this.move(row);
+    }
+
+    /**
+     * A full car passes the hall calls of its floor before the door is handled: a call given to it while its door
+     * is open (when every car is full) must not hold the door.
+     */
+    public void move(int row) {
+        if (this.hasToWaitUserInput(row) && this.isFull(row)) this.bypassHallCalls(row);
+        if (this.advanceDoor(row)) return;
+        if (this.isLocked(row)) {
+            Console.event(LogLevel.ERROR, LogEvent.LOCKED_MOVE, row, this.floors[row], 0);
+            return;
+        }
+        if (this.hasToWaitUserInput(row)) {
+            this.openDoor(row, true);
+            Console.event(LogLevel.DEBUG, LogEvent.WAITING_INPUT, row, this.floors[row], 0);
+            return;
+        }
+        if (this.isIDLEMode(row)) {
+            this.changeDirectionToIDLE(row);
+        }
+        else {
+            this.changeDirectionIfRequired(row);
+            this.processNextRequest(row);
+            Console.event(LogLevel.DEBUG, LogEvent.FLOOR, row, this.floors[row], 0);
+        }
+    }
+
+    private void processNextRequest(int row) {
+        int nextFloor = this.getNextStop(row);
+
+        if (this.floors[row] == nextFloor) {
+            this.removeStop(row, this.currentSet(row), nextFloor);
+            if (this.callMetrics != null && this.hasCarCall(row, nextFloor)) this.callMetrics.recordCarCallServed(row, nextFloor);
+            this.removeStop(row, CAR_CALL_SET, nextFloor);
+            this.openDoor(row, false);
+            this.notifyStateChanged(row);
+            Console.event(LogLevel.DEBUG, LogEvent.FLOOR_REACHED, row, this.floors[row], 0);
+            return;
+        }
+        if (this.directions[row] == ElevatorDirection.UP.ordinal()) {
+            this.setFloor(row, this.floors[row] + 1);
+        } else if (this.directions[row] == ElevatorDirection.DOWN.ordinal()) {
+            this.setFloor(row, this.floors[row] - 1);
+        }
+    }
+
+    private void changeDirectionIfRequired(int row) {
+        if (!this.isIDLEMode(row) && StopSet.isEmpty(this.stops, this.currentOffset(row), this.words)) {
+            if (this.directions[row] == ElevatorDirection.UP.ordinal()) this.changeDirectionToDown(row);
+            else this.changeDirectionToUp(row);
+        }
+    }
+
+    public void changeDirectionToUp(int row) {
+        this.setFlag(row, CURRENT_DOWN, false);
+        this.storeDirection(row, ElevatorDirection.UP);
+        this.notifyStateChanged(row);
+        Console.event(LogLevel.DEBUG, LogEvent.DIRECTION, row, this.floors[row], ElevatorDirection.UP.ordinal());
+    }
+
+    public void changeDirectionToDown(int row) {
+        this.setFlag(row, CURRENT_DOWN, true);
+        this.storeDirection(row, ElevatorDirection.DOWN);
+        this.notifyStateChanged(row);
+        Console.event(LogLevel.DEBUG, LogEvent.DIRECTION, row, this.floors[row], ElevatorDirection.DOWN.ordinal());
+    }
+
+    private void changeDirectionToIDLE(int row) {
+        this.setFlag(row, CURRENT_DOWN, true);
+        this.storeDirection(row, ElevatorDirection.IDLE);
+        this.notifyStateChanged(row);
+        Console.event(LogLevel.DEBUG, LogEvent.DIRECTION, row, this.floors[row], ElevatorDirection.IDLE.ordinal());
+    }
+
+    public void setFloor(int row, int floor) {
+        if (this.floors[row] != floor) this.setFlag(row, DOOR_SERVED, false);
+        this.floors[row] = floor;
+        if (this.journal != null) this.journal.record(JournalEventType.FLOOR, row, floor, 0);
+        this.notifyStateChanged(row);
+    }
+
+    public void setDirection(int row, ElevatorDirection elevatorDirection) {
+        this.storeDirection(row, elevatorDirection);
+        this.notifyStateChanged(row);
+    }
+
+    /**
+     * LOAD
+     */
+
+    /**
+     * A passenger enters the car, false if the rated load is already reached
+     */
+    public boolean boardPassenger(int row) {
+        if (this.passengers[row] >= this.getCapacity(row)) return false;
+        this.passengers[row]++;
+        if (this.journal != null) this.journal.record(JournalEventType.PASSENGERS, row, this.floors[row], this.passengers[row]);
+        this.notifyStateChanged(row);
+        return true;
+    }
+
+    public void alightPassenger(int row) {
+        if (this.passengers[row] == 0) return;
+        this.passengers[row]--;
+        if (this.journal != null) this.journal.record(JournalEventType.PASSENGERS, row, this.floors[row], this.passengers[row]);
+        this.notifyStateChanged(row);
+    }
+
+    /**
+     * The car is too loaded to stop for the hall calls, or nobody can board anymore
+     */
+    public boolean isFull(int row) {
+        return this.passengers[row] >= this.getCapacity(row) || this.passengers[row] * PASSENGER_MASS >= FULL_LOAD_FACTOR * this.ratedLoads[row];
+    }
+
+    /**
+     * Maximum number of passengers in the car
+     */
+    public int getCapacity(int row) {
+        return this.ratedLoads[row] / PASSENGER_MASS;
+    }
+
+    public void setRatedLoad(int row, int ratedLoad) {
+        if (ratedLoad < PASSENGER_MASS) throw new IllegalArgumentException("The rated load must allow at least one passenger");
+        this.ratedLoads[row] = ratedLoad;
+        if (this.journal != null) this.journal.record(JournalEventType.RATED_LOAD, row, this.floors[row], ratedLoad);
+        this.notifyStateChanged(row);
+    }
+
+    /**
+     * The full car does not pick up anybody at the floor: its hall calls there are removed and given back
+     * to the listener. The floor stays in the queues only if it is also a car call, so the passengers
+     * inside can still leave.
+     */
+    private void bypassHallCalls(int row) {
+        int floor = this.floors[row];
+        boolean up = StopSet.contains(this.stops, this.offset(row, HALL_UP_SET), this.words, floor);
+        boolean down = StopSet.contains(this.stops, this.offset(row, HALL_DOWN_SET), this.words, floor);
+        this.removeHallCalls(row, floor);
+        Console.event(LogLevel.INFO, LogEvent.BYPASS, row, floor, 0);
+
+        if (this.bypassListener == null) return;
+        if (up) this.bypassListener.onHallCallBypassed(this.getController(row), ElevatorDirection.UP, floor);
+        if (down) this.bypassListener.onHallCallBypassed(this.getController(row), ElevatorDirection.DOWN, floor);
+    }
+
+    /**
+     * Remove the hall calls of the floor from the car, and the floor from its queues unless a passenger
+     * inside has selected it
+     */
+    private void removeHallCalls(int row, int floor) {
+        this.removeStop(row, HALL_UP_SET, floor);
+        this.removeStop(row, HALL_DOWN_SET, floor);
+        if (!this.hasCarCall(row, floor)) {
+            this.removeStop(row, UP_SET, floor);
+            this.removeStop(row, DOWN_SET, floor);
+        }
+        this.notifyStateChanged(row);
+    }
+
+    /**
+     * Nobody has entered a destination before the timeout: the hall calls of the floor are cancelled
+     */
+    private void timeOutUserInput(int row) {
+        int floor = this.floors[row];
+        this.removeHallCalls(row, floor);
+        this.inputTimeouts[row]++;
+        if (this.callMetrics != null) this.callMetrics.recordInputTimeout(row, floor);
+        Console.event(LogLevel.WARN, LogEvent.INPUT_TIMEOUT, row, floor, this.inputWaitTicks[row]);
+    }
+
+    /**
+     * DOOR
+     */
+
+    /**
+     * Start opening the door. When the stop is processed, the door does not open if it has already
+     * opened for the passengers waiting at this floor.
+     */
+    private void openDoor(int row, boolean waitingUserInput) {
+        if (!waitingUserInput && (this.flags[row] & DOOR_SERVED) != 0) return;
+        this.setFlag(row, DOOR_SERVED, true);
+        this.doorCycles[row]++;
+        this.setDoor(row, DoorStatus.OPENING, this.doorOpeningTicks);
+    }
+
+    /**
+     * Advance the door by one tick.
+     * A phase lasts as many ticks as its duration, the next phase starts on the following tick.
+     *
+     * @return boolean: true if the door is not closed and the elevator cannot move on this tick
+     */
+    private boolean advanceDoor(int row) {
+        while (true) {
+            switch (DOOR_STATUSES[this.doorStatuses[row]]) {
+                case CLOSE:
+                    return false;
+                case OPENING:
+                    if (this.tickDoor(row)) return true;
+                    this.setDoor(row, DoorStatus.OPEN, this.doorDwellTicks);
+                    if (this.callMetrics != null) this.recordHallCallsServed(row);
+                    break;
+                case OPEN:
+                    // A locked elevator does not wait for an input: its door closes after the dwell
+                    if (!this.isLocked(row) && this.hasToWaitUserInput(row)) {
+                        if (this.userInputTimeoutTicks == 0 || ++this.inputWaitTicks[row] <= this.userInputTimeoutTicks) return true;
+                        this.timeOutUserInput(row);
+                    } else if (this.tickDoor(row)) {
+                        return true;
+                    }
+                    this.setDoor(row, DoorStatus.CLOSING, this.doorClosingTicks);
+                    break;
+                case CLOSING:
+                    if (this.tickDoor(row)) return true;
+                    this.setDoor(row, DoorStatus.CLOSE, 0);
+                    if (this.callMetrics != null) this.callMetrics.recordDoorClose(row);
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Consume one tick of the current phase, false if the phase is over
+     */
+    private boolean tickDoor(int row) {
+        if (this.doorTimers[row] == 0) return false;
+        this.doorTimers[row]--;
+        return true;
+    }
+
+    /**
+     * The door is open or a passenger enters: the hall calls of the floor are served
+     */
+    private void recordHallCallsServed(int row) {
+        int floor = this.floors[row];
+        this.callMetrics.recordHallCallsServed(row, floor, StopSet.contains(this.stops, this.offset(row, HALL_UP_SET), this.words, floor),
+                StopSet.contains(this.stops, this.offset(row, HALL_DOWN_SET), this.words, floor));
+    }
+
+    private void setDoor(int row, DoorStatus status, int ticks) {
+        this.doorStatuses[row] = (byte) status.ordinal();
+        this.doorTimers[row] = (short) ticks;
+        if (status == DoorStatus.OPEN) this.inputWaitTicks[row] = 0;
+        if (this.journal != null) this.journal.record(JournalEventType.DOOR, row, this.floors[row], status.ordinal());
+        Console.event(LogLevel.DEBUG, LogEvent.DOOR, row, this.floors[row], status.ordinal());
+    }
+
+    /**
+     * Something blocks the door: a closing door opens again, an open door restarts its dwell
+     */
+    public void obstructDoor(int row) {
+        DoorStatus status = this.getDoorStatus(row);
+        if (status == DoorStatus.CLOSING) this.setDoor(row, DoorStatus.OPENING, this.doorOpeningTicks);
+        else if (status == DoorStatus.OPEN) this.setDoor(row, DoorStatus.OPEN, this.doorDwellTicks);
+    }
+
+    /**
+     * Change the durations of the door phases for all the elevators, in ticks
+     */
+    public void setDoorTimings(int openingTicks, int dwellTicks, int closingTicks) {
+        if (openingTicks < 0 || dwellTicks < 0 || closingTicks < 0) {
+            throw new IllegalArgumentException("Door timings cannot be negative");
+        }
+        this.doorOpeningTicks = openingTicks;
+        this.doorDwellTicks = dwellTicks;
+        this.doorClosingTicks = closingTicks;
+    }
+
+    /**
+     * Change the number of ticks the cars wait for the user input with the door open, 0 to wait forever
+     */
+    public void setUserInputTimeout(int ticks) {
+        if (ticks < 0) throw new IllegalArgumentException("The user input timeout cannot be negative");
+        this.userInputTimeoutTicks = ticks;
+    }
+
+    /**
+     * Ticks lost at each stop: the move processing the floor and the full door cycle
+     */
+    public int getStopTicks() {
+        return 1 + this.doorOpeningTicks + this.doorDwellTicks + this.doorClosingTicks;
+    }
+
+    /**
+     * EMERGENCY FUNCTIONS
+     */
+    public void clearAllRequests(int row) {
+        this.storeDirection(row, ElevatorDirection.IDLE);
+        if (this.callMetrics != null) this.recordHallCallsCleared(row);
+        this.clearStops(row, UP_SET);
+        this.clearStops(row, DOWN_SET);
+        this.clearStops(row, CAR_CALL_SET);
+        this.clearStops(row, HALL_UP_SET);
+        this.clearStops(row, HALL_DOWN_SET);
+        if (this.callMetrics != null) this.callMetrics.recordCarCallsCleared(row);
+        this.notifyStateChanged(row);
+        Console.event(LogLevel.INFO, LogEvent.REQUESTS_CLEARED, row, this.floors[row], 0);
+    }
+
+    /**
+     * Cancel in the CallMetrics the hall calls given to the row, unless another elevator also has them
+     */
+    private void recordHallCallsCleared(int row) {
+        for (int floor = 0; floor < this.totalFloors; floor++) {
+            if (this.isOnlyHallCall(row, HALL_UP_SET, floor)) this.callMetrics.recordHallCallsCleared(floor, ElevatorDirection.UP);
+            if (this.isOnlyHallCall(row, HALL_DOWN_SET, floor)) this.callMetrics.recordHallCallsCleared(floor, ElevatorDirection.DOWN);
+        }
+    }
+
+    private boolean isOnlyHallCall(int row, int set, int floor) {
+        if (!StopSet.contains(this.stops, this.offset(row, set), this.words, floor)) return false;
+        for (int other = 0; other < this.size; other++) {
+            if (other != row && StopSet.contains(this.stops, this.offset(other, set), this.words, floor)) return false;
+        }
+        return true;
+    }
+
+    public void lock(int row) {
+        this.setFlag(row, LOCKED, true);
+        this.clearAllRequests(row);
+        Console.event(LogLevel.INFO, LogEvent.LOCK, row, this.floors[row], 1);
+    }
+
+    public void unlock(int row) {
+        this.setFlag(row, LOCKED, false);
+        this.notifyStateChanged(row);
+        Console.event(LogLevel.INFO, LogEvent.LOCK, row, this.floors[row], 0);
+    }
+
+    public void enableFireLock(int row) {
+        this.clearAllRequests(row);
+        this.setFloor(row, this.totalFloors - 1);
+        this.lock(row);
+        this.setFlag(row, FIRE_LOCK, true);
+        Console.event(LogLevel.INFO, LogEvent.FIRE_MOVE, row, this.floors[row], 1);
+    }
+
+    public void disableFireLock(int row) {
+        this.clearAllRequests(row);
+        this.unlock(row);
+        this.setFlag(row, FIRE_LOCK, false);
+        Console.event(LogLevel.INFO, LogEvent.FIRE_MOVE, row, this.floors[row], 0);
+    }
+
+    public void enableGroundLock(int row) {
+        this.clearAllRequests(row);
+        this.setFloor(row, 0);
+        this.lock(row);
+        this.setFlag(row, GROUND_LOCK, true);
+        Console.event(LogLevel.INFO, LogEvent.GROUND_MOVE, row, this.floors[row], 1);
+    }
+
+    public void disableGroundLock(int row) {
+        this.clearAllRequests(row);
+        this.unlock(row);
+        this.setFlag(row, GROUND_LOCK, false);
+        Console.event(LogLevel.INFO, LogEvent.GROUND_MOVE, row, this.floors[row], 0);
+    }
+
+    /**
+     * SNAPSHOT
+     */
+
+    /**
+     * Number of bytes written by writeSnapshot
+     */
+    public int getSnapshotBytes() {
+        return 6 * Integer.BYTES + this.size * (6 * Integer.BYTES + 3 + Short.BYTES) + this.stops.length * Long.BYTES;
+    }
+
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.putInt(this.size).putInt(this.totalFloors);
+        buffer.putInt(this.doorOpeningTicks).putInt(this.doorDwellTicks).putInt(this.doorClosingTicks).putInt(this.userInputTimeoutTicks);
+        putInts(buffer, this.floors);
+        buffer.put(this.directions).put(this.flags).put(this.doorStatuses);
+        buffer.asShortBuffer().put(this.doorTimers);
+        buffer.position(buffer.position() + this.size * Short.BYTES);
+        putInts(buffer, this.doorCycles);
+        putInts(buffer, this.passengers);
+        putInts(buffer, this.ratedLoads);
+        putInts(buffer, this.inputWaitTicks);
+        putInts(buffer, this.inputTimeouts);
+        buffer.asLongBuffer().put(this.stops);
+        buffer.position(buffer.position() + this.stops.length * Long.BYTES);
+    }
+
+    /**
+     * Replace the state of every row by the one written by writeSnapshot. The listeners are notified of the
+     * new state of each row, and the journal (if any) receives the whole new state.
+     */
+    public void readSnapshot(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        int totalFloors = buffer.getInt();
+        if (size != this.size || totalFloors != this.totalFloors) {
+            throw new IllegalArgumentException("Snapshot of " + size + " elevators and " + totalFloors + " floors, expected "
+                    + this.size + " elevators and " + this.totalFloors + " floors");
+        }
+        this.setDoorTimings(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        this.setUserInputTimeout(buffer.getInt());
+        getInts(buffer, this.floors);
+        buffer.get(this.directions).get(this.flags).get(this.doorStatuses);
+        buffer.asShortBuffer().get(this.doorTimers);
+        buffer.position(buffer.position() + this.size * Short.BYTES);
+        getInts(buffer, this.doorCycles);
+        getInts(buffer, this.passengers);
+        getInts(buffer, this.ratedLoads);
+        getInts(buffer, this.inputWaitTicks);
+        getInts(buffer, this.inputTimeouts);
+        buffer.asLongBuffer().get(this.stops);
+        buffer.position(buffer.position() + this.stops.length * Long.BYTES);
+
+        if (this.journal != null) this.setJournal(this.journal);
+        for (int row = 0; row < this.size; row++) {
+            this.queueVersions[row]++;
+            this.notifyStateChanged(row);
+        }
+    }
+
+    /**
+     * Copy the state of every row for the views, see StateSnapshot
+     */
+    public StateSnapshot captureState() {
+        return this.captureState(0);
+    }
+
+    /**
+     * Copy the state of every row for the views, at the given time of the simulation in milliseconds
+     */
+    public StateSnapshot captureState(long time) {
+        return new StateSnapshot(time, this.size, this.totalFloors, this.words, this.floors.clone(), this.directions.clone(), this.flags.clone(),
+                this.doorStatuses.clone(), this.passengers.clone(), this.ratedLoads.clone(), this.stops.clone(), this.queueVersions.clone());
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static void getInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    /**
+     * JOURNAL
+     */
+
+    /**
+     * Start recording the changes of the rows in the journal (null to stop). The whole state of every row
+     * is recorded first, so that the journal can be replayed without knowing what happened before.
+     */
+    public void setJournal(EventJournal journal) {
+        this.journal = journal;
+        if (journal == null) return;
+        for (int row = 0; row < this.size; row++) {
+            int floor = this.floors[row];
+            journal.record(JournalEventType.FLOOR, row, floor, 0);
+            journal.record(JournalEventType.DIRECTION, row, floor, this.directions[row]);
+            journal.record(JournalEventType.DOOR, row, floor, this.doorStatuses[row]);
+            journal.record(JournalEventType.FLAGS, row, floor, this.flags[row]);
+            journal.record(JournalEventType.PASSENGERS, row, floor, this.passengers[row]);
+            journal.record(JournalEventType.RATED_LOAD, row, floor, this.ratedLoads[row]);
+            for (int set = 0; set < SETS; set++) {
+                int offset = this.offset(row, set);
+                journal.record(JournalEventType.STOPS_CLEARED, row, floor, set);
+                for (int stop = 0; stop < this.totalFloors; stop++) {
+                    if (StopSet.contains(this.stops, offset, this.words, stop)) journal.record(JournalEventType.STOP_ADDED, row, stop, set);
+                }
+            }
+        }
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public int size() {return this.size;}
+    public int getTotalFloors() {return this.totalFloors;}
+    public int getFloor(int row) {return this.floors[row];}
+    public ElevatorDirection getDirection(int row) {return DIRECTIONS[this.directions[row]];}
+    public boolean isLocked(int row) {return (this.flags[row] & LOCKED) != 0;}
+    public boolean isFireLock(int row) {return (this.flags[row] & FIRE_LOCK) != 0;}
+    public boolean isGroundLock(int row) {return (this.flags[row] & GROUND_LOCK) != 0;}
+    public DoorStatus getDoorStatus(int row) {return DOOR_STATUSES[this.doorStatuses[row]];}
+    public int getDoorCycles(int row) {return this.doorCycles[row];}
+    public int getPassengers(int row) {return this.passengers[row];}
+    public int getRatedLoad(int row) {return this.ratedLoads[row];}
+    public void setBypassListener(HallCallBypassListener bypassListener) {this.bypassListener = bypassListener;}
+    public CallMetrics getCallMetrics() {return this.callMetrics;}
+    public void setCallMetrics(CallMetrics callMetrics) {this.callMetrics = callMetrics;}
+    public EventJournal getJournal() {return this.journal;}
+    public int getDoorOpeningTicks() {return this.doorOpeningTicks;}
+    public int getDoorDwellTicks() {return this.doorDwellTicks;}
+    public int getDoorClosingTicks() {return this.doorClosingTicks;}
+    public int getUserInputTimeout() {return this.userInputTimeoutTicks;}
+    public int getInputTimeouts(int row) {return this.inputTimeouts[row];}
+    public int getQueueVersion(int row) {return this.queueVersions[row];}
+
+    public boolean isValidFloor(int floor) {
+        return floor >= 0 && floor < this.totalFloors;
+    }
+
+    public boolean isIDLEMode(int row) {
+        return StopSet.isEmpty(this.stops, this.offset(row, UP_SET), this.words)
+                && StopSet.isEmpty(this.stops, this.offset(row, DOWN_SET), this.words);
+    }
+
+    public boolean hasToWaitUserInput(int row) {
+        return StopSet.contains(this.stops, this.offset(row, HALL_UP_SET), this.words, this.floors[row])
+                || StopSet.contains(this.stops, this.offset(row, HALL_DOWN_SET), this.words, this.floors[row]);
+    }
+
+    /**
+     * Check if a passenger in the car has selected the floor
+     */
+    public boolean hasCarCall(int row, int floor) {
+        return StopSet.contains(this.stops, this.offset(row, CAR_CALL_SET), this.words, floor);
+    }
+
+    /**
+     * Next floor of the current queue, -1 if it is empty
+     */
+    public int getNextStop(int row) {
+        int offset = this.currentOffset(row);
+        return (this.flags[row] & CURRENT_DOWN) != 0 ? StopSet.max(this.stops, offset, this.words) : StopSet.min(this.stops, offset, this.words);
+    }
+
+    /**
+     * Check if the floor is in the up or down queue of the elevator, without creating the views
+     */
+    public boolean hasStop(int row, int floor) {
+        return StopSet.contains(this.stops, this.offset(row, UP_SET), this.words, floor)
+                || StopSet.contains(this.stops, this.offset(row, DOWN_SET), this.words, floor);
+    }
+
+    public StopSet getUpQueue(int row) {return new StopSet(this.stops, this.offset(row, UP_SET), this.words, false);}
+    public StopSet getDownQueue(int row) {return new StopSet(this.stops, this.offset(row, DOWN_SET), this.words, true);}
+    public StopSet getCurrentQueue(int row) {return (this.flags[row] & CURRENT_DOWN) != 0 ? this.getDownQueue(row) : this.getUpQueue(row);}
+
+    public void setStateListener(int row, ElevatorStateListener stateListener) {this.listeners[row] = stateListener;}
+
+    private int offset(int row, int set) {
+        return (row * SETS + set) * this.words;
+    }
+
+    private int currentOffset(int row) {
+        return this.offset(row, this.currentSet(row));
+    }
+
+    private int currentSet(int row) {
+        return (this.flags[row] & CURRENT_DOWN) != 0 ? DOWN_SET : UP_SET;
+    }
+
+    private void setFlag(int row, byte flag, boolean value) {
+        byte flags = (byte) (value ? this.flags[row] | flag : this.flags[row] & ~flag);
+        if (flags == this.flags[row]) return;
+        if (flag == CURRENT_DOWN) this.queueVersions[row]++;
+        this.flags[row] = flags;
+        if (this.journal != null) this.journal.record(JournalEventType.FLAGS, row, this.floors[row], flags);
+    }
+
+    private void storeDirection(int row, ElevatorDirection direction) {
+        this.directions[row] = (byte) direction.ordinal();
+        if (this.journal != null) this.journal.record(JournalEventType.DIRECTION, row, this.floors[row], direction.ordinal());
+    }
+
+    private void addStop(int row, int set, int floor) {
+        StopSet.add(this.stops, this.offset(row, set), floor);
+        this.queueVersions[row]++;
+        if (this.journal != null) this.journal.record(JournalEventType.STOP_ADDED, row, floor, set);
+    }
+
+    /**
+     * Remove the floor from the set, nothing is changed nor journaled if it was not in the set
+     */
+    private void removeStop(int row, int set, int floor) {
+        int offset = this.offset(row, set);
+        if (!StopSet.contains(this.stops, offset, this.words, floor)) return;
+        StopSet.remove(this.stops, offset, this.words, floor);
+        this.queueVersions[row]++;
+        if (this.journal != null) this.journal.record(JournalEventType.STOP_REMOVED, row, floor, set);
+    }
+
+    private void clearStops(int row, int set) {
+        StopSet.clear(this.stops, this.offset(row, set), this.words);
+        this.queueVersions[row]++;
+        if (this.journal != null) this.journal.record(JournalEventType.STOPS_CLEARED, row, this.floors[row], set);
+    }
+
+    private void notifyStateChanged(int row) {
+        ElevatorStateListener listener = this.listeners[row];
+        if (listener != null) listener.onElevatorStateChanged(this.getController(row));
+    }
+}
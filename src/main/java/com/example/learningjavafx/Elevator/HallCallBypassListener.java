@@ -0,0 +1,13 @@
+package com.example.learningjavafx.Elevator;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+/**
+ * Listener notified when a full elevator passes a floor without picking up the hall call it was given.
+ * The call has been removed from the elevator, so it has to be given to another elevator.
+ * <p>
+ * It is called during move(): the listener should only record the call and dispatch it after the move.
+ */
+public interface HallCallBypassListener {
+    void onHallCallBypassed(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor);
+}
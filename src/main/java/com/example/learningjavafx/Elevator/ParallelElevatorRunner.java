@@ -0,0 +1,82 @@
+package com.example.learningjavafx.Elevator;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Move all the elevators of a tick in parallel.
+ * <p>
+ * The list of controllers is split in shards that are moved by the threads of a ForkJoinPool.
+ * The call returns only when every elevator has moved, so the scheduler can dispatch afterwards
+ * as if the elevators had moved one after the other.
+ * <p>
+ * The move of an elevator only changes that elevator, so the result is the same as the sequential
+ * loop, provided that the listeners of the controllers do not modify shared state (the ElevatorIndex
+ * defers its updates and the Scheduler its bypassed calls while the elevators move).
+ */
+public class ParallelElevatorRunner {
+    /**
+     * Number of shards for each thread: more shards than threads to balance the work
+     */
+    private static final int SHARDS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+
+    public ParallelElevatorRunner(int threads) {
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Call move() on every controller and wait for all of them
+     */
+    public void moveAll(ArrayList<ElevatorController> controllers) {
+        int shardSize = Math.max(1, controllers.size() / (this.threads * SHARDS_PER_THREAD));
+        this.pool.invoke(new MoveTask(controllers, 0, controllers.size(), shardSize));
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Stop the threads of the pool
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Move the controllers in [from, to), splitting the range in two until it is smaller than a shard
+     */
+    private static class MoveTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<ElevatorController> controllers;
+        private final int from;
+        private final int to;
+        private final int shardSize;
+
+        private MoveTask(ArrayList<ElevatorController> controllers, int from, int to, int shardSize) {
+            this.controllers = controllers;
+            this.from = from;
+            this.to = to;
+            this.shardSize = shardSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.shardSize) {
+                for (int i = this.from; i < this.to; i++) this.controllers.get(i).move();
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new MoveTask(this.controllers, this.from, middle, this.shardSize),
+                    new MoveTask(this.controllers, middle, this.to, this.shardSize));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.learningjavafx.Elevator;
+
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+/**
+ * Copy of the state of all the elevators of an ElevatorStateStore at one moment, read by the views.
+ * <p>
+ * The arrays are copied from the store by ElevatorStateStore.captureState and never modified after: a view can
+ * draw a snapshot while the store goes on changing, without looking at a half-moved elevator. As the store
+ * keeps its state in a few primitive arrays, a snapshot is a handful of array copies.
+ * <p>
+ * The time is the one of the simulation when the snapshot was taken, in milliseconds: the views use it to
+ * place the cars between two snapshots.
+ */
+public class StateSnapshot {
+    private static final ElevatorDirection[] DIRECTIONS = ElevatorDirection.values();
+    private static final DoorStatus[] DOOR_STATUSES = DoorStatus.values();
+
+    private final long time;
+    private final int size;
+    private final int totalFloors;
+    private final int words;
+    private final int[] floors;
+    private final byte[] directions;
+    private final byte[] flags;
+    private final byte[] doorStatuses;
+    private final int[] passengers;
+    private final int[] ratedLoads;
+    private final long[] stops;
+    private final int[] queueVersions;
+
+    StateSnapshot(long time, int size, int totalFloors, int words, int[] floors, byte[] directions, byte[] flags, byte[] doorStatuses,
+                  int[] passengers, int[] ratedLoads, long[] stops, int[] queueVersions) {
+        this.time = time;
+        this.size = size;
+        this.totalFloors = totalFloors;
+        this.words = words;
+        this.floors = floors;
+        this.directions = directions;
+        this.flags = flags;
+        this.doorStatuses = doorStatuses;
+        this.passengers = passengers;
+        this.ratedLoads = ratedLoads;
+        this.stops = stops;
+        this.queueVersions = queueVersions;
+    }
+
+    /**
+     * Check if the floor is in the given stop set of the elevator (UP_SET, HALL_UP_SET... of the store)
+     */
+    public boolean hasStop(int row, int set, int floor) {
+        return StopSet.contains(this.stops, (row * ElevatorStateStore.SETS + set) * this.words, this.words, floor);
+    }
+
+    /**
+     * Check if the floor is in the up or down queue of the elevator
+     */
+    public boolean hasStop(int row, int floor) {
+        return this.hasStop(row, ElevatorStateStore.UP_SET, floor) || this.hasStop(row, ElevatorStateStore.DOWN_SET, floor);
+    }
+
+    /**
+     * Check if the car is stopped at the floor of one of its hall calls, waiting for the user input
+     */
+    public boolean hasToWaitUserInput(int row) {
+        return this.hasStop(row, ElevatorStateStore.HALL_UP_SET, this.floors[row]) || this.hasStop(row, ElevatorStateStore.HALL_DOWN_SET, this.floors[row]);
+    }
+
+    /**
+     * GETTERS
+     */
+    public long getTime() {return this.time;}
+    public int size() {return this.size;}
+    public int getTotalFloors() {return this.totalFloors;}
+    public int getFloor(int row) {return this.floors[row];}
+    public ElevatorDirection getDirection(int row) {return DIRECTIONS[this.directions[row]];}
+    public DoorStatus getDoorStatus(int row) {return DOOR_STATUSES[this.doorStatuses[row]];}
+    public boolean isLocked(int row) {return (this.flags[row] & ElevatorStateStore.LOCKED) != 0;}
+    public int getPassengers(int row) {return this.passengers[row];}
+    public int getRatedLoad(int row) {return this.ratedLoads[row];}
+    public int getQueueVersion(int row) {return this.queueVersions[row];}
+    public StopSet getUpQueue(int row) {return new StopSet(this.stops, (row * ElevatorStateStore.SETS + ElevatorStateStore.UP_SET) * this.words, this.words, false);}
+    public StopSet getDownQueue(int row) {return new StopSet(this.stops, (row * ElevatorStateStore.SETS + ElevatorStateStore.DOWN_SET) * this.words, this.words, true);}
+    public StopSet getCurrentQueue(int row) {return (this.flags[row] & ElevatorStateStore.CURRENT_DOWN) != 0 ? this.getDownQueue(row) : this.getUpQueue(row);}
+}
@@ -0,0 +1,186 @@
+package com.example.learningjavafx.Elevator;
+
+/**
+ * Set of floors where the elevator has to stop, stored as a bitset: bit i is set if floor i is requested.
+ * <p>
+ * It replaces the PriorityQueue of Integer used before: the membership test is a single bit instead of
+ * a linear scan of boxed values, and adding or removing a floor does not allocate.
+ * The next stop is found with the position of the lowest (up queue) or highest (down queue) set bit.
+ * <p>
+ * The bits are not owned by the set: they are a range of words inside the long[] of the ElevatorStateStore,
+ * so the stops of all the elevators of a building are in one contiguous array. A StopSet is only a read-only
+ * view over one of these ranges. The static methods work directly on the range and are used by the store
+ * to modify the stops without creating a view.
+ */
+public class StopSet {
+    /**
+     * true for the down queue: the next stop is the highest floor
+     */
+    private final boolean descending;
+    private final long[] words;
+    private final int offset;
+    private final int length;
+
+    /**
+     * View over the words [offset, offset + length) of the given array
+     */
+    StopSet(long[] words, int offset, int length, boolean descending) {
+        this.descending = descending;
+        this.words = words;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Number of words needed for the given number of floors
+     */
+    static int wordsFor(int floors) {
+        return Math.max(1, (floors + 63) >>> 6);
+    }
+
+    /**
+     * OPERATIONS ON A RANGE OF WORDS (ElevatorStateStore only)
+     */
+    static void add(long[] words, int offset, int floor) {
+        words[offset + (floor >>> 6)] |= 1L << floor;
+    }
+
+    static void remove(long[] words, int offset, int length, int floor) {
+        if (floor < 0 || floor >>> 6 >= length) return;
+        words[offset + (floor >>> 6)] &= ~(1L << floor);
+    }
+
+    static boolean contains(long[] words, int offset, int length, int floor) {
+        return floor >= 0 && floor >>> 6 < length && (words[offset + (floor >>> 6)] & (1L << floor)) != 0;
+    }
+
+    static boolean isEmpty(long[] words, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (words[i] != 0) return false;
+        }
+        return true;
+    }
+
+    static void clear(long[] words, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) words[i] = 0;
+    }
+
+    /**
+     * Lowest requested floor, -1 if the range is empty
+     */
+    static int min(long[] words, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (words[offset + i] != 0) return (i << 6) + Long.numberOfTrailingZeros(words[offset + i]);
+        }
+        return -1;
+    }
+
+    /**
+     * Highest requested floor, -1 if the range is empty
+     */
+    static int max(long[] words, int offset, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (words[offset + i] != 0) return (i << 6) + 63 - Long.numberOfLeadingZeros(words[offset + i]);
+        }
+        return -1;
+    }
+
+    /**
+     * READ-ONLY ACCESS
+     */
+    public boolean contains(int floor) {
+        return contains(this.words, this.offset, this.length, floor);
+    }
+
+    public boolean isEmpty() {
+        return isEmpty(this.words, this.offset, this.length);
+    }
+
+    public int size() {
+        int size = 0;
+        for (int i = this.offset; i < this.offset + this.length; i++) size += Long.bitCount(this.words[i]);
+        return size;
+    }
+
+    /**
+     * The next stop in the direction of the set: the lowest floor for the up queue,
+     * the highest for the down queue. -1 if the set is empty.
+     */
+    public int peek() {
+        return this.descending ? this.max() : this.min();
+    }
+
+    /**
+     * Lowest requested floor, -1 if the set is empty
+     */
+    public int min() {
+        return min(this.words, this.offset, this.length);
+    }
+
+    /**
+     * Highest requested floor, -1 if the set is empty
+     */
+    public int max() {
+        return max(this.words, this.offset, this.length);
+    }
+
+    /**
+     * Lowest requested floor greater than or equal to the given floor, -1 if there is none
+     */
+    public int next(int floor) {
+        int word = Math.max(0, floor) >>> 6;
+        if (word >= this.length) return -1;
+        long bits = this.words[this.offset + word] & (-1L << Math.max(0, floor));
+        while (true) {
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == this.length) return -1;
+            bits = this.words[this.offset + word];
+        }
+    }
+
+    /**
+     * Number of requested floors strictly below the given floor
+     */
+    public int countBelow(int floor) {
+        int count = 0;
+        int word = 0;
+        for (; word < this.length && (word + 1) << 6 <= floor; word++) count += Long.bitCount(this.words[this.offset + word]);
+        if (word < this.length && floor > word << 6) count += Long.bitCount(this.words[this.offset + word] & ((1L << floor) - 1));
+        return count;
+    }
+
+    /**
+     * Number of requested floors strictly above the given floor
+     */
+    public int countAbove(int floor) {
+        return this.size() - this.countBelow(floor + 1);
+    }
+
+    /**
+     * Floors in the order they will be served, like the PriorityQueue used to print
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int floor = this.peek(); floor != -1; floor = this.descending ? this.previous(floor - 1) : this.next(floor + 1)) {
+            if (builder.length() > 1) builder.append(", ");
+            builder.append(floor);
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Highest requested floor lower than or equal to the given floor, -1 if there is none
+     */
+    private int previous(int floor) {
+        if (floor < 0) return -1;
+        int word = floor >>> 6;
+        if (word >= this.length) return this.max();
+        long bits = this.words[this.offset + word] & (-1L >>> (63 - (floor & 63)));
+        while (true) {
+            if (bits != 0) return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+            if (--word < 0) return -1;
+            bits = this.words[this.offset + word];
+        }
+    }
+}
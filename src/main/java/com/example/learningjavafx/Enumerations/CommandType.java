@@ -0,0 +1,14 @@
+package com.example.learningjavafx.Enumerations;
+
+/**
+ * The commands of the CommandQueue. Each command has an elevator (-1 for the whole building) and a floor.
+ * HALL_CALL_UP, HALL_CALL_DOWN: the button of the floor is pressed (acceptRequestAndProcess).
+ * CAR_CALL: a passenger inside the elevator enters the floor (internalRequest).
+ * REQUEST: the floor is added to the queue of the elevator (addRequest).
+ * FIRE_LOCK, FIRE_UNLOCK, GROUND_LOCK, GROUND_UNLOCK: the locks of all the elevators, the floor is ignored.
+ */
+public enum CommandType {
+    HALL_CALL_UP, HALL_CALL_DOWN,
+    CAR_CALL, REQUEST,
+    FIRE_LOCK, FIRE_UNLOCK, GROUND_LOCK, GROUND_UNLOCK
+}
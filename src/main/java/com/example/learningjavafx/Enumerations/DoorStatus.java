@@ -1,5 +1,9 @@
 package com.example.learningjavafx.Enumerations;
 
+/**
+ * The door of the elevator is CLOSE while the elevator moves. At a stop it goes through OPENING, OPEN
+ * (dwell, and as long as the elevator waits for the user input) and CLOSING before the elevator can move again.
+ */
 public enum DoorStatus {
-    OPEN, CLOSE
+    OPEN, CLOSE, OPENING, CLOSING
 }
@@ -0,0 +1,25 @@
+package com.example.learningjavafx.Enumerations;
+
+/**
+ * The events of the EventJournal. Each event has an elevator (-1 for the scheduler when no elevator is involved),
+ * a floor and a value.
+ * State of an elevator, enough to rebuild it:
+ * FLOOR: the elevator is at the floor.
+ * DIRECTION, DOOR: the value is the ordinal of the ElevatorDirection or DoorStatus.
+ * FLAGS: the value is the byte of flags of the ElevatorStateStore (locks, current queue, door served).
+ * STOP_ADDED, STOP_REMOVED: the floor is added to or removed from the stop set given by the value.
+ * STOPS_CLEARED: the stop set given by the value is emptied.
+ * PASSENGERS, RATED_LOAD: the value is the number of passengers or the rated load in kg.
+ * What the elevator was asked to do:
+ * REQUEST: addRequest was called with the floor.
+ * Decisions of the scheduler, the value is the ordinal of the ElevatorDirection of the call:
+ * ASSIGN: the call is given to the elevator.
+ * PENDING: the call waits for the end of the batching window.
+ * REJECTED: all the elevators are locked.
+ * BYPASSED: the elevator is full and gives the call back.
+ */
+public enum JournalEventType {
+    FLOOR, DIRECTION, DOOR, FLAGS, STOP_ADDED, STOP_REMOVED, STOPS_CLEARED, PASSENGERS, RATED_LOAD,
+    REQUEST,
+    ASSIGN, PENDING, REJECTED, BYPASSED
+}
@@ -0,0 +1,19 @@
+package com.example.learningjavafx.Enumerations;
+
+/**
+ * The structured messages of the Console: an event, the index of the elevator, a floor and a value.
+ * The text is only built by the thread writing the log, from these fields.
+ * MESSAGE: a text given by the caller.
+ * INVALID_FLOOR: a request outside of the building, the value is the highest floor.
+ * WAITING_INPUT, LOCKED_MOVE: the elevator cannot move.
+ * FLOOR, FLOOR_REACHED: the elevator passes or stops at the floor.
+ * DIRECTION, DOOR: the value is the ordinal of the ElevatorDirection or DoorStatus.
+ * BYPASS: a full elevator passes the hall calls of the floor.
+ * INPUT_TIMEOUT: nobody entered a destination, the value is the number of ticks waited.
+ * CALL_BYPASSED: the scheduler takes back the call, the value is the ordinal of its ElevatorDirection.
+ * REQUESTS_CLEARED, LOCK, FIRE_MOVE, GROUND_MOVE: the emergency functions, the value is 1 for ON and 0 for OFF.
+ */
+public enum LogEvent {
+    MESSAGE, INVALID_FLOOR, WAITING_INPUT, LOCKED_MOVE, FLOOR, FLOOR_REACHED, DIRECTION, DOOR, BYPASS, INPUT_TIMEOUT, CALL_BYPASSED,
+    REQUESTS_CLEARED, LOCK, FIRE_MOVE, GROUND_MOVE
+}
@@ -0,0 +1,14 @@
+package com.example.learningjavafx.Enumerations;
+
+/**
+ * Levels of the Console messages, from the most to the least important. A message is kept when its level is not
+ * after the level of the Console: at DEBUG (default) everything but the TRACE messages is printed, at OFF nothing.
+ * ERROR: a request that cannot be processed.
+ * WARN: a wrong input of the user.
+ * INFO: the emergency functions, the locks and the calls passed by a full elevator.
+ * DEBUG: every move, door phase and dispatch decision.
+ * TRACE: the content of the queues after each request.
+ */
+public enum LogLevel {
+    ERROR, WARN, INFO, DEBUG, TRACE, OFF
+}
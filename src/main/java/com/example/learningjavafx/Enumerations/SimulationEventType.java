@@ -0,0 +1,13 @@
+package com.example.learningjavafx.Enumerations;
+
+/**
+ * The kinds of events the headless simulation engine can process.
+ * PASSENGER_ARRIVAL: a passenger reaches a floor and presses the hall button.
+ * ELEVATOR_MOVE: one elevator advances by one step, as the Timeline KeyFrame does in the application.
+ * BATCH_DISPATCH: the batching window of the scheduler is over, the pending hall calls are assigned.
+ * ELEVATOR_ARRIVAL: with a motion profile, the elevator reaches the floor where its run ends.
+ * TRAFFIC_ARRIVAL: a passenger of the PassengerSource (generator or trace) arrives, and the next one is read.
+ */
+public enum SimulationEventType {
+    PASSENGER_ARRIVAL, ELEVATOR_MOVE, BATCH_DISPATCH, ELEVATOR_ARRIVAL, TRAFFIC_ARRIVAL
+}
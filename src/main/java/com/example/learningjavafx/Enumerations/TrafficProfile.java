@@ -0,0 +1,30 @@
+package com.example.learningjavafx.Enumerations;
+
+/**
+ * Standard traffic patterns of an office building, given as the shares of the passengers that come from the lobby
+ * (incoming), go to the lobby (outgoing) or travel between two other floors (interfloor).
+ * UP_PEAK is the morning arrival, DOWN_PEAK the evening departure, LUNCH the two at the same time.
+ */
+public enum TrafficProfile {
+    UP_PEAK(0.85, 0.05, 0.10),
+    DOWN_PEAK(0.05, 0.85, 0.10),
+    LUNCH(0.45, 0.45, 0.10),
+    INTERFLOOR(0.10, 0.10, 0.80);
+
+    private final double incoming;
+    private final double outgoing;
+    private final double interfloor;
+
+    TrafficProfile(double incoming, double outgoing, double interfloor) {
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+        this.interfloor = interfloor;
+    }
+
+    /**
+     * GETTERS
+     */
+    public double getIncoming() {return this.incoming;}
+    public double getOutgoing() {return this.outgoing;}
+    public double getInterfloor() {return this.interfloor;}
+}
@@ -1,10 +1,175 @@
 package com.example.learningjavafx.Helpers;
 
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.LogEvent;
+import com.example.learningjavafx.Enumerations.LogLevel;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Simple calls for printing on the console using a particular format
+ * <p>
+ * The messages are not printed by the caller: their fields are copied in a ring buffer allocated once, and a
+ * background thread builds the text and writes it. The level is checked before anything is copied, so a message
+ * under the level of the Console costs a comparison. The elevators log structured events (event, elevator, floor,
+ * value) instead of strings, so nothing is allocated by the caller either.
+ * <p>
+ * Any thread can log: a message takes the next sequence of the ring, fills its slot and publishes the sequence.
+ * The writer thread prints the slots in the order of the sequences. When the ring is full, the caller waits
+ * for the writer instead of losing messages.
+ * <p>
+ * The output can be switched off for headless simulations: printing every movement of every
+ * elevator would take far longer than the simulation itself.
  */
 public class Console {
+    private static final int CAPACITY = 1 << 14;
+    private static final int MASK = CAPACITY - 1;
+    private static final int IDENTIFIER_WIDTH = 80;
+    private static final int WRITE_CHARS = 1 << 13;
+
+    private static final LogEvent[] EVENTS = LogEvent.values();
+    private static final ElevatorDirection[] DIRECTIONS = ElevatorDirection.values();
+    private static final DoorStatus[] DOOR_STATUSES = DoorStatus.values();
+
+    private static volatile LogLevel level = LogLevel.DEBUG;
+
+    // A slot holds sequence + 1 once the fields of the message with that sequence are written
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    private static final byte[] events = new byte[CAPACITY];
+    private static final int[] cars = new int[CAPACITY];
+    private static final int[] floors = new int[CAPACITY];
+    private static final int[] values = new int[CAPACITY];
+    private static final String[] identifiers = new String[CAPACITY];
+    private static final String[] messages = new String[CAPACITY];
+
+    private static final AtomicLong claimed = new AtomicLong();
+    private static volatile long consumed;
+    private static volatile Thread writer;
+    private static final PrintStream out = System.out;
+
     public static void log(String identifier, String message) {
-        System.out.printf("[%-80s %s\n", identifier+"]", message);
+        log(LogLevel.INFO, identifier, message);
     }
+
+    public static void log(LogLevel messageLevel, String identifier, String message) {
+        if (!isEnabled(messageLevel)) return;
+        publish(LogEvent.MESSAGE, identifier, -1, -1, 0, message);
+    }
+
+    /**
+     * Log an event of the elevator with the given index, or of the scheduler with -1
+     */
+    public static void event(LogLevel eventLevel, LogEvent event, int car, int floor, int value) {
+        if (!isEnabled(eventLevel)) return;
+        publish(event, null, car, floor, value, null);
+    }
+
+    public static boolean isEnabled(LogLevel messageLevel) {
+        return messageLevel.ordinal() <= level.ordinal() && level != LogLevel.OFF;
+    }
+
+    private static void publish(LogEvent event, String identifier, int car, int floor, int value, String message) {
+        if (writer == null) startWriter();
+        long sequence = claimed.getAndIncrement();
+        while (sequence - consumed >= CAPACITY) Thread.onSpinWait();
+
+        int slot = (int) (sequence & MASK);
+        events[slot] = (byte) event.ordinal();
+        cars[slot] = car;
+        floors[slot] = floor;
+        values[slot] = value;
+        identifiers[slot] = identifier;
+        messages[slot] = message;
+        published.set(slot, sequence + 1);
+    }
+
+    /**
+     * Wait until the writer has printed every message logged before
+     */
+    public static void flush() {
+        long target = claimed.get();
+        while (consumed < target && writer != null) LockSupport.parkNanos(100_000);
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) return;
+        Thread thread = new Thread(Console::drain, "console-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Console::flush, "console-flush"));
+        writer = thread;
+    }
+
+    private static void drain() {
+        StringBuilder text = new StringBuilder(WRITE_CHARS * 2);
+        long next = 0;
+        while (true) {
+            int slot = (int) (next & MASK);
+            if (published.get(slot) != next + 1) {
+                if (!text.isEmpty()) {
+                    out.append(text);
+                    out.flush();
+                    text.setLength(0);
+                }
+                LockSupport.parkNanos(1_000_000);
+                continue;
+            }
+
+            render(text, slot);
+            identifiers[slot] = null;
+            messages[slot] = null;
+            consumed = ++next;
+            if (text.length() >= WRITE_CHARS) {
+                out.append(text);
+                text.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Append the line of the slot, in the format "[IDENTIFIER]     MESSAGE"
+     */
+    private static void render(StringBuilder text, int slot) {
+        int start = text.length();
+        text.append('[');
+        if (identifiers[slot] != null) text.append(identifiers[slot]);
+        else if (cars[slot] >= 0) text.append("ELEVATOR-").append(cars[slot]);
+        else text.append("SCHEDULER");
+        text.append(']');
+        while (text.length() - start < IDENTIFIER_WIDTH + 1) text.append(' ');
+        text.append(' ');
+
+        int floor = floors[slot];
+        int value = values[slot];
+        switch (EVENTS[events[slot]]) {
+            case MESSAGE -> text.append(messages[slot]);
+            case INVALID_FLOOR -> text.append("ERROR: INVALID INPUT. EXPECTED RANGE FOR FLOOR [0,").append(value).append(']');
+            case WAITING_INPUT -> text.append("WAITING USER TO ENTER THE FLOOR");
+            case LOCKED_MOVE -> text.append("ERROR: CALLED MOVE BUT LOCKED ELEVATOR - NO REQUEST CAN BE PROCESSED");
+            case FLOOR -> text.append("FLOOR: ").append(floor);
+            case FLOOR_REACHED -> text.append("FLOOR: REACHED (").append(floor).append(')');
+            case DIRECTION -> text.append("DIRECTION: ").append(DIRECTIONS[value]);
+            case DOOR -> text.append("DOOR: ").append(DOOR_STATUSES[value]);
+            case BYPASS -> text.append("FULL: BYPASS FLOOR ").append(floor);
+            case INPUT_TIMEOUT -> text.append("NO USER INPUT AFTER ").append(value).append(" TICKS: CLOSING AT FLOOR ").append(floor);
+            case CALL_BYPASSED -> text.append("CALL AT FLOOR ").append(floor).append(' ').append(DIRECTIONS[value]).append(" BYPASSED BY A FULL ELEVATOR");
+            case REQUESTS_CLEARED -> text.append("REQUESTS: CLEARED");
+            case LOCK -> text.append("LOCK: ").append(value == 1 ? "ON" : "OFF");
+            case FIRE_MOVE -> text.append("FIRE MOVE: ").append(value == 1 ? "ON" : "OFF");
+            case GROUND_MOVE -> text.append("GROUND MOVE: ").append(value == 1 ? "ON" : "OFF");
+        }
+        text.append('\n');
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public static void setEnabled(boolean value) {level = value ? LogLevel.DEBUG : LogLevel.OFF;}
+    public static boolean isEnabled() {return level != LogLevel.OFF;}
+    public static void setLevel(LogLevel value) {level = value;}
+    public static LogLevel getLevel() {return level;}
 }
@@ -1,21 +1,26 @@
 package com.example.learningjavafx.Helpers;
 
-import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.CommandQueue;
+import com.example.learningjavafx.Enumerations.CommandType;
+import com.example.learningjavafx.Enumerations.LogLevel;
 
 import java.util.Scanner;
 
 /**
  * Joint with the Elevator Runner, the class uses multi-thread capabilities
  * we can enter the input for the request as the state update the elevators.
+ * <p>
+ * The requests are not added from this thread: they are sent to the command queue
+ * drained by the thread moving the elevator.
  */
 public class ScannerRunnable implements Runnable {
     private Scanner scanner;
-    private ElevatorController controller;
+    private CommandQueue commandQueue;
     private ScannerRunnable() {}
 
-    public ScannerRunnable(Scanner scanner, ElevatorController controller) {
+    public ScannerRunnable(Scanner scanner, CommandQueue commandQueue) {
         this.scanner = scanner;
-        this.controller = controller;
+        this.commandQueue = commandQueue;
     }
 
     @Override
@@ -25,7 +30,9 @@ public class ScannerRunnable implements Runnable {
         while(floor != -1) {
 
             floor = scanner.nextInt();
-            this.controller.addRequest(floor);
+            if (!this.commandQueue.offer(CommandType.REQUEST, 0, floor)) {
+                Console.log(LogLevel.WARN, "SCANNER", "COMMAND QUEUE FULL: REQUEST DROPPED");
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.example.learningjavafx.Journal;
+
+import com.example.learningjavafx.Enumerations.JournalEventType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Append-only journal of every change of the state of the elevators and of every decision of the scheduler,
+ * read back by the JournalReplayer.
+ * <p>
+ * The file is a header followed by fixed-size records, all in little endian:
+ * - header (16 bytes): magic "ELVJ", version, number of elevators, number of floors
+ * - record (16 bytes): type of the JournalEventType in the highest byte, the 8 highest bits of the value in the next
+ *   one and time in milliseconds in the 48 others (long), elevator (int), floor (short), 16 lowest bits of the value (short)
+ * <p>
+ * The value is a signed number of 24 bits (a rated load, a number of passengers, an ordinal...): a value out of
+ * this range is rejected instead of being truncated.
+ * <p>
+ * The thread that changes the state does not write the file: record copies the event into a ring buffer
+ * allocated once, as the Console does with its messages, and a background thread packs the events in batches
+ * of BUFFER_RECORDS and writes them. Several threads can record at the same time (the elevators moved in parallel),
+ * the events are written in the order of the sequences they took in the ring. When the ring is full, the caller
+ * waits for the writer instead of losing events.
+ * <p>
+ * The time is read from the clock given at the creation: the wall clock in the application, the virtual clock
+ * of a SimulationEngine.
+ */
+public class EventJournal implements AutoCloseable {
+    public static final int MAGIC = 0x4A564C45;
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 16;
+    public static final int MIN_VALUE = -(1 << 23);
+    public static final int MAX_VALUE = (1 << 23) - 1;
+    static final long TIME_MASK = (1L << 48) - 1;
+    private static final int CAPACITY = 1 << 16;
+    private static final int MASK = CAPACITY - 1;
+    private static final int BUFFER_RECORDS = 1 << 14;
+
+    private final FileChannel channel;
+    private final LongSupplier clock;
+    private final int elevators;
+    private final int floors;
+
+    /**
+     * Events of the ring: type and time, then elevator, floor and value.
+     * A slot holds sequence + 1 once the event with that sequence is written.
+     */
+    private final long[] heads;
+    private final long[] bodies;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed;
+    private volatile long consumed;
+
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    /**
+     * Run when the journal is closed, to detach it from what records in it
+     */
+    private Runnable onClose;
+
+    public EventJournal(Path path, int elevators, int floors, LongSupplier clock) throws IOException {
+        if (floors > Short.MAX_VALUE) throw new IllegalArgumentException("The journal is limited to " + Short.MAX_VALUE + " floors");
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.clock = clock;
+        this.elevators = elevators;
+        this.floors = floors;
+        this.heads = new long[CAPACITY];
+        this.bodies = new long[CAPACITY];
+        this.published = new AtomicLongArray(CAPACITY);
+        this.claimed = new AtomicLong();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(elevators).putInt(floors).flip();
+        while (header.hasRemaining()) this.channel.write(header);
+
+        this.writer = new Thread(this::drain, "journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Add an event at the current time of the clock. The elevator is -1 for a decision of the scheduler
+     * that does not concern a single elevator. An event recorded after close is dropped.
+     *
+     * @throws IllegalArgumentException if the value does not fit in 24 bits
+     */
+    public void record(JournalEventType type, int elevator, int floor, int value) {
+        if (value < MIN_VALUE || value > MAX_VALUE) {
+            throw new IllegalArgumentException("The value of a " + type + " event does not fit in the journal: " + value);
+        }
+        if (this.closed) return;
+        long time = this.clock.getAsLong();
+        long sequence = this.claimed.getAndIncrement();
+        while (sequence - this.consumed >= CAPACITY) {
+            // Closed while the ring was full: nobody will make room any more
+            if (this.closed && !this.writer.isAlive()) return;
+            Thread.onSpinWait();
+        }
+
+        int slot = (int) (sequence & MASK);
+        this.heads[slot] = (long) type.ordinal() << 56 | (long) (value >>> 16 & 0xFF) << 48 | (time & TIME_MASK);
+        this.bodies[slot] = (long) elevator << 32 | (floor & 0xFFFFL) << 16 | (value & 0xFFFFL);
+        this.published.set(slot, sequence + 1);
+    }
+
+    private void drain() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long next = 0;
+        try {
+            while (true) {
+                int slot = (int) (next & MASK);
+                if (this.published.get(slot) != next + 1) {
+                    if (buffer.position() > 0) this.write(buffer);
+                    if (this.closed && next == this.claimed.get()) return;
+                    LockSupport.parkNanos(1_000_000);
+                    continue;
+                }
+
+                long body = this.bodies[slot];
+                buffer.putLong(this.heads[slot]);
+                buffer.putInt((int) (body >> 32));
+                buffer.putShort((short) (body >> 16));
+                buffer.putShort((short) body);
+                this.consumed = ++next;
+                if (!buffer.hasRemaining()) this.write(buffer);
+            }
+        } catch (IOException exception) {
+            this.failure = exception;
+            // Keep consuming so that the callers are never blocked by a full ring
+            while (!this.closed || this.consumed < this.claimed.get()) {
+                if (this.published.get((int) (this.consumed & MASK)) == this.consumed + 1) this.consumed++;
+                else LockSupport.parkNanos(1_000_000);
+            }
+        }
+    }
+
+    /**
+     * Value of a record, from the highest bits in its head and the lowest ones in its body
+     */
+    static int value(long head, short low) {
+        return (int) (head << 8 >> 56) << 16 | (low & 0xFFFF);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) this.channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Detach the journal, write the events recorded before and close the file. No event can be recorded after.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) return;
+        this.closed = true;
+        if (this.onClose != null) this.onClose.run();
+        try {
+            this.writer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        this.channel.close();
+        if (this.failure != null) throw this.failure;
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public long getRecords() {return this.claimed.get();}
+    public int getElevators() {return this.elevators;}
+    public int getFloors() {return this.floors;}
+    public boolean isClosed() {return this.closed;}
+    public void setOnClose(Runnable onClose) {this.onClose = onClose;}
+}
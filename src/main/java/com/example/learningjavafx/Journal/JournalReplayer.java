@@ -0,0 +1,232 @@
+package com.example.learningjavafx.Journal;
+
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.JournalEventType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Rebuild the state of the elevators recorded by an EventJournal, at any time of the recording.
+ * <p>
+ * java -cp target/classes com.example.learningjavafx.Journal.JournalReplayer [journal] [time]
+ * <p>
+ * The events are applied in the order of the journal: the state is the same as the state of the ElevatorStateStore
+ * after the last event at or before the time (the remaining ticks of the door phases excepted). Replaying is
+ * incremental, a later time continues from the current state; an earlier time replays the journal from the start.
+ * The decisions of the scheduler are counted for each elevator.
+ * <p>
+ * Without a time, the state at the end of the journal is printed.
+ */
+public class JournalReplayer implements AutoCloseable {
+    private static final int BUFFER_RECORDS = 1 << 14;
+    private static final JournalEventType[] TYPES = JournalEventType.values();
+    private static final ElevatorDirection[] DIRECTIONS = ElevatorDirection.values();
+    private static final DoorStatus[] DOOR_STATUSES = DoorStatus.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long records;
+    private final int elevators;
+    private final int totalFloors;
+    private final long endTime;
+
+    /**
+     * State of each elevator, as in the ElevatorStateStore
+     */
+    private final int[] floors;
+    private final byte[] directions;
+    private final byte[] doorStatuses;
+    private final byte[] flags;
+    private final int[] passengers;
+    private final int[] ratedLoads;
+    private final BitSet[] stops;
+    /**
+     * Counts of each elevator since the start of the journal
+     */
+    private final int[] doorOpenings;
+    private final int[] requests;
+    private final int[] assignedCalls;
+    private final int[] bypassedCalls;
+    private int pendingCalls;
+    private int rejectedCalls;
+
+    private long position;
+    private long time;
+
+    public JournalReplayer(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(EventJournal.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (this.channel.read(header, header.position()) < 0) break;
+        }
+        header.flip();
+        if (header.remaining() < EventJournal.HEADER_BYTES || header.getInt() != EventJournal.MAGIC) throw new IOException("Not an event journal: " + path);
+        if (header.getInt() != EventJournal.VERSION) throw new IOException("Unsupported version of event journal: " + path);
+        this.elevators = header.getInt();
+        this.totalFloors = header.getInt();
+        this.records = (this.channel.size() - EventJournal.HEADER_BYTES) / EventJournal.RECORD_BYTES;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * EventJournal.RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        ByteBuffer last = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (this.records > 0) this.channel.read(last, EventJournal.HEADER_BYTES + (this.records - 1) * EventJournal.RECORD_BYTES);
+        this.endTime = this.records > 0 ? last.getLong(0) & EventJournal.TIME_MASK : 0;
+
+        this.floors = new int[this.elevators];
+        this.directions = new byte[this.elevators];
+        this.doorStatuses = new byte[this.elevators];
+        this.flags = new byte[this.elevators];
+        this.passengers = new int[this.elevators];
+        this.ratedLoads = new int[this.elevators];
+        this.stops = new BitSet[this.elevators * ElevatorStateStore.SETS];
+        for (int i = 0; i < this.stops.length; i++) this.stops[i] = new BitSet(this.totalFloors);
+        this.doorOpenings = new int[this.elevators];
+        this.requests = new int[this.elevators];
+        this.assignedCalls = new int[this.elevators];
+        this.bypassedCalls = new int[this.elevators];
+        this.reset();
+    }
+
+    /**
+     * Go back before the first event: the elevators are as created by the ElevatorStateStore
+     */
+    public void reset() {
+        this.position = 0;
+        this.time = -1;
+        this.buffer.clear().limit(0);
+        for (int row = 0; row < this.elevators; row++) {
+            this.floors[row] = 0;
+            this.directions[row] = (byte) ElevatorDirection.IDLE.ordinal();
+            this.doorStatuses[row] = (byte) DoorStatus.CLOSE.ordinal();
+            this.flags[row] = 0;
+            this.passengers[row] = 0;
+            this.ratedLoads[row] = ElevatorStateStore.DEFAULT_RATED_LOAD;
+            this.doorOpenings[row] = 0;
+            this.requests[row] = 0;
+            this.assignedCalls[row] = 0;
+            this.bypassedCalls[row] = 0;
+        }
+        for (BitSet set : this.stops) set.clear();
+        this.pendingCalls = 0;
+        this.rejectedCalls = 0;
+    }
+
+    /**
+     * Apply all the events up to the given time (included)
+     *
+     * @return long: the number of events applied
+     */
+    public long replayUntil(long timestamp) throws IOException {
+        if (timestamp < this.time) this.reset();
+        long start = this.position;
+        while (this.position < this.records) {
+            if (!this.buffer.hasRemaining()) this.fill();
+            long head = this.buffer.getLong(this.buffer.position());
+            if ((head & EventJournal.TIME_MASK) > timestamp) break;
+
+            this.buffer.position(this.buffer.position() + Long.BYTES);
+            int elevator = this.buffer.getInt();
+            int floor = this.buffer.getShort();
+            int value = EventJournal.value(head, this.buffer.getShort());
+            this.apply(TYPES[(int) (head >>> 56)], elevator, floor, value);
+            this.position++;
+        }
+        this.time = timestamp;
+        return this.position - start;
+    }
+
+    /**
+     * Read the next records of the file in the buffer
+     */
+    private void fill() throws IOException {
+        long remaining = (this.records - this.position) * EventJournal.RECORD_BYTES;
+        this.buffer.clear();
+        if (remaining < this.buffer.capacity()) this.buffer.limit((int) remaining);
+        long offset = EventJournal.HEADER_BYTES + this.position * EventJournal.RECORD_BYTES;
+        while (this.buffer.hasRemaining()) {
+            if (this.channel.read(this.buffer, offset + this.buffer.position()) < 0) throw new IOException("Truncated event journal");
+        }
+        this.buffer.flip();
+    }
+
+    private void apply(JournalEventType type, int elevator, int floor, int value) {
+        switch (type) {
+            case FLOOR -> this.floors[elevator] = floor;
+            case DIRECTION -> this.directions[elevator] = (byte) value;
+            case DOOR -> {
+                this.doorStatuses[elevator] = (byte) value;
+                if (value == DoorStatus.OPENING.ordinal()) this.doorOpenings[elevator]++;
+            }
+            case FLAGS -> this.flags[elevator] = (byte) value;
+            case STOP_ADDED -> this.stops[elevator * ElevatorStateStore.SETS + value].set(floor);
+            case STOP_REMOVED -> this.stops[elevator * ElevatorStateStore.SETS + value].clear(floor);
+            case STOPS_CLEARED -> this.stops[elevator * ElevatorStateStore.SETS + value].clear();
+            case PASSENGERS -> this.passengers[elevator] = value;
+            case RATED_LOAD -> this.ratedLoads[elevator] = value;
+            case REQUEST -> this.requests[elevator]++;
+            case ASSIGN -> this.assignedCalls[elevator]++;
+            case PENDING -> this.pendingCalls++;
+            case REJECTED -> this.rejectedCalls++;
+            case BYPASSED -> this.bypassedCalls[elevator]++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: JournalReplayer [journal] [time]");
+            return;
+        }
+        try (JournalReplayer replayer = new JournalReplayer(Path.of(args[0]))) {
+            long time = args.length > 1 ? Long.parseLong(args[1]) : replayer.getEndTime();
+            long start = System.nanoTime();
+            replayer.replayUntil(time);
+            System.out.printf("State at %d ms: %d of %d events (%d elevators, %d floors) replayed in %.1f ms%n", time, replayer.getPosition(),
+                    replayer.getRecords(), replayer.getElevators(), replayer.getTotalFloors(), (System.nanoTime() - start) / 1e6);
+            System.out.printf("Pending calls: %d, rejected calls: %d%n", replayer.getPendingCalls(), replayer.getRejectedCalls());
+            for (int row = 0; row < replayer.getElevators(); row++) {
+                System.out.printf("  elevator %d: floor %d, %s, door %s%s, %d passengers, up %s, down %s, car calls %s, %d assigned, %d bypassed%n",
+                        row, replayer.getFloor(row), replayer.getDirection(row), replayer.getDoorStatus(row), replayer.isLocked(row) ? ", locked" : "",
+                        replayer.getPassengers(row), replayer.getStops(row, ElevatorStateStore.UP_SET), replayer.getStops(row, ElevatorStateStore.DOWN_SET),
+                        replayer.getStops(row, ElevatorStateStore.CAR_CALL_SET), replayer.getAssignedCalls(row), replayer.getBypassedCalls(row));
+            }
+        }
+    }
+
+    /**
+     * GETTERS
+     */
+    public long getRecords() {return this.records;}
+    public long getPosition() {return this.position;}
+    public long getTime() {return this.time;}
+    public long getEndTime() {return this.endTime;}
+    public int getElevators() {return this.elevators;}
+    public int getTotalFloors() {return this.totalFloors;}
+    public int getFloor(int row) {return this.floors[row];}
+    public ElevatorDirection getDirection(int row) {return DIRECTIONS[this.directions[row]];}
+    public DoorStatus getDoorStatus(int row) {return DOOR_STATUSES[this.doorStatuses[row]];}
+    public boolean isLocked(int row) {return (this.flags[row] & ElevatorStateStore.LOCKED) != 0;}
+    public boolean isFireLock(int row) {return (this.flags[row] & ElevatorStateStore.FIRE_LOCK) != 0;}
+    public boolean isGroundLock(int row) {return (this.flags[row] & ElevatorStateStore.GROUND_LOCK) != 0;}
+    public int getFlags(int row) {return this.flags[row];}
+    public int getPassengers(int row) {return this.passengers[row];}
+    public int getRatedLoad(int row) {return this.ratedLoads[row];}
+    public BitSet getStops(int row, int set) {return (BitSet) this.stops[row * ElevatorStateStore.SETS + set].clone();}
+    public int getDoorOpenings(int row) {return this.doorOpenings[row];}
+    public int getRequests(int row) {return this.requests[row];}
+    public int getAssignedCalls(int row) {return this.assignedCalls[row];}
+    public int getBypassedCalls(int row) {return this.bypassedCalls[row];}
+    public int getPendingCalls() {return this.pendingCalls;}
+    public int getRejectedCalls() {return this.rejectedCalls;}
+}
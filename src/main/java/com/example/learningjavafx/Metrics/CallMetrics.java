@@ -0,0 +1,273 @@
+package com.example.learningjavafx.Metrics;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Wait and journey times of the calls of a building.
+ * <p>
+ * The wait of a hall call goes from the first press of the button (Scheduler.acceptRequestAndProcess) to the moment
+ * the door of the elevator serving it is open. It is recorded when that door closes: if passengers who were waiting
+ * when it opened are still at the floor (recordPassengersStillWaiting, left behind by a full car or waiting for
+ * another car), the call keeps waiting from its first press for the next door, and the engine pressing the button
+ * again for them does not start it again. The journey goes from the same press to the stop at the floor selected
+ * inside the car, when the car call is served by the store. A call pressed again, or dispatched again after a full
+ * car passed it, also keeps the time of its first press. A car call entered without a hall call (from the inside
+ * of the elevator) starts when it is entered.
+ * <p>
+ * The times are aggregated per floor (origin floor for the waits, destination floor for the journeys) and
+ * per car (the row of the elevator in the ElevatorStateStore), in LatencyHistogram. Everything is allocated
+ * in the constructor, so the recording does not allocate and can stay on for runs of millions of passengers.
+ * The hall calls can be pressed from any thread. The other methods are called by the move of one car and
+ * only write the slots of that car, like the rows of the store.
+ */
+public class CallMetrics {
+    /**
+     * Longest wait or journey counted precisely, in milliseconds
+     */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_MILLIS = 24 * 3_600_000L;
+    private static final long NONE = -1;
+
+    private final int totalFloors;
+    private final int totalCars;
+    /**
+     * Current time in milliseconds: the virtual clock of a SimulationEngine, or the wall clock
+     */
+    private LongSupplier clock;
+
+    /**
+     * First press of each hall call still waiting for a door (index floor * 2 + direction)
+     */
+    private final AtomicLongArray hallCallTimes;
+    /**
+     * Hall calls pressed while they were not waiting already
+     */
+    private final AtomicLong hallCalls;
+    /**
+     * For each car, first press and wait of the hall calls served by its open door, recorded when the door closes
+     * (index car * 2 + direction), and the floor of that door
+     */
+    private final long[] servedCallTimes;
+    private final long[] servedCallWaits;
+    private final int[] servedFloors;
+    /**
+     * For each car, first press of the hall calls served by its open door: the start of the journeys of the
+     * passengers entering their destination
+     */
+    private final long[] boardingCallTimes;
+    /**
+     * First press of the calls of each car call still to serve (index car * floors + floor)
+     */
+    private final long[] carCallTimes;
+
+    private final LatencyHistogram waitTimes;
+    private final LatencyHistogram journeyTimes;
+    private final LatencyHistogram[] waitTimesByFloor;
+    private final LatencyHistogram[] waitTimesByCar;
+    private final LatencyHistogram[] journeyTimesByFloor;
+    private final LatencyHistogram[] journeyTimesByCar;
+    /**
+     * Waits for the user input that timed out, for each car and each floor
+     */
+    private final long[] inputTimeoutsByCar;
+    private final AtomicLongArray inputTimeoutsByFloor;
+
+    public CallMetrics(int totalFloors, int totalCars, LongSupplier clock) {
+        this.totalFloors = totalFloors;
+        this.totalCars = totalCars;
+        this.clock = clock;
+
+        this.hallCallTimes = new AtomicLongArray(totalFloors * 2);
+        for (int i = 0; i < totalFloors * 2; i++) this.hallCallTimes.set(i, NONE);
+        this.hallCalls = new AtomicLong();
+        this.servedCallTimes = new long[totalCars * 2];
+        Arrays.fill(this.servedCallTimes, NONE);
+        this.servedCallWaits = new long[totalCars * 2];
+        this.servedFloors = new int[totalCars];
+        this.boardingCallTimes = new long[totalCars];
+        Arrays.fill(this.boardingCallTimes, NONE);
+        this.carCallTimes = new long[totalCars * totalFloors];
+        Arrays.fill(this.carCallTimes, NONE);
+
+        this.waitTimes = new LatencyHistogram(DEFAULT_HIGHEST_TRACKABLE_MILLIS);
+        this.journeyTimes = new LatencyHistogram(DEFAULT_HIGHEST_TRACKABLE_MILLIS);
+        this.waitTimesByFloor = histograms(totalFloors);
+        this.waitTimesByCar = histograms(totalCars);
+        this.journeyTimesByFloor = histograms(totalFloors);
+        this.journeyTimesByCar = histograms(totalCars);
+        this.inputTimeoutsByCar = new long[totalCars];
+        this.inputTimeoutsByFloor = new AtomicLongArray(totalFloors);
+    }
+
+    private static LatencyHistogram[] histograms(int count) {
+        LatencyHistogram[] histograms = new LatencyHistogram[count];
+        for (int i = 0; i < count; i++) histograms[i] = new LatencyHistogram(DEFAULT_HIGHEST_TRACKABLE_MILLIS);
+        return histograms;
+    }
+
+    /**
+     * The hall button is pressed: the call starts now unless it is already waiting, or still waiting
+     * for the passengers a full car left behind
+     */
+    public void recordHallCall(ElevatorDirection direction, int floor) {
+        if (this.hallCallTimes.compareAndSet(hallIndex(floor, direction), NONE, this.clock.getAsLong())) this.hallCalls.incrementAndGet();
+    }
+
+    /**
+     * The car serves its hall calls in the given directions at the floor: its door has opened for them,
+     * or they were given to the car while its door was already open and a passenger enters
+     */
+    public void recordHallCallsServed(int car, int floor, boolean up, boolean down) {
+        long now = this.clock.getAsLong();
+        if (up) this.board(car, this.serveHallCall(car, floor, ElevatorDirection.UP, now));
+        if (down) this.board(car, this.serveHallCall(car, floor, ElevatorDirection.DOWN, now));
+    }
+
+    private void board(int car, long pressed) {
+        if (pressed != NONE && (this.boardingCallTimes[car] == NONE || pressed < this.boardingCallTimes[car])) this.boardingCallTimes[car] = pressed;
+    }
+
+    private long serveHallCall(int car, int floor, ElevatorDirection direction, long now) {
+        long pressed = this.hallCallTimes.getAndSet(hallIndex(floor, direction), NONE);
+        if (pressed == NONE) return NONE;
+        // Pressed again while the door is open: the door keeps the earliest press it has served
+        int slot = servedSlot(car, direction);
+        if (this.servedCallTimes[slot] != NONE && this.servedCallTimes[slot] <= pressed) return pressed;
+        this.servedCallTimes[slot] = pressed;
+        this.servedCallWaits[slot] = now - pressed;
+        this.servedFloors[car] = floor;
+        return pressed;
+    }
+
+    /**
+     * Passengers of the floor in the direction of a hall call served by the car are still there after boarding,
+     * the first of them since the given time. If they were already waiting when the door opened, the call waits
+     * again from its first press and its wait is not recorded for this door. Otherwise they have pressed a new call.
+     */
+    public void recordPassengersStillWaiting(int car, ElevatorDirection direction, long since) {
+        int slot = servedSlot(car, direction);
+        long pressed = this.servedCallTimes[slot];
+        if (pressed == NONE || since >= pressed + this.servedCallWaits[slot]) return;
+        this.servedCallTimes[slot] = NONE;
+        int index = hallIndex(this.servedFloors[car], direction);
+        long current = this.hallCallTimes.get(index);
+        while ((current == NONE || pressed < current) && !this.hallCallTimes.compareAndSet(index, current, pressed)) {
+            current = this.hallCallTimes.get(index);
+        }
+    }
+
+    /**
+     * The door is closed: the hall calls it served have boarded all their passengers, and the next car calls
+     * are not part of the same boarding
+     */
+    public void recordDoorClose(int car) {
+        this.boardingCallTimes[car] = NONE;
+        this.recordServedCall(car, servedSlot(car, ElevatorDirection.UP));
+        this.recordServedCall(car, servedSlot(car, ElevatorDirection.DOWN));
+    }
+
+    private void recordServedCall(int car, int slot) {
+        if (this.servedCallTimes[slot] == NONE) return;
+        this.servedCallTimes[slot] = NONE;
+        long wait = this.servedCallWaits[slot];
+        this.waitTimes.record(wait);
+        this.waitTimesByFloor[this.servedFloors[car]].record(wait);
+        this.waitTimesByCar[car].record(wait);
+    }
+
+    /**
+     * A destination is entered inside the car
+     */
+    public void recordCarCall(int car, int floor) {
+        int index = car * this.totalFloors + floor;
+        long pressed = this.boardingCallTimes[car] != NONE ? this.boardingCallTimes[car] : this.clock.getAsLong();
+        if (this.carCallTimes[index] == NONE || pressed < this.carCallTimes[index]) this.carCallTimes[index] = pressed;
+    }
+
+    /**
+     * The car stops at a floor selected inside it
+     */
+    public void recordCarCallServed(int car, int floor) {
+        int index = car * this.totalFloors + floor;
+        long pressed = this.carCallTimes[index];
+        if (pressed == NONE) return;
+        this.carCallTimes[index] = NONE;
+        long journey = this.clock.getAsLong() - pressed;
+        this.journeyTimes.record(journey);
+        this.journeyTimesByFloor[floor].record(journey);
+        this.journeyTimesByCar[car].record(journey);
+    }
+
+    /**
+     * The car calls of the car are cancelled (emergency lock)
+     */
+    public void recordCarCallsCleared(int car) {
+        Arrays.fill(this.carCallTimes, car * this.totalFloors, (car + 1) * this.totalFloors, NONE);
+    }
+
+    /**
+     * The hall call of the floor in the direction is cancelled without being served (emergency lock):
+     * it stops waiting, and the next press of the button starts a new call
+     */
+    public void recordHallCallsCleared(int floor, ElevatorDirection direction) {
+        this.hallCallTimes.set(hallIndex(floor, direction), NONE);
+    }
+
+    /**
+     * The car has closed its door after waiting for a destination that nobody entered
+     */
+    public void recordInputTimeout(int car, int floor) {
+        this.inputTimeoutsByCar[car]++;
+        this.inputTimeoutsByFloor.incrementAndGet(floor);
+    }
+
+    /**
+     * Waits for the user input that timed out, in all the cars
+     */
+    public long getInputTimeouts() {
+        long timeouts = 0;
+        for (long carTimeouts : this.inputTimeoutsByCar) timeouts += carTimeouts;
+        return timeouts;
+    }
+
+    /**
+     * How long the oldest hall call still waiting for a door has waited at the given time, 0 without any call.
+     * A call whose passengers were left behind by a full car has waited since its first press.
+     */
+    public long getLongestWaitingCall(long now) {
+        long oldest = NONE;
+        for (int i = 0; i < this.hallCallTimes.length(); i++) {
+            long pressed = this.hallCallTimes.get(i);
+            if (pressed != NONE && (oldest == NONE || pressed < oldest)) oldest = pressed;
+        }
+        return oldest == NONE ? 0 : Math.max(0, now - oldest);
+    }
+
+    private static int hallIndex(int floor, ElevatorDirection direction) {
+        return floor * 2 + (direction == ElevatorDirection.DOWN ? 1 : 0);
+    }
+
+    private static int servedSlot(int car, ElevatorDirection direction) {
+        return car * 2 + (direction == ElevatorDirection.DOWN ? 1 : 0);
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public int getTotalFloors() {return this.totalFloors;}
+    public int getTotalCars() {return this.totalCars;}
+    public LatencyHistogram getWaitTimes() {return this.waitTimes;}
+    public LatencyHistogram getJourneyTimes() {return this.journeyTimes;}
+    public LatencyHistogram getFloorWaitTimes(int floor) {return this.waitTimesByFloor[floor];}
+    public LatencyHistogram getFloorJourneyTimes(int floor) {return this.journeyTimesByFloor[floor];}
+    public LatencyHistogram getCarWaitTimes(int car) {return this.waitTimesByCar[car];}
+    public LatencyHistogram getCarJourneyTimes(int car) {return this.journeyTimesByCar[car];}
+    public long getHallCalls() {return this.hallCalls.get();}
+    public long getCarInputTimeouts(int car) {return this.inputTimeoutsByCar[car];}
+    public long getFloorInputTimeouts(int floor) {return this.inputTimeoutsByFloor.get(floor);}
+    public void setClock(LongSupplier clock) {this.clock = clock;}
+}
@@ -0,0 +1,147 @@
+package com.example.learningjavafx.Metrics;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations (in milliseconds) with a fixed memory, in the style of HdrHistogram.
+ * <p>
+ * The values below 2^SUB_BUCKET_BITS are counted exactly. Above, each power of two is divided into
+ * 2^(SUB_BUCKET_BITS - 1) buckets of the same width, so a value is known with a relative error below 1/64.
+ * The buckets are allocated once, up to the highest trackable value: the larger values are counted in the last bucket,
+ * but the maximum is exact.
+ * <p>
+ * record() only increments counters with atomic operations: it does not allocate or lock, so it can be
+ * called from several threads while the percentiles are read.
+ * <p>
+ * A snapshot holds the totals and the buckets up to the last one used: its size depends on the highest value
+ * recorded, not on the number of values.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong totalValue;
+    private final AtomicLong maxValue;
+
+    public LatencyHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < SUB_BUCKET_COUNT) {
+            throw new IllegalArgumentException("The highest trackable value must be at least " + SUB_BUCKET_COUNT);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketIndex(highestTrackableValue) + 1);
+        this.totalCount = new AtomicLong();
+        this.totalValue = new AtomicLong();
+        this.maxValue = new AtomicLong();
+    }
+
+    /**
+     * Count one value, the negative values are counted as 0
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        this.counts.incrementAndGet(bucketIndex(Math.min(value, this.highestTrackableValue)));
+        this.totalCount.incrementAndGet();
+        this.totalValue.addAndGet(value);
+        long max = this.maxValue.get();
+        while (value > max && !this.maxValue.compareAndSet(max, value)) max = this.maxValue.get();
+    }
+
+    /**
+     * Value below which the given percentage of the recorded values are, as the highest value of its bucket
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = this.totalCount.get();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) return Math.min(highestValueIn(i), this.getMax());
+        }
+        return this.getMax();
+    }
+
+    public double getMean() {
+        long count = this.totalCount.get();
+        return count == 0 ? 0 : (double) this.totalValue.get() / count;
+    }
+
+    /**
+     * Bucket of the value: the value itself below SUB_BUCKET_COUNT, then SUB_BUCKET_HALF buckets
+     * for each power of two, indexed by the SUB_BUCKET_BITS highest bits of the value
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (int) (value >> shift) - SUB_BUCKET_HALF;
+    }
+
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * SNAPSHOT
+     */
+
+    /**
+     * Size of the snapshot: the totals, the number of buckets written and the buckets up to the last one used
+     */
+    public int getSnapshotBytes() {
+        return 3 * Long.BYTES + Integer.BYTES + this.usedBuckets() * Long.BYTES;
+    }
+
+    private int usedBuckets() {
+        int used = this.counts.length();
+        while (used > 0 && this.counts.get(used - 1) == 0) used--;
+        return used;
+    }
+
+    /**
+     * Copy the counters in the buffer, not while values are recorded
+     */
+    public void writeSnapshot(ByteBuffer buffer) {
+        int used = this.usedBuckets();
+        buffer.putLong(this.totalCount.get()).putLong(this.totalValue.get()).putLong(this.maxValue.get()).putInt(used);
+        for (int i = 0; i < used; i++) buffer.putLong(this.counts.get(i));
+    }
+
+    /**
+     * Go back to the counters of a snapshot of a histogram with the same highest trackable value
+     */
+    public void restore(ByteBuffer buffer) {
+        this.totalCount.set(buffer.getLong());
+        this.totalValue.set(buffer.getLong());
+        this.maxValue.set(buffer.getLong());
+        int used = buffer.getInt();
+        if (used > this.counts.length()) throw new IllegalArgumentException("The snapshot has more buckets than the histogram: " + used);
+        for (int i = 0; i < this.counts.length(); i++) this.counts.set(i, i < used ? buffer.getLong() : 0);
+    }
+
+    /**
+     * GETTERS
+     */
+    public long getCount() {return this.totalCount.get();}
+    public long getMax() {return this.maxValue.get();}
+    public long getTotal() {return this.totalValue.get();}
+    public long getHighestTrackableValue() {return this.highestTrackableValue;}
+    public int getBucketCount() {return this.counts.length();}
+
+    /**
+     * p50/p90/p99/max in seconds
+     */
+    @Override
+    public String toString() {
+        return String.format("p50 %.1f s, p90 %.1f s, p99 %.1f s, max %.1f s (%d calls)", this.getValueAtPercentile(50) / 1000.0,
+                this.getValueAtPercentile(90) / 1000.0, this.getValueAtPercentile(99) / 1000.0, this.getMax() / 1000.0, this.getCount());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.learningjavafx.Metrics;
+
+import com.example.learningjavafx.Elevator.StateSnapshot;
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+/**
+ * Sample the performance of a running building in TimeSeries of fixed capacity: the dashboard of the application.
+ * <p>
+ * Each sample covers the interval since the previous one, in simulated time (the time of the snapshots):
+ * - average wait of the hall calls served during the interval, in seconds: a call is counted when the door
+ *   that took the last of its waiting passengers closes
+ * - longest wait of a hall call still waiting at the end of the interval, in seconds, from its first press even
+ *   if full cars have already left passengers behind
+ * - hall calls pressed during the interval, per simulated minute
+ * - utilization of the cars: the share of the cars moving or with the door not closed, in percent
+ * - average duration of the ticks run during the interval, in microseconds of real time
+ * <p>
+ * The sample only reads counters: the CallMetrics recorded by the Scheduler and the elevators, the snapshot
+ * published by the simulation thread and the tick counters of the SimulationLoop. Nothing is added to the tick,
+ * which never waits for the monitor.
+ */
+public class PerformanceMonitor {
+    private final CallMetrics callMetrics;
+
+    private final TimeSeries averageWait;
+    private final TimeSeries longestWait;
+    private final TimeSeries callsPerMinute;
+    private final TimeSeries utilization;
+    private final TimeSeries tickMicros;
+
+    /**
+     * Counters at the previous sample, -1 before the first one
+     */
+    private long sampledTime;
+    private long sampledWaits;
+    private long sampledWaitTotal;
+    private long sampledCalls;
+    private long sampledTicks;
+    private long sampledTickNanos;
+
+    public PerformanceMonitor(CallMetrics callMetrics, int capacity) {
+        this.callMetrics = callMetrics;
+        this.averageWait = new TimeSeries(capacity);
+        this.longestWait = new TimeSeries(capacity);
+        this.callsPerMinute = new TimeSeries(capacity);
+        this.utilization = new TimeSeries(capacity);
+        this.tickMicros = new TimeSeries(capacity);
+        this.sampledTime = -1;
+    }
+
+    /**
+     * Add a sample of each series at the time of the snapshot, with the ticks run since the start and their
+     * total duration. The first call only keeps the counters, and a snapshot no later than the previous
+     * sample (the simulation is stopped) is not sampled.
+     *
+     * @return boolean: true if a sample has been added
+     */
+    public boolean sample(StateSnapshot snapshot, long ticks, long totalTickNanos) {
+        long time = snapshot.getTime();
+        if (time <= this.sampledTime) return false;
+
+        LatencyHistogram waitTimes = this.callMetrics.getWaitTimes();
+        long waits = waitTimes.getCount();
+        long waitTotal = waitTimes.getTotal();
+        long calls = this.callMetrics.getHallCalls();
+
+        boolean first = this.sampledTime == -1;
+        if (!first) {
+            long interval = time - this.sampledTime;
+            long servedWaits = waits - this.sampledWaits;
+            long runTicks = ticks - this.sampledTicks;
+            this.averageWait.add(time, servedWaits > 0 ? (waitTotal - this.sampledWaitTotal) / 1000.0 / servedWaits : Double.NaN);
+            this.longestWait.add(time, this.callMetrics.getLongestWaitingCall(time) / 1000.0);
+            this.callsPerMinute.add(time, (calls - this.sampledCalls) * 60_000.0 / interval);
+            this.utilization.add(time, busyCars(snapshot) * 100.0 / Math.max(1, snapshot.size()));
+            this.tickMicros.add(time, runTicks > 0 ? (totalTickNanos - this.sampledTickNanos) / 1000.0 / runTicks : Double.NaN);
+        }
+
+        this.sampledTime = time;
+        this.sampledWaits = waits;
+        this.sampledWaitTotal = waitTotal;
+        this.sampledCalls = calls;
+        this.sampledTicks = ticks;
+        this.sampledTickNanos = totalTickNanos;
+        return !first;
+    }
+
+    /**
+     * Cars moving, or serving a floor with their door
+     */
+    private static int busyCars(StateSnapshot snapshot) {
+        int busy = 0;
+        for (int row = 0; row < snapshot.size(); row++) {
+            if (snapshot.getDirection(row) != ElevatorDirection.IDLE || snapshot.getDoorStatus(row) != DoorStatus.CLOSE) busy++;
+        }
+        return busy;
+    }
+
+    /**
+     * GETTERS
+     */
+    public CallMetrics getCallMetrics() {return this.callMetrics;}
+    public TimeSeries getAverageWait() {return this.averageWait;}
+    public TimeSeries getLongestWait() {return this.longestWait;}
+    public TimeSeries getCallsPerMinute() {return this.callsPerMinute;}
+    public TimeSeries getUtilization() {return this.utilization;}
+    public TimeSeries getTickMicros() {return this.tickMicros;}
+}
@@ -0,0 +1,82 @@
+package com.example.learningjavafx.Metrics;
+
+/**
+ * The last samples of a measure, in a ring of primitive arrays allocated once.
+ * <p>
+ * When the ring is full, a new sample replaces the oldest one: the memory does not grow however long the
+ * application runs, and adding a sample does not allocate. A NaN value is an interval without measure
+ * (no call served, no tick run), kept so that a chart shows the gap instead of joining its neighbours.
+ * <p>
+ * The series is written and read by one thread, the JavaFX thread in the dashboard.
+ */
+public class TimeSeries {
+    private final long[] times;
+    private final double[] values;
+    /**
+     * Slot of the next sample, and number of samples in the ring
+     */
+    private int next;
+    private int size;
+
+    public TimeSeries(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        this.times = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Add the sample at the given time, replacing the oldest one when the series is full
+     */
+    public void add(long time, double value) {
+        this.times[this.next] = time;
+        this.values[this.next] = value;
+        this.next = this.next + 1 == this.times.length ? 0 : this.next + 1;
+        if (this.size < this.times.length) this.size++;
+    }
+
+    public void clear() {
+        this.next = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Slot of the sample with the given index, 0 for the oldest
+     */
+    int slot(int index) {
+        if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException(index);
+        int slot = this.next - this.size + index;
+        return slot < 0 ? slot + this.times.length : slot;
+    }
+
+    /**
+     * Highest value of the series, ignoring the intervals without measure, 0 when there is none
+     */
+    public double getMax() {
+        double max = 0;
+        for (int i = 0; i < this.size; i++) {
+            double value = this.values[this.slot(i)];
+            if (value > max) max = value;
+        }
+        return max;
+    }
+
+    /**
+     * Value of the last interval with a measure, NaN when there is none
+     */
+    public double getLast() {
+        for (int i = this.size - 1; i >= 0; i--) {
+            double value = this.values[this.slot(i)];
+            if (!Double.isNaN(value)) return value;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * GETTERS
+     */
+    public int size() {return this.size;}
+    public int getCapacity() {return this.times.length;}
+    public boolean isEmpty() {return this.size == 0;}
+    public long getTime(int index) {return this.times[this.slot(index)];}
+    public double getValue(int index) {return this.values[this.slot(index)];}
+}
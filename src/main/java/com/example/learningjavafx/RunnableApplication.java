@@ -1,20 +1,42 @@
 package com.example.learningjavafx;
 
+import com.example.learningjavafx.Application.BuildingView;
+import com.example.learningjavafx.Application.CanvasRenderer;
+import com.example.learningjavafx.Application.DashboardView;
 import com.example.learningjavafx.Application.Handler;
 import com.example.learningjavafx.Application.Updater;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.fxml.FXMLLoader;
+import com.example.learningjavafx.Elevator.StateSnapshot;
+import com.example.learningjavafx.Enumerations.CommandType;
+import com.example.learningjavafx.Metrics.CallMetrics;
+import com.example.learningjavafx.Simulation.SimulationEngine;
+import com.example.learningjavafx.Simulation.SimulationLoop;
+import com.example.learningjavafx.Simulation.TrafficGenerator;
+import javafx.animation.AnimationTimer;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Label;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
-import java.io.IOException;
+import java.util.Map;
 
 /**
  * Main entrypoint for JAVAFX: initializing the components and rendering the elements
- * using a timeframe of 1 second and loop infinitely.
+ * on each frame of an AnimationTimer.
+ * <p>
+ * The building does not move on the JavaFX thread: a SimulationLoop runs its ticks on its own thread and publishes
+ * a StateSnapshot after each one, and each frame draws the latest snapshot. The parameter --speed=100 runs the
+ * simulation a hundred times faster than real time, and --traffic=20 adds random passengers (one every 20 s on
+ * average) moved by a SimulationEngine. The buttons and clicks go through the command queue of the scheduler.
+ * <p>
+ * The view is a BuildingView generated from the number of floors and elevators of the building, see RunnableBuilding
+ * to change them. With the parameter --view=canvas, the building is drawn by a CanvasRenderer instead:
+ * one node whatever the number of floors and elevators.
+ * <p>
+ * A DashboardView on the right of both views charts the last minutes of the building: wait, longest waiting call,
+ * calls per minute, utilization of the cars and duration of a tick.
  */
 public class RunnableApplication extends javafx.application.Application {
     /**
@@ -30,40 +52,142 @@ public class RunnableApplication extends javafx.application.Application {
      * Creating an instance of the Updater Object: update the state of the elevators and movement
      */
     private Updater updater;
+    /**
+     * The nodes of the building, generated when the application starts
+     */
+    private BuildingView view;
+    /**
+     * Thread moving the building, and the snapshot drawn by the last frame
+     */
+    private SimulationLoop simulationLoop;
+    private StateSnapshot drawnSnapshot;
+    /**
+     * Waits of the calls of the building, recorded with the simulated time of the loop, and their charts
+     */
+    private CallMetrics callMetrics;
+    private DashboardView dashboard;
 
     /**
      * Entry point for initial setup
      *
-     * We need to load the fxml file and set up the screen with intial width and height
+     * We need to generate the view of the building and set up the screen with intial width and height
      * We need to initialize the initial setup of the handlers and updates and show the scene
      * Afterwards, we run the initial elevator setup with default configurations
      *
-     * In the start method, we need to initialize a timeframe for each second to render the state
+     * In the start method, we need to start the simulation thread and an animation timer to render the state
      * of the system.
      */
     @Override
-    public void start(Stage stage) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(RunnableApplication.class.getResource("elevator.fxml"));
-        Scene internalScene = new Scene(fxmlLoader.load(), 650, 600);
+    public void start(Stage stage) {
+        if ("canvas".equals(this.getParameters().getNamed().get("view"))) {
+            this.startCanvas(stage);
+            return;
+        }
+        this.handler = new Handler();
+        this.view = new BuildingView(RunnableBuilding.building, this.handler);
+        this.updater = new Updater(this.view);
+        this.simulationLoop = this.createSimulationLoop();
+        this.dashboard = new DashboardView(this.simulationLoop, this.callMetrics);
 
-        scene = internalScene;
+        BorderPane root = new BorderPane(this.view.getRoot());
+        root.setRight(this.dashboard.getNode());
+        scene = new Scene(root, 1300, 700);
         stage.setTitle("Elevator Simulator!");
-        stage.setScene(internalScene);
-
-        this.handler = new Handler();
-        this.updater = new Updater();
+        stage.setScene(scene);
 
         stage.show();
         this.setup();
 
-        final Timeline timeline = new Timeline(
-                new KeyFrame(
-                        Duration.seconds(1),
-                        actionEvent -> update()
-                )
-        );
-        timeline.setCycleCount(Timeline.INDEFINITE);
-        timeline.play();
+        this.simulationLoop.start();
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                update();
+                dashboard.update(now);
+            }
+        }.start();
+    }
+
+    /**
+     * Entry point of the canvas view: the canvas fills the window and is drawn on each frame, the cars
+     * moving smoothly from one snapshot to the next
+     * <p>
+     * The wheel scrolls the building (with shift: the elevators), with control it zooms. A click on the left
+     * column presses the up or down button of the floor, a click in a shaft enters the floor in the elevator.
+     */
+    private void startCanvas(Stage stage) {
+        Canvas canvas = new Canvas();
+        Pane pane = new Pane(canvas);
+        canvas.widthProperty().bind(pane.widthProperty());
+        canvas.heightProperty().bind(pane.heightProperty());
+        SimulationLoop loop = this.createSimulationLoop();
+        DashboardView dashboard = new DashboardView(loop, this.callMetrics);
+        BorderPane root = new BorderPane(pane);
+        root.setRight(dashboard.getNode());
+        scene = new Scene(root, 1280 + DashboardView.WIDTH, 800);
+        stage.setTitle("Elevator Simulator!");
+        stage.setScene(scene);
+
+        CanvasRenderer renderer = new CanvasRenderer(canvas);
+        canvas.widthProperty().addListener(observable -> renderer.redraw());
+        canvas.heightProperty().addListener(observable -> renderer.redraw());
+        canvas.setOnScroll(event -> {
+            if (event.isControlDown()) renderer.zoom(event.getDeltaY() > 0 ? 1.25 : 0.8, event.getY());
+            else if (event.isShiftDown()) renderer.scroll(-event.getDeltaY() - event.getDeltaX(), 0);
+            else renderer.scroll(-event.getDeltaX(), -event.getDeltaY());
+        });
+        canvas.setOnMouseClicked(event -> {
+            if (event.getButton() != MouseButton.PRIMARY) return;
+            int floor = renderer.getFloorAt(event.getY());
+            if (floor == -1) return;
+            int elevator = renderer.getElevatorAt(event.getX());
+            if (elevator != -1) RunnableBuilding.building.scheduler.submit(CommandType.CAR_CALL, elevator, floor);
+            else if (renderer.isUpCallAt(event.getX())) RunnableBuilding.building.scheduler.submit(CommandType.HALL_CALL_UP, -1, floor);
+            else RunnableBuilding.building.scheduler.submit(CommandType.HALL_CALL_DOWN, -1, floor);
+        });
+
+        stage.show();
+        RunnableBuilding.building.scheduler.sendElevatorsToOptimalPosition();
+
+        this.simulationLoop = loop;
+        this.dashboard = dashboard;
+        loop.start();
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                renderer.update(loop.getLatest(), now, loop.getTickMillis() * 1e6 / loop.getSpeed());
+                dashboard.update(now);
+            }
+        }.start();
+    }
+
+    /**
+     * The loop moving RunnableBuilding.building: Scheduler.run() on each tick, or a SimulationEngine with
+     * random passengers with the parameter --traffic (mean seconds between two passengers)
+     * <p>
+     * The call metrics of the building are enabled with the simulated time of the loop.
+     */
+    private SimulationLoop createSimulationLoop() {
+        Map<String, String> parameters = this.getParameters().getNamed();
+        SimulationLoop loop;
+        if (parameters.containsKey("traffic")) {
+            SimulationEngine engine = new SimulationEngine(RunnableBuilding.building);
+            double arrivalsPerHour = 3600 / Double.parseDouble(parameters.get("traffic"));
+            engine.setPassengerSource(new TrafficGenerator(TrafficGenerator.uniformMatrix(RunnableBuilding.floors), arrivalsPerHour,
+                    System.nanoTime(), Long.MAX_VALUE));
+            loop = new SimulationLoop(engine);
+            this.callMetrics = RunnableBuilding.building.enableCallMetrics(engine::getClock);
+        } else {
+            loop = new SimulationLoop(RunnableBuilding.building, SimulationEngine.DEFAULT_TICK_MILLIS);
+            this.callMetrics = RunnableBuilding.building.enableCallMetrics(loop::getTime);
+        }
+        loop.setSpeed(Double.parseDouble(parameters.getOrDefault("speed", "1")));
+        return loop;
+    }
+
+    @Override
+    public void stop() {
+        if (this.simulationLoop != null) this.simulationLoop.stop();
     }
 
     /**
@@ -83,17 +207,19 @@ public class RunnableApplication extends javafx.application.Application {
     }
 
     /**
-     * the method will be called inside the timeframe to update the view
+     * the method will be called on each frame to update the view
      *
      * The update will update the queue state, the elevator position
-     * and the call signals
+     * and the call signals, only when a new snapshot has been published
      */
     private void update() {
-        this.updater.updateElevatorQueueStatus();
-        this.updater.updateElevatorsState();
-        this.updater.updateCalledSigns();
+        StateSnapshot snapshot = this.simulationLoop.getLatest();
+        if (snapshot == this.drawnSnapshot) return;
+        this.drawnSnapshot = snapshot;
 
-        RunnableBuilding.building.scheduler.run();
+        this.updater.updateElevatorQueueStatus(snapshot);
+        this.updater.updateElevatorsState(snapshot);
+        this.updater.updateCalledSigns(snapshot);
     }
 
     /**
@@ -102,11 +228,9 @@ public class RunnableApplication extends javafx.application.Application {
      * The method simply calls the methods from the handler.
      */
     private void setup() {
-        this.handler.handleInternalFloorInput(0);
-        this.handler.handleInternalFloorInput(1);
-        this.handler.handleInternalFloorInput(2);
-        this.handler.handleDownCalls();
-        this.handler.handleUpCalls();
+        for (int i = 0; i < RunnableBuilding.building.elevators.size(); i++) {
+            this.handler.handleInternalFloorInput(i);
+        }
         this.handler.handleLock();
         this.handler.handleGroundLock();
         this.handler.handleFireLock();
@@ -114,12 +238,13 @@ public class RunnableApplication extends javafx.application.Application {
         this.handler.handleExitFiremanPanel();
 
         this.update();
+        this.view.scrollToFloor(0);
         handleClearUpdateSystem();
         RunnableBuilding.building.scheduler.sendElevatorsToOptimalPosition();
         setUpdateSystem("Sending elevators to optimal position");
     }
 
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 }
\ No newline at end of file
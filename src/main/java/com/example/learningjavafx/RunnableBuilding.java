@@ -3,11 +3,15 @@ package com.example.learningjavafx;
 /**
  * A static class for instantiating a new instance of a building
  * <p>
- * We define here the total number floors and elevators
+ * We define here the total number floors and elevators of the building shown by the application.
+ * The rest of the system reads the height from the building itself.
+ * <p>
+ * The size can be changed with the system properties floors and elevators (-Dfloors=200 -Delevators=64).
+ * The view is generated from these numbers, only the floors in the viewport have nodes.
  */
 public class RunnableBuilding {
-    public static final int floors = 8;
-    public static final int elevators = 3;
+    public static final int floors = Integer.getInteger("floors", 8);
+    public static final int elevators = Integer.getInteger("elevators", 3);
     /**
      * This will contain all the logic inside a building
      * The building will then initialize all the instanced
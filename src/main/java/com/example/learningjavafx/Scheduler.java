@@ -1,10 +1,29 @@
 package com.example.learningjavafx;
 
+import com.example.learningjavafx.Dispatch.BatchAssigner;
+import com.example.learningjavafx.Dispatch.ClassCascadePolicy;
+import com.example.learningjavafx.Dispatch.DispatchPolicy;
+import com.example.learningjavafx.Dispatch.ElevatorIndex;
+import com.example.learningjavafx.Dispatch.HallCallListener;
+import com.example.learningjavafx.Enumerations.CommandType;
 import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.JournalEventType;
+import com.example.learningjavafx.Enumerations.LogEvent;
+import com.example.learningjavafx.Enumerations.LogLevel;
+import com.example.learningjavafx.Elevator.CommandHandler;
+import com.example.learningjavafx.Elevator.CommandQueue;
 import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Elevator.HallCallBypassListener;
+import com.example.learningjavafx.Elevator.ParallelElevatorRunner;
 import com.example.learningjavafx.Helpers.Console;
+import com.example.learningjavafx.Journal.EventJournal;
+import com.example.learningjavafx.Metrics.CallMetrics;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 
 
 /**
@@ -78,10 +97,17 @@ import java.util.ArrayList;
  * After all the methods for finding the elevator in one of the classes, we check the list and if there are
  * multiple, we will select the one that is the closest to the request. This will be easy for the class A and B,
  * but in the class C and D we might need to simulate the elevator moving before making the entire scheduler decision.
+ * <p>
+ * In class A and C the best elevator is the closest one. In class B and D it is the farthest one, because
+ * the elevator farthest from the request is the one that will change direction first.
+ * The lookups are done on the ElevatorIndex, which keeps the elevators ordered by floor for each direction.
+ * <p>
+ * The cascade is implemented by the ClassCascadePolicy. Other policies can be plugged in with setDispatchPolicy,
+ * for instance the EstimatedTimePolicy which scores each elevator by its estimated time to reach the request.
  */
 
 
-public class Scheduler {
+public class Scheduler implements HallCallBypassListener, CommandHandler {
     /**
      * The scheduler controls all the elevators in the building
      * Initializing a new scheduler in the building means adding a new instance for each elevator
@@ -91,19 +117,104 @@ public class Scheduler {
      * elevators are managed by one scheduler. Instead, there are many schedulers that handle some particular elevators.
      */
     private final ArrayList<ElevatorController> elevatorControllers;
+    /**
+     * Number of floors of the building served by the elevators
+     */
+    private final int totalFloors;
+    /**
+     * Store of the state of the controllers when they are its rows in the same order, null otherwise.
+     * The elevators are then moved directly on the store.
+     */
+    private final ElevatorStateStore stateStore;
     /**
      * Global elevators ground lock boolean
      */
-    private boolean groundLocked;
+    private volatile boolean groundLocked;
     /**
      * Global elevator fire lock boolean
      */
-    private boolean fireLocked;
+    private volatile boolean fireLocked;
+    /**
+     * Elevators divided by state and ordered by floor, updated by the controllers themselves
+     */
+    private final ElevatorIndex index;
+    /**
+     * Strategy used to choose the elevator for each hall call
+     */
+    private DispatchPolicy dispatchPolicy;
+    /**
+     * Optional listener notified when a hall call is given to an elevator
+     */
+    private HallCallListener hallCallListener;
+    /**
+     * Optional recording of the time each hall call is pressed
+     */
+    private CallMetrics callMetrics;
+    /**
+     * Optional recording of the decisions of the scheduler
+     */
+    private EventJournal journal;
+
+    /**
+     * Batching of the hall calls: when the window (in ticks of run) is greater than zero,
+     * the requests are collected and assigned all together at the end of the window.
+     */
+    private int batchWindow;
+    private int ticksSinceFirstPendingCall;
+    private final BitSet pendingUpCalls;
+    private final BitSet pendingDownCalls;
+    private final BatchAssigner batchAssigner;
+    /**
+     * Hall calls passed by a full elevator, dispatched again after the move
+     */
+    private final BitSet bypassedUpCalls;
+    private final BitSet bypassedDownCalls;
+    private long bypassedCalls;
+    /**
+     * Bypasses of each elevator during a parallel move (floor * 2, + 1 for down), applied in the order of
+     * the elevators once all of them have moved. Each elevator only writes its own row.
+     */
+    private final int[][] deferredBypasses;
+    private final int[] deferredBypassCounts;
+    private boolean deferringBypasses;
+    /**
+     * Runner moving the elevators on several threads, null to move them sequentially
+     */
+    private ParallelElevatorRunner parallelRunner;
+    /**
+     * Inputs sent by the other threads (buttons, console), applied at the start of each run
+     */
+    private final CommandQueue commandQueue;
+
+    public Scheduler(ArrayList<ElevatorController> controllers, int totalFloors) {
+        this(controllers, totalFloors, null);
+    }
+
+    /**
+     * Scheduler for all the elevators of the store, the controllers being the rows of the store in order
+     */
+    public Scheduler(ArrayList<ElevatorController> controllers, ElevatorStateStore stateStore) {
+        this(controllers, stateStore.getTotalFloors(), stateStore);
+    }
 
-    public Scheduler(ArrayList<ElevatorController> controllers) {
+    private Scheduler(ArrayList<ElevatorController> controllers, int totalFloors, ElevatorStateStore stateStore) {
         this.elevatorControllers = controllers;
+        this.totalFloors = totalFloors;
+        this.stateStore = stateStore;
+        this.index = new ElevatorIndex(controllers);
+        this.dispatchPolicy = new ClassCascadePolicy();
+        this.batchWindow = 0;
+        this.pendingUpCalls = new BitSet();
+        this.pendingDownCalls = new BitSet();
+        this.batchAssigner = new BatchAssigner();
+        this.bypassedUpCalls = new BitSet();
+        this.bypassedDownCalls = new BitSet();
+        this.deferredBypasses = new int[controllers.size()][];
+        this.deferredBypassCounts = new int[controllers.size()];
+        this.commandQueue = new CommandQueue();
         this.groundLocked = false;
         this.fireLocked = false;
+        for (ElevatorController controller : controllers) controller.getStateStore().setBypassListener(this);
     }
 
     /**
@@ -113,219 +224,257 @@ public class Scheduler {
      * Then it finds the most optimal elevator and adds the request in the queue
      * in the most optimal one found.
      *
+     * If the batching is enabled, the request is only kept as pending: it will be assigned together
+     * with the other requests of the same window by dispatchPendingCalls.
+     *
+     * A floor outside of the building is logged and ignored: the requests also come from recorded traces.
+     *
+     * @return ElevatorController: the elevator that took the request, null if the floor is invalid, if all the
+     * elevators are locked or if the request is pending
      */
-    public void acceptRequestAndProcess(ElevatorDirection requestElevatorDirection, int requestFloor) {
+    public ElevatorController acceptRequestAndProcess(ElevatorDirection requestElevatorDirection, int requestFloor) {
+        if (requestFloor < 0 || requestFloor >= this.totalFloors) {
+            Console.event(LogLevel.ERROR, LogEvent.INVALID_FLOOR, -1, requestFloor, this.totalFloors - 1);
+            return null;
+        }
         if (this.areAllElevatorsLocked()) {
-            Console.log("SCHEDULER", "ERROR: CALLED PROCESS BUT ELEVATORS ARE LOCKED");
-            return;
+            Console.log(LogLevel.ERROR, "SCHEDULER", "ERROR: CALLED PROCESS BUT ELEVATORS ARE LOCKED");
+            if (this.journal != null) this.journal.record(JournalEventType.REJECTED, -1, requestFloor, requestElevatorDirection.ordinal());
+            // A call passed by a full elevator before the lock is dropped here when it is dispatched again
+            if (this.callMetrics != null) this.callMetrics.recordHallCallsCleared(requestFloor, requestElevatorDirection);
+            return null;
+        }
+        if (this.callMetrics != null) this.callMetrics.recordHallCall(requestElevatorDirection, requestFloor);
+
+        if (this.batchWindow > 0) {
+            if (!this.hasPendingCalls()) this.ticksSinceFirstPendingCall = 0;
+            if (requestElevatorDirection == ElevatorDirection.DOWN) this.pendingDownCalls.set(requestFloor);
+            else this.pendingUpCalls.set(requestFloor);
+            if (this.journal != null) this.journal.record(JournalEventType.PENDING, -1, requestFloor, requestElevatorDirection.ordinal());
+            return null;
         }
 
         ElevatorController optimalElevator = findOptimalElevator(requestElevatorDirection, requestFloor);
-        optimalElevator.externalRequest(requestFloor);
+        this.assign(optimalElevator, requestElevatorDirection, requestFloor);
+        return optimalElevator;
     }
 
     /**
-     * Find the most optimal elevator given the constraint of requestDirection and floor
-     * <p>
-     * We need to first filter all the elevators that are not unlocked because
-     * it does not make sense to process a request in an elevator that will not move.
+     * Assign all the pending requests at once.
      * <p>
-     * Then, we need to prioritize the elevator of class A or IDLE
-     * Then the class B, C and lastly D
-     * <p>
-     * As base case, we will process the last elevator
-     * <p>
-     * For each elevator found, we need to find the nearest one base of the farthest and nearest case
-     * applying in different cases.
+     * The same button pressed several times during the window is a single call. The calls are solved
+     * jointly by the BatchAssigner, then added to the elevators. The time taken by the solver can be
+     * read with getLastBatchSolveNanos.
      */
-    private ElevatorController findOptimalElevator(ElevatorDirection requestElevatorDirection, int requestFloor) {
-        ArrayList<ElevatorController> unlockedElevators = new ArrayList<>();
-        for (ElevatorController controller : this.elevatorControllers) {
-            if (!controller.isLocked()) unlockedElevators.add(controller);
+    public void dispatchPendingCalls() {
+        if (!this.hasPendingCalls()) return;
+        if (this.areAllElevatorsLocked()) {
+            Console.log(LogLevel.ERROR, "SCHEDULER", "ERROR: CALLED DISPATCH BUT ELEVATORS ARE LOCKED");
+            for (int floor = this.pendingUpCalls.nextSetBit(0); floor != -1; floor = this.pendingUpCalls.nextSetBit(floor + 1)) {
+                this.rejectPendingCall(ElevatorDirection.UP, floor);
+            }
+            for (int floor = this.pendingDownCalls.nextSetBit(0); floor != -1; floor = this.pendingDownCalls.nextSetBit(floor + 1)) {
+                this.rejectPendingCall(ElevatorDirection.DOWN, floor);
+            }
+            this.pendingUpCalls.clear();
+            this.pendingDownCalls.clear();
+            return;
         }
 
-        ArrayList<ElevatorController> classAElevators = findElevatorInClassA(unlockedElevators, requestElevatorDirection, requestFloor);
-        ArrayList<ElevatorController> idleElevators = findElevatorInIDLEMode(unlockedElevators);
-        classAElevators.addAll(idleElevators);
-        if (classAElevators.size() > 0) {
-            Console.log("SCHEDULER", "CLASS A OR IDLE");
-            return this.findClosestElevator(classAElevators, requestFloor);
+        int upCalls = this.pendingUpCalls.cardinality();
+        int[] callFloors = new int[upCalls + this.pendingDownCalls.cardinality()];
+        int call = 0;
+        for (int floor = this.pendingUpCalls.nextSetBit(0); floor != -1; floor = this.pendingUpCalls.nextSetBit(floor + 1)) callFloors[call++] = floor;
+        for (int floor = this.pendingDownCalls.nextSetBit(0); floor != -1; floor = this.pendingDownCalls.nextSetBit(floor + 1)) callFloors[call++] = floor;
+        this.pendingUpCalls.clear();
+        this.pendingDownCalls.clear();
+
+        int[] assignment = this.batchAssigner.assign(this.index, callFloors);
+        if (Console.isEnabled(LogLevel.DEBUG)) {
+            Console.log(LogLevel.DEBUG, "SCHEDULER", "BATCH OF " + callFloors.length + " CALLS SOLVED IN " + this.batchAssigner.getLastSolveNanos() / 1000 + " us");
         }
-
-        ArrayList<ElevatorController> classBElevators = findElevatorInClassB(unlockedElevators, requestElevatorDirection, requestFloor);
-        if (classBElevators.size() > 0) {
-            Console.log("SCHEDULER", "CLASS B");
-            return this.findFarthestElevator(classBElevators, requestFloor);
+        for (int i = 0; i < callFloors.length; i++) {
+            ElevatorDirection direction = i < upCalls ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+            this.assign(this.index.get(assignment[i]), direction, callFloors[i]);
         }
+    }
 
-        ArrayList<ElevatorController> classCElevators = findElevatorInClassC(unlockedElevators, requestElevatorDirection, requestFloor);
-        if (classCElevators.size() > 0) {
-            Console.log("SCHEDULER", "CLASS C");
-            return this.findClosestElevator(classCElevators, requestFloor);
-        }
+    private void rejectPendingCall(ElevatorDirection requestElevatorDirection, int requestFloor) {
+        if (this.journal != null) this.journal.record(JournalEventType.REJECTED, -1, requestFloor, requestElevatorDirection.ordinal());
+        if (this.callMetrics != null) this.callMetrics.recordHallCallsCleared(requestFloor, requestElevatorDirection);
+    }
 
-        ArrayList<ElevatorController> classDElevators = findElevatorInClassD(unlockedElevators, requestElevatorDirection, requestFloor);
-        if (classDElevators.size() > 0) {
-            Console.log("SCHEDULER", "CLASS D");
+    /**
+     * Add the request to the elevator and notify the listener
+     */
+    private void assign(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {
+        if (this.journal != null) this.journal.record(JournalEventType.ASSIGN, this.index.indexOf(elevator), requestFloor, requestElevatorDirection.ordinal());
+        elevator.externalRequest(requestFloor, requestElevatorDirection);
+        if (this.hallCallListener != null) this.hallCallListener.onHallCallAssigned(elevator, requestElevatorDirection, requestFloor);
+    }
 
-            return this.findFarthestElevator(classDElevators, requestFloor);
+    /**
+     * A full elevator has passed the floor: the call is kept to be dispatched again after the move.
+     * It is called during move(), from the worker threads when the elevators move in parallel: the bypass is
+     * then only written in the row of the elevator, and applied by applyDeferredBypasses after the move.
+     */
+    @Override
+    public void onHallCallBypassed(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {
+        int row = this.deferringBypasses ? this.index.indexOf(elevator) : -1;
+        if (row == -1) {
+            this.applyBypass(elevator, requestElevatorDirection, requestFloor);
+            return;
         }
-
-        Console.log("SCHEDULER", "GENERAL");
-        return unlockedElevators.get(0);
+        int[] bypasses = this.deferredBypasses[row];
+        int count = this.deferredBypassCounts[row];
+        if (bypasses == null || count == bypasses.length) {
+            bypasses = bypasses == null ? new int[4] : Arrays.copyOf(bypasses, count * 2);
+            this.deferredBypasses[row] = bypasses;
+        }
+        bypasses[count] = requestFloor * 2 + (requestElevatorDirection == ElevatorDirection.DOWN ? 1 : 0);
+        this.deferredBypassCounts[row] = count + 1;
     }
 
     /**
-     * Finding the Most optimal elevator for class A
-     * condition up: The elevator and request are UP and the elevator is BELOW the request floor.
-     * condition down: The elevator and request are DOWN and the elevator is ABOVE the request floor.
-     *
-     * @return ArrayList<ElevatorController>: list of all the elevators
+     * Apply the bypasses collected during a parallel move, in the order of the elevators: the journal,
+     * the listener and the calls dispatched again are the same as with a sequential move
      */
-    private ArrayList<ElevatorController> findElevatorInClassA(ArrayList<ElevatorController> elevatorControllers, ElevatorDirection requestElevatorDirection, int requestFloor) {
-        ArrayList<ElevatorController> optimalControllers = new ArrayList<>();
-        for (ElevatorController elevator : elevatorControllers) {
-            if (elevator.isIDLEMode()) continue;
-            boolean conditionUp = elevator.getDirection() == ElevatorDirection.UP && requestElevatorDirection == ElevatorDirection.UP && elevator.getCurrentFloor() <= requestFloor;
-            boolean conditionDown = elevator.getDirection() == ElevatorDirection.DOWN && requestElevatorDirection == ElevatorDirection.DOWN && elevator.getCurrentFloor() >= requestFloor;
-
-            if (conditionUp || conditionDown) optimalControllers.add(elevator);
+    private void applyDeferredBypasses() {
+        this.deferringBypasses = false;
+        for (int row = 0; row < this.deferredBypassCounts.length; row++) {
+            int count = this.deferredBypassCounts[row];
+            if (count == 0) continue;
+            this.deferredBypassCounts[row] = 0;
+            ElevatorController elevator = this.elevatorControllers.get(row);
+            for (int i = 0; i < count; i++) {
+                int bypass = this.deferredBypasses[row][i];
+                this.applyBypass(elevator, (bypass & 1) == 1 ? ElevatorDirection.DOWN : ElevatorDirection.UP, bypass >> 1);
+            }
         }
-        return optimalControllers;
+    }
+
+    private void applyBypass(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {
+        Console.event(LogLevel.INFO, LogEvent.CALL_BYPASSED, -1, requestFloor, requestElevatorDirection.ordinal());
+        if (this.journal != null) this.journal.record(JournalEventType.BYPASSED, this.index.indexOf(elevator), requestFloor, requestElevatorDirection.ordinal());
+        if (requestElevatorDirection == ElevatorDirection.DOWN) this.bypassedDownCalls.set(requestFloor);
+        else this.bypassedUpCalls.set(requestFloor);
+        this.bypassedCalls++;
+        if (this.hallCallListener != null) this.hallCallListener.onHallCallBypassed(elevator, requestElevatorDirection, requestFloor);
     }
 
     /**
-     * Finding the Most optimal elevator for class B
-     * Up condition: The elevator is going DOWN and request is to go UP, but the elevator is BELOW the request: it will reach bottom and then go up.
-     * Down condition: The elevator is going UP and request is to go DOWN, but the elevator is ABOVE the request: it will reach up and then go up.
-     *
-     * @return ArrayList<ElevatorController>: list of all the elevators
+     * Give the calls passed by full elevators to other elevators, as new requests.
+     * It must be called after the elevators have moved, never during a move.
      */
-    private ArrayList<ElevatorController> findElevatorInClassB(ArrayList<ElevatorController> elevatorControllers, ElevatorDirection requestElevatorDirection, int requestFloor) {
-        ArrayList<ElevatorController> optimalControllers = new ArrayList<>();
-        for (ElevatorController elevator : elevatorControllers) {
-            if (elevator.isIDLEMode()) continue;
-            boolean conditionUp = elevator.getDirection() == ElevatorDirection.DOWN && requestElevatorDirection == ElevatorDirection.UP && elevator.getCurrentFloor() <= requestFloor;
-            boolean conditionDown = elevator.getDirection() == ElevatorDirection.UP && requestElevatorDirection == ElevatorDirection.DOWN && elevator.getCurrentFloor() >= requestFloor;
-
-            if (conditionUp || conditionDown) optimalControllers.add(elevator);
+    public void redispatchBypassedCalls() {
+        if (!this.hasBypassedCalls()) return;
+        for (int floor = this.bypassedUpCalls.nextSetBit(0); floor != -1; floor = this.bypassedUpCalls.nextSetBit(floor + 1)) {
+            this.acceptRequestAndProcess(ElevatorDirection.UP, floor);
+        }
+        for (int floor = this.bypassedDownCalls.nextSetBit(0); floor != -1; floor = this.bypassedDownCalls.nextSetBit(floor + 1)) {
+            this.acceptRequestAndProcess(ElevatorDirection.DOWN, floor);
         }
-        return optimalControllers;
+        this.bypassedUpCalls.clear();
+        this.bypassedDownCalls.clear();
     }
 
     /**
-     * Finding the Most optimal elevator for class C
-     * Up condition: As same as class B, but in this case, the elevator will pass the floor,
-     * go up and then turn back and stop at the floor.
-     * Down condition: As same as class B, but in this case, the elevator will pass the floor,
-     * go down and then turn back and stop at the floor.
+     * Send an input from any thread: it is applied by the thread running the elevators at the start of the next run.
+     * The elevator is -1 for the hall calls and the locks.
      *
-     * @return ArrayList<ElevatorController>: list of all the elevators
+     * @return boolean: false if the queue of commands is full, the command is then dropped
      */
-    private ArrayList<ElevatorController> findElevatorInClassC(ArrayList<ElevatorController> elevatorControllers, ElevatorDirection requestElevatorDirection, int requestFloor) {
-        ArrayList<ElevatorController> optimalControllers = new ArrayList<>();
-        for (ElevatorController elevator : elevatorControllers) {
-            if (elevator.isIDLEMode()) continue;
-            boolean conditionUp = elevator.getDirection() == ElevatorDirection.UP && requestElevatorDirection == ElevatorDirection.DOWN && elevator.getCurrentFloor() <= requestFloor;
-            boolean conditionDown = elevator.getDirection() == ElevatorDirection.DOWN && requestElevatorDirection == ElevatorDirection.UP && elevator.getCurrentFloor() >= requestFloor;
-
-            if (conditionUp || conditionDown) optimalControllers.add(elevator);
-        }
-        return optimalControllers;
+    public boolean submit(CommandType type, int elevator, int floor) {
+        if (this.commandQueue.offer(type, elevator, floor)) return true;
+        Console.log(LogLevel.WARN, "SCHEDULER", "COMMAND QUEUE FULL: " + type + " DROPPED");
+        return false;
     }
 
     /**
-     * Finding the Most optimal elevator for class C
-     * <p>
-     * The condition up: the elevator has passed the floor.
-     * It will go up, change the direction and go all to down.
-     * Then, it will up and take the request.
-     * <p>
-     * Condition down: The elevator has passed the floor.
-     * It will go down, change the direction and go all the way up.
-     * Then, it will turn again and go down to take the request.
+     * Apply the commands submitted since the last call, on the thread running the elevators.
+     * run() does it on each tick, a SimulationEngine must do it between its events.
      *
-     * @return ArrayList<ElevatorController>: list of all the elevators
+     * @return int: the number of commands applied
      */
-    private ArrayList<ElevatorController> findElevatorInClassD(ArrayList<ElevatorController> elevatorControllers, ElevatorDirection requestElevatorDirection, int requestFloor) {
-        ArrayList<ElevatorController> optimalControllers = new ArrayList<>();
-        for (ElevatorController elevator : elevatorControllers) {
-            if (elevator.isIDLEMode()) continue;
-            boolean conditionUp = elevator.getDirection() == ElevatorDirection.UP && requestElevatorDirection == ElevatorDirection.UP && elevator.getCurrentFloor() >= requestFloor;
-            boolean conditionDown = elevator.getDirection() == ElevatorDirection.DOWN && requestElevatorDirection == ElevatorDirection.DOWN && elevator.getCurrentFloor() <= requestFloor;
-
-            if (conditionUp || conditionDown) optimalControllers.add(elevator);
-        }
-        return optimalControllers;
+    public int applyCommands() {
+        return this.commandQueue.drain(this);
     }
 
     /**
-     * Find an elevator in the IDLE mode
-
-     * @return ArrayList<ElevatorController>: list of all the elevators
+     * Apply a command of the queue, called by applyCommands()
      */
-    private ArrayList<ElevatorController> findElevatorInIDLEMode(ArrayList<ElevatorController> elevatorControllers) {
-        ArrayList<ElevatorController> optimalControllers = new ArrayList<>();
-        for (ElevatorController elevator : elevatorControllers) {
-            if (elevator.isIDLEMode()) optimalControllers.add(elevator);
+    @Override
+    public void onCommand(CommandType type, int elevator, int floor) {
+        switch (type) {
+            case HALL_CALL_UP, HALL_CALL_DOWN -> this.acceptRequestAndProcess(type == CommandType.HALL_CALL_UP ? ElevatorDirection.UP : ElevatorDirection.DOWN, floor);
+            case CAR_CALL, REQUEST -> {
+                if (elevator < 0 || elevator >= this.elevatorControllers.size()) {
+                    Console.log(LogLevel.ERROR, "SCHEDULER", "ERROR: COMMAND " + type + " FOR UNKNOWN ELEVATOR " + elevator);
+                    return;
+                }
+                if (type == CommandType.CAR_CALL) this.elevatorControllers.get(elevator).internalRequest(floor);
+                else this.elevatorControllers.get(elevator).addRequest(floor);
+            }
+            case FIRE_LOCK -> this.enableFireLock();
+            case FIRE_UNLOCK -> this.disableFireLock();
+            case GROUND_LOCK -> this.enableGroundLock();
+            case GROUND_UNLOCK -> this.disableGroundLock();
         }
-        return optimalControllers;
     }
 
-    /**
-     * Finding the closest elevator out of all the elevators found so far.
-     * <p>
-     * In the class A, the closest one is the one given by the absolute of the difference in floors.
-
-     * @return ElevatorController
-     *
-     * FOr: A
-     */
-    private ElevatorController findClosestElevator(ArrayList<ElevatorController> controllers, int requestFloor) {
-        int min = Math.abs(requestFloor-controllers.get(0).getCurrentFloor());
-        int minIndex = 0;
-        for (int i = 0; i < controllers.size(); i++) {
+    public CommandQueue getCommandQueue() {
+        return this.commandQueue;
+    }
 
-            if (Math.abs(requestFloor-controllers.get(i).getCurrentFloor()) < min) {
-                min = Math.abs(requestFloor-controllers.get(i).getCurrentFloor());
-                minIndex = i;
-            }
+    public boolean hasBypassedCalls() {
+        return !this.bypassedUpCalls.isEmpty() || !this.bypassedDownCalls.isEmpty();
+    }
 
-        }
-        return controllers.get(minIndex);
+    public boolean hasPendingCalls() {
+        return !this.pendingUpCalls.isEmpty() || !this.pendingDownCalls.isEmpty();
     }
 
     /**
-     * Finding the closest elevator out of all the elevators found so far.
+     * Find the most optimal elevator given the constraint of requestDirection and floor
      * <p>
-     * In the class B, the closest one is the one given by the sum of the floors.
-     * This is because:
-     *  if the user is above the elevator, wants to go up, but the elevator is going down, then it has to go
-     *  up again. The best one is the one nearest to the floor and going up. This will be the sum of the floors they are at.
-
-     * @return ElevatorController
-     *
-     * For B
-     */
-    private ElevatorController findFarthestElevator(ArrayList<ElevatorController> controllers, int requestFloor) {
-        int max = Math.abs(requestFloor-controllers.get(0).getCurrentFloor());
-        int maxIndex = 0;
-        for (int i = 0; i < controllers.size(); i++) {
-            if (Math.abs(requestFloor+controllers.get(i).getCurrentFloor()) > max) {
-                max = Math.abs(requestFloor-controllers.get(i).getCurrentFloor());
-                maxIndex = i;
-            }
-
-        }
-        return controllers.get(maxIndex);
+     * The choice is delegated to the dispatch policy. By default, it is the class A, B, C, D
+     * cascade described above.
+     */
+    private ElevatorController findOptimalElevator(ElevatorDirection requestElevatorDirection, int requestFloor) {
+        return this.dispatchPolicy.findOptimalElevator(this.index, requestElevatorDirection, requestFloor);
     }
 
     /**
      * Updater that runs all the elevators when called
+     * <p>
+     * With the batching enabled, the pending requests are assigned once the window is over.
+     * <p>
+     * With the parallelism enabled, the elevators move on several threads and the dispatch
+     * waits until all of them have moved. Otherwise, when the elevators are the rows of a state store,
+     * they are moved directly on the store.
+     * <p>
+     * The calls passed by the full elevators during the moves are then dispatched again.
+     * <p>
+     * The commands submitted since the last run are applied first, on the thread of the run.
      */
     public void run() {
-        for (ElevatorController controller : this.elevatorControllers) {
-            controller.move();
+        this.applyCommands();
+        if (this.parallelRunner != null) {
+            this.index.deferUpdates();
+            this.deferringBypasses = true;
+            this.parallelRunner.moveAll(this.elevatorControllers);
+            this.index.applyDeferredUpdates();
+            this.applyDeferredBypasses();
+        } else if (this.stateStore != null) {
+            this.stateStore.moveAll();
+        } else {
+            for (ElevatorController controller : this.elevatorControllers) {
+                controller.move();
+            }
+        }
+        this.redispatchBypassedCalls();
+        if (this.batchWindow > 0 && this.hasPendingCalls() && ++this.ticksSinceFirstPendingCall >= this.batchWindow) {
+            this.dispatchPendingCalls();
         }
     }
     /**
@@ -344,11 +493,8 @@ public class Scheduler {
      * Source: <a href="https://www.home-elevator.net/info-what-happens-to-elevator-during-fire.php">Resource</a>
      */
     // Checking if all the elevators have an emergency lock set on
-    private boolean areAllElevatorsLocked() {
-        for (ElevatorController controller: this.elevatorControllers) {
-            if (!controller.isLocked()) return false;
-        }
-        return true;
+    public boolean areAllElevatorsLocked() {
+        return this.index.areAllLocked();
     }
 
     /**
@@ -399,13 +545,139 @@ public class Scheduler {
         return this.fireLocked;
     }
 
+    /**
+     * Change the strategy used to choose the elevator for the hall calls
+     */
+    public void setDispatchPolicy(DispatchPolicy dispatchPolicy) {
+        this.dispatchPolicy = dispatchPolicy;
+    }
+
+    public DispatchPolicy getDispatchPolicy() {
+        return this.dispatchPolicy;
+    }
+
+    /**
+     * Move the elevators on the given number of threads in run(), 1 to move them sequentially.
+     * The result is the same for any number of threads.
+     */
+    public void setParallelism(int threads) {
+        if (this.parallelRunner != null) this.parallelRunner.shutdown();
+        this.parallelRunner = threads > 1 ? new ParallelElevatorRunner(threads) : null;
+    }
+
+    public int getParallelism() {
+        return this.parallelRunner == null ? 1 : this.parallelRunner.getThreads();
+    }
+
+    /**
+     * The index of the elevators used by the dispatch policies
+     */
+    public ElevatorIndex getElevatorIndex() {
+        return this.index;
+    }
+
+    public void setHallCallListener(HallCallListener hallCallListener) {
+        this.hallCallListener = hallCallListener;
+    }
+
+    public void setCallMetrics(CallMetrics callMetrics) {
+        this.callMetrics = callMetrics;
+    }
+
+    public CallMetrics getCallMetrics() {
+        return this.callMetrics;
+    }
+
+    /**
+     * Number of bytes written by writeSnapshot
+     */
+    public int getSnapshotBytes() {
+        return 2 + 2 * Integer.BYTES + Long.BYTES + 4 * this.snapshotWords() * Long.BYTES;
+    }
+
+    /**
+     * Write the state of the scheduler: the locks, the batching window with its pending calls and the calls
+     * bypassed by full elevators. The state of the elevators is written by the ElevatorStateStore.
+     */
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.put((byte) (this.groundLocked ? 1 : 0)).put((byte) (this.fireLocked ? 1 : 0));
+        buffer.putInt(this.batchWindow).putInt(this.ticksSinceFirstPendingCall).putLong(this.bypassedCalls);
+        for (BitSet calls : new BitSet[]{this.pendingUpCalls, this.pendingDownCalls, this.bypassedUpCalls, this.bypassedDownCalls}) {
+            long[] words = calls.toLongArray();
+            for (int i = 0; i < this.snapshotWords(); i++) buffer.putLong(i < words.length ? words[i] : 0);
+        }
+    }
+
+    public void readSnapshot(ByteBuffer buffer) {
+        this.groundLocked = buffer.get() == 1;
+        this.fireLocked = buffer.get() == 1;
+        this.batchWindow = buffer.getInt();
+        this.ticksSinceFirstPendingCall = buffer.getInt();
+        this.bypassedCalls = buffer.getLong();
+        for (BitSet calls : new BitSet[]{this.pendingUpCalls, this.pendingDownCalls, this.bypassedUpCalls, this.bypassedDownCalls}) {
+            long[] words = new long[this.snapshotWords()];
+            for (int i = 0; i < words.length; i++) words[i] = buffer.getLong();
+            calls.clear();
+            calls.or(BitSet.valueOf(words));
+        }
+    }
+
+    private int snapshotWords() {
+        return (this.totalFloors + 63) / 64;
+    }
+
+    public void setJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    public EventJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Enable the batching of the hall calls with a window of the given number of ticks, 0 to disable it.
+     * Disabling it assigns the calls still pending.
+     */
+    public void setBatchWindow(int batchWindow) {
+        this.batchWindow = batchWindow;
+        if (batchWindow == 0) this.dispatchPendingCalls();
+    }
+
+    public int getBatchWindow() {
+        return this.batchWindow;
+    }
+
+    /**
+     * Number of hall calls passed by a full elevator since the start
+     */
+    public long getBypassedCalls() {
+        return this.bypassedCalls;
+    }
+
+    /**
+     * Time taken to solve the last batch of calls, in nanoseconds
+     */
+    public long getLastBatchSolveNanos() {
+        return this.batchAssigner.getLastSolveNanos();
+    }
+
     /**
      * Send the elevator to the initial most optimal positions
      * Those they are the division of the elevators to the top most bottom elevator.
+     * <p>
+     * The elevators are spread at equal distance: the first one stays at the ground floor
+     * and the last one goes to the top floor.
      */
     public void sendElevatorsToOptimalPosition() {
-        this.elevatorControllers.get(1).addRequest(4);
-        this.elevatorControllers.get(2).addRequest(7);
+        int elevators = this.elevatorControllers.size();
+        for (int i = 1; i < elevators; i++) {
+            int floor = (int) Math.round(i * (this.totalFloors - 1) / (double) (elevators - 1));
+            this.elevatorControllers.get(i).addRequest(floor);
+        }
+    }
+
+    public int getTotalFloors() {
+        return this.totalFloors;
     }
 
 }
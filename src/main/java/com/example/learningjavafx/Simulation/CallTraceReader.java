@@ -0,0 +1,107 @@
+package com.example.learningjavafx.Simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replay of a trace written by CallTraceWriter, as a source of passengers for the SimulationEngine.
+ * <p>
+ * The file is memory-mapped by windows of DEFAULT_WINDOW_RECORDS records instead of being read into the heap:
+ * the operating system loads the pages when they are read, and a trace of several GB only costs the window
+ * being read. The next window is mapped when the previous one is finished.
+ * <p>
+ * The engine presses the hall call of each record at its time (acceptRequestAndProcess), and enters the destination
+ * (internalRequest) when the passenger boards. The times are replayed from the first record: the first call
+ * arrives at time 0 of the simulation.
+ */
+public class CallTraceReader implements PassengerSource, AutoCloseable {
+    /**
+     * 256 MB of records per mapping
+     */
+    private static final int DEFAULT_WINDOW_RECORDS = 1 << 24;
+
+    private final FileChannel channel;
+    private final int windowSize;
+    private final long records;
+    private final int totalFloors;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowRecords;
+    private long position;
+    private long firstTimestamp;
+
+    public CallTraceReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_RECORDS);
+    }
+
+    /**
+     * Reader mapping the given number of records at a time, small windows let the tests cross their boundaries
+     */
+    CallTraceReader(Path path, int windowSize) throws IOException {
+        if (windowSize <= 0) throw new IllegalArgumentException("The window must hold at least one record: " + windowSize);
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(CallTraceWriter.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (this.channel.read(header, header.position()) < 0) break;
+        }
+        if (header.hasRemaining() || header.getInt(0) != CallTraceWriter.MAGIC) throw new IOException("Not a call trace: " + path);
+        if (header.getInt(4) != CallTraceWriter.VERSION) throw new IOException("Unsupported version of call trace: " + header.getInt(4));
+        this.totalFloors = header.getInt(8);
+
+        long bytes = this.channel.size() - CallTraceWriter.HEADER_BYTES;
+        if (bytes % CallTraceWriter.RECORD_BYTES != 0) throw new IOException("Truncated call trace: " + path);
+        this.records = bytes / CallTraceWriter.RECORD_BYTES;
+        this.position = 0;
+        this.firstTimestamp = -1;
+    }
+
+    @Override
+    public Passenger next() {
+        if (this.position == this.records) return null;
+        if (this.window == null || this.position == this.windowStart + this.windowRecords) this.map(this.position);
+
+        int offset = (int) (this.position - this.windowStart) * CallTraceWriter.RECORD_BYTES;
+        long timestamp = this.window.getLong(offset);
+        int floor = this.window.getShort(offset + 8);
+        int destination = this.window.getShort(offset + 10);
+        this.position++;
+
+        if (this.firstTimestamp == -1) this.firstTimestamp = timestamp;
+        return new Passenger(floor, destination, timestamp - this.firstTimestamp);
+    }
+
+    /**
+     * Map the window starting at the given record
+     */
+    private void map(long record) {
+        this.windowStart = record;
+        this.windowRecords = (int) Math.min(this.windowSize, this.records - record);
+        try {
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, CallTraceWriter.HEADER_BYTES + record * CallTraceWriter.RECORD_BYTES, (long) this.windowRecords * CallTraceWriter.RECORD_BYTES);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        this.window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    /**
+     * GETTERS
+     */
+    public long getRecords() {return this.records;}
+    public int getTotalFloors() {return this.totalFloors;}
+    public long getPosition() {return this.position;}
+}
@@ -0,0 +1,89 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writer of the binary format of the recorded calls, read back by CallTraceReader.
+ * <p>
+ * A trace is a header followed by fixed-size records, all in little endian:
+ * - header (16 bytes): magic "ELVT", version, number of floors, reserved
+ * - record (16 bytes): timestamp in milliseconds (long), floor of the hall call (short), destination entered
+ *   inside the car (short), direction of the hall call (byte, ordinal of ElevatorDirection), 3 reserved bytes
+ * <p>
+ * The records are in increasing order of timestamp. As every record has the same size, the reader maps the file
+ * and finds record i at HEADER_BYTES + i * RECORD_BYTES without parsing anything.
+ */
+public class CallTraceWriter implements AutoCloseable {
+    public static final int MAGIC = 0x54564C45;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 16;
+    private static final int BUFFER_RECORDS = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long records;
+    private long lastTimestamp;
+    private int highestFloor;
+
+    public CallTraceWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.channel.position(HEADER_BYTES);
+        this.lastTimestamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * Add a passenger: the hall call at the floor, then the destination selected inside the car
+     */
+    public void write(long timestamp, int floor, ElevatorDirection direction, int destination) throws IOException {
+        if (timestamp < this.lastTimestamp) throw new IllegalArgumentException("The calls must be in increasing order of time");
+        if (floor < 0 || floor > Short.MAX_VALUE || destination < 0 || destination > Short.MAX_VALUE || floor == destination) {
+            throw new IllegalArgumentException("Invalid floors: " + floor + " to " + destination);
+        }
+        if (direction != (destination > floor ? ElevatorDirection.UP : ElevatorDirection.DOWN)) {
+            throw new IllegalArgumentException("The direction " + direction + " does not lead from " + floor + " to " + destination);
+        }
+
+        if (!this.buffer.hasRemaining()) this.flush();
+        this.buffer.putLong(timestamp);
+        this.buffer.putShort((short) floor);
+        this.buffer.putShort((short) destination);
+        this.buffer.put((byte) direction.ordinal());
+        this.buffer.put((byte) 0).put((byte) 0).put((byte) 0);
+
+        this.records++;
+        this.lastTimestamp = timestamp;
+        this.highestFloor = Math.max(this.highestFloor, Math.max(floor, destination));
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) this.channel.write(this.buffer);
+        this.buffer.clear();
+    }
+
+    /**
+     * Write the remaining records and the header, with the number of floors used by the calls
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.channel.isOpen()) return;
+        this.flush();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(this.highestFloor + 1).putInt(0).flip();
+        while (header.hasRemaining()) this.channel.write(header, header.position());
+        this.channel.close();
+    }
+
+    public long getRecords() {
+        return this.records;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Helpers.Console;
+import com.example.learningjavafx.Journal.EventJournal;
+import com.example.learningjavafx.Metrics.CallMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Entry point for running a building without the JavaFX application.
+ * <p>
+ * The class does not touch any JavaFX class, so it can be started from a plain classpath:
+ * java -cp target/classes com.example.learningjavafx.Simulation.HeadlessSimulation [floors] [elevators] [hours] [seed] [policy] [interarrival] [batch] [motion] [door] [load] [traffic] [journal]
+ * <p>
+ * Passengers are drawn by a TrafficGenerator with exponentially distributed interarrival times (in seconds, 30 by default),
+ * and the whole period is simulated as fast as possible.
+ * The policy is either "cascade" (default) or "eta".
+ * With a batch window greater than zero (in ticks), the hall calls are assigned together at the end of each window.
+ * The motion is either "tick" (default, one floor per tick) or "kinematic" (default MotionProfile).
+ * The door timings are given in ticks as opening,dwell,closing (2,3,3 by default).
+ * The load is the rated load of the cars in kg (1000 by default).
+ * The traffic is either "uniform" (default, random origin and destination) or one of the TrafficProfile
+ * ("up_peak", "down_peak", "lunch", "interfloor") with the lobby at the ground floor. The up-peak measures the
+ * handling capacity: the most passengers delivered in five minutes.
+ * The wait and journey times of the calls are also printed for the building and for each elevator, with the
+ * longest wait of a call still waiting at the end: a call is served when its last passenger boards.
+ * With a journal path, every change of the elevators is recorded in an EventJournal, to be read by the JournalReplayer.
+ * <p>
+ * To compare many runs of several configurations, use the SweepRunner. To replay recorded calls, use the TraceReplay.
+ */
+public class HeadlessSimulation {
+    public static void main(String[] args) throws IOException {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int elevators = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int hours = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        String policy = args.length > 4 ? args[4] : "cascade";
+        double interarrival = args.length > 5 ? Double.parseDouble(args[5]) : 30;
+        int batchWindow = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+        String motion = args.length > 7 ? args[7] : "tick";
+        String door = args.length > 8 ? args[8] : "2,3,3";
+        int ratedLoad = args.length > 9 ? Integer.parseInt(args[9]) : ElevatorStateStore.DEFAULT_RATED_LOAD;
+        String traffic = args.length > 10 ? args[10] : "uniform";
+        String journalPath = args.length > 11 ? args[11] : null;
+
+        SimulationScenario scenario = new SimulationScenario();
+        scenario.setFloors(floors);
+        scenario.setElevators(elevators);
+        scenario.setHours(hours);
+        scenario.setPolicy(policy);
+        scenario.setInterarrival(interarrival);
+        scenario.setBatchWindow(batchWindow);
+        scenario.setMotion(motion);
+        String[] doorTimings = door.split(",");
+        scenario.setDoorTimings(Integer.parseInt(doorTimings[0]), Integer.parseInt(doorTimings[1]), Integer.parseInt(doorTimings[2]));
+        scenario.setRatedLoad(ratedLoad);
+        scenario.setTraffic(traffic);
+
+        Console.setEnabled(false);
+        long start = System.nanoTime();
+        SimulationEngine engine = scenario.createEngine(seed);
+        CallMetrics callMetrics = engine.getBuilding().scheduler.getCallMetrics();
+        EventJournal journal = journalPath != null ? engine.getBuilding().enableJournal(Path.of(journalPath), engine::getClock) : null;
+        engine.runUntil(scenario.getDuration());
+        if (journal != null) journal.close();
+
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Simulated %d h (%d floors, %d elevators, %s policy, %s motion, %s traffic) in %.1f ms%n", hours, floors, elevators, policy, motion, traffic, elapsed / 1e6);
+        System.out.printf("Events: %d, served: %d, rejected: %d, door cycles: %d (%s ticks each)%n", engine.getProcessedEvents(),
+                engine.getServedPassengers(), engine.getRejectedPassengers(), engine.getDoorCycles(), door.replace(',', '+'));
+        System.out.printf("Average wait: %.1f s, p95 wait: %.1f s, max wait: %.1f s, average journey: %.1f s%n",
+                engine.getAverageWaitTime() / 1000, engine.getWaitTimePercentile(95) / 1000.0,
+                engine.getMaxWaitTime() / 1000.0, engine.getAverageJourneyTime() / 1000);
+        System.out.printf("Handling capacity: %d passengers in 5 min (%d kg cars), bypassed calls: %d, left behind: %d, input timeouts: %d%n",
+                engine.getHandlingCapacity(), ratedLoad, engine.getBypassedCalls(), engine.getLeftBehindPassengers(), callMetrics.getInputTimeouts());
+        System.out.printf("Call wait: %s, longest waiting call: %.1f s%n", callMetrics.getWaitTimes(), callMetrics.getLongestWaitingCall(engine.getClock()) / 1000.0);
+        System.out.println("Call journey: " + callMetrics.getJourneyTimes());
+        for (int car = 0; car < elevators; car++) {
+            System.out.printf("  elevator %d wait: %s, journey: %s%n", car, callMetrics.getCarWaitTimes(car), callMetrics.getCarJourneyTimes(car));
+        }
+        if (journal != null) System.out.printf("Journal: %d events written to %s%n", journal.getRecords(), journalPath);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.learningjavafx.Simulation;
+
+/**
+ * Jerk-limited motion of an elevator car between two floors.
+ * <p>
+ * A run from rest to rest has seven phases: the acceleration grows with the jerk, stays at the maximum,
+ * goes back to zero as the speed reaches its peak, the car cruises, then the same three phases in reverse
+ * to stop. On short runs the car does not reach the maximum speed (no cruise), and on very short ones
+ * not even the maximum acceleration. Everything is computed in closed form, so the time of a run of
+ * any length is known without stepping through the floors.
+ * <p>
+ * A car that left for a long run follows exactly the same curve as a car that left for a shorter one,
+ * until the shorter run starts to reduce its acceleration, or to brake if it cruises at the maximum speed
+ * (getCommitTime). Up to that moment the car can still stop at the closer floor, and it arrives there at
+ * the time of the shorter run.
+ * <p>
+ * Distances are in meters, times in seconds.
+ */
+public class MotionProfile {
+    /**
+     * Typical values for a mid-rise traction elevator
+     */
+    public static final double DEFAULT_MAX_SPEED = 2.5;
+    public static final double DEFAULT_ACCELERATION = 1.0;
+    public static final double DEFAULT_JERK = 1.5;
+    public static final double DEFAULT_FLOOR_HEIGHT = 3.5;
+
+    private final double maxSpeed;
+    private final double acceleration;
+    private final double jerk;
+    private final double floorHeight;
+
+    public MotionProfile() {
+        this(DEFAULT_MAX_SPEED, DEFAULT_ACCELERATION, DEFAULT_JERK, DEFAULT_FLOOR_HEIGHT);
+    }
+
+    public MotionProfile(double maxSpeed, double acceleration, double jerk, double floorHeight) {
+        if (maxSpeed <= 0 || acceleration <= 0 || jerk <= 0 || floorHeight <= 0) {
+            throw new IllegalArgumentException("Speed, acceleration, jerk and floor height must be positive");
+        }
+        this.maxSpeed = maxSpeed;
+        this.acceleration = acceleration;
+        this.jerk = jerk;
+        this.floorHeight = floorHeight;
+    }
+
+    /**
+     * Time of a run of the given number of floors, from rest to rest
+     */
+    public double getTravelTime(int floors) {
+        double[] phases = this.phases(floors * this.floorHeight);
+        return 2 * (2 * phases[0] + phases[1]) + phases[2];
+    }
+
+    /**
+     * Last moment of any longer run at which the car can still stop after the given number of floors:
+     * the moment the run of that length starts to brake if it reaches the maximum speed,
+     * otherwise the moment it starts to reduce its acceleration.
+     */
+    public double getCommitTime(int floors) {
+        double[] phases = this.phases(floors * this.floorHeight);
+        if (phases[3] == 1) return 2 * phases[0] + phases[1] + phases[2];
+        return phases[0] + phases[1];
+    }
+
+    /**
+     * Distance covered (in floors) after the given time of a run of the given number of floors
+     */
+    public double getPosition(int floors, double time) {
+        double[] phases = this.phases(floors * this.floorHeight);
+        double[] durations = {phases[0], phases[1], phases[0], phases[2], phases[0], phases[1], phases[0]};
+        double[] jerks = {this.jerk, 0, -this.jerk, 0, -this.jerk, 0, this.jerk};
+
+        double position = 0;
+        double speed = 0;
+        double acceleration = 0;
+        for (int i = 0; i < durations.length && time > 0; i++) {
+            double t = Math.min(time, durations[i]);
+            position += speed * t + acceleration * t * t / 2 + jerks[i] * t * t * t / 6;
+            speed += acceleration * t + jerks[i] * t * t / 2;
+            acceleration += jerks[i] * t;
+            time -= t;
+        }
+        return Math.min(floors, position / this.floorHeight);
+    }
+
+    /**
+     * Durations of the phases of a run of the given distance:
+     * [time with jerk, time at constant acceleration, time cruising, 1 if the maximum speed is reached]
+     */
+    private double[] phases(double distance) {
+        if (distance <= 0) return new double[]{0, 0, 0, 0};
+        double a = this.acceleration;
+        double j = this.jerk;
+
+        double peakSpeed;
+        if (distance >= this.stoppingDistance(this.maxSpeed) * 2) {
+            peakSpeed = this.maxSpeed;
+        } else if (distance >= 2 * a * a * a / (j * j)) {
+            // The maximum acceleration is reached: distance = v * (v / a + a / j)
+            peakSpeed = a / 2 * (-a / j + Math.sqrt(a * a / (j * j) + 4 * distance / a));
+        } else {
+            // Only jerk phases: distance = 2 * j * t^3 and v = j * t^2
+            double t = Math.cbrt(distance / (2 * j));
+            peakSpeed = j * t * t;
+        }
+
+        double peakAcceleration = Math.min(a, Math.sqrt(peakSpeed * j));
+        double jerkTime = peakAcceleration / j;
+        double accelerationTime = peakSpeed / peakAcceleration - jerkTime;
+        double cruiseTime = (distance - 2 * this.stoppingDistance(peakSpeed)) / peakSpeed;
+        return new double[]{jerkTime, Math.max(0, accelerationTime), Math.max(0, cruiseTime), peakSpeed == this.maxSpeed ? 1 : 0};
+    }
+
+    /**
+     * Distance to go from the given speed to rest (or from rest to the speed)
+     */
+    private double stoppingDistance(double speed) {
+        double a = this.acceleration;
+        double j = this.jerk;
+        if (speed >= a * a / j) return speed * (speed / a + a / j) / 2;
+        return speed * Math.sqrt(speed / j);
+    }
+
+    /**
+     * GETTERS
+     */
+    public double getMaxSpeed() {return this.maxSpeed;}
+    public double getAcceleration() {return this.acceleration;}
+    public double getJerk() {return this.jerk;}
+    public double getFloorHeight() {return this.floorHeight;}
+}
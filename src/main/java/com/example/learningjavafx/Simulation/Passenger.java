@@ -0,0 +1,64 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+/**
+ * A single passenger of the headless simulation.
+ * <p>
+ * The passenger presses the hall button at the origin floor, waits for the assigned elevator,
+ * enters the destination floor once inside and leaves when the elevator stops there.
+ * All the times are in milliseconds of simulated time, -1 until the event has happened.
+ */
+public class Passenger {
+    private final int origin;
+    private final int destination;
+    private final long arrivalTime;
+
+    private int elevatorIndex;
+    private long boardingTime;
+    private long alightingTime;
+
+    public Passenger(int origin, int destination, long arrivalTime) {
+        this.origin = origin;
+        this.destination = destination;
+        this.arrivalTime = arrivalTime;
+        this.elevatorIndex = -1;
+        this.boardingTime = -1;
+        this.alightingTime = -1;
+    }
+
+    /**
+     * The direction of the hall button pressed by the passenger
+     */
+    public ElevatorDirection getDirection() {
+        return this.destination > this.origin ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+    }
+
+    /**
+     * Time spent on the floor before the elevator picked the passenger up
+     */
+    public long getWaitTime() {
+        return this.boardingTime - this.arrivalTime;
+    }
+
+    /**
+     * Time from pressing the hall button to leaving the elevator at the destination
+     */
+    public long getJourneyTime() {
+        return this.alightingTime - this.arrivalTime;
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public int getOrigin() {return this.origin;}
+    public int getDestination() {return this.destination;}
+    public long getArrivalTime() {return this.arrivalTime;}
+    public int getElevatorIndex() {return this.elevatorIndex;}
+    public long getBoardingTime() {return this.boardingTime;}
+    public long getAlightingTime() {return this.alightingTime;}
+
+    public void setElevatorIndex(int elevatorIndex) {this.elevatorIndex = elevatorIndex;}
+    public void setBoardingTime(long boardingTime) {this.boardingTime = boardingTime;}
+    public void setAlightingTime(long alightingTime) {this.alightingTime = alightingTime;}
+}
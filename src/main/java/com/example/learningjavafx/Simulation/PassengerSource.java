@@ -0,0 +1,14 @@
+package com.example.learningjavafx.Simulation;
+
+/**
+ * Stream of passengers for the SimulationEngine, in increasing order of arrival time.
+ * <p>
+ * The engine asks for the next passenger only when the previous one arrives, so a source can produce
+ * any number of passengers without keeping them in memory.
+ */
+public interface PassengerSource {
+    /**
+     * The next passenger, null when there are no more passengers
+     */
+    Passenger next();
+}
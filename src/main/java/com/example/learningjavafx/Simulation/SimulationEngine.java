@@ -0,0 +1,765 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Dispatch.HallCallListener;
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Enumerations.SimulationEventType;
+import com.example.learningjavafx.Metrics.CallMetrics;
+import com.example.learningjavafx.Metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * Headless discrete-event engine for a building.
+ * <p>
+ * In the application, the building is advanced by the Timeline KeyFrame every second, so simulating
+ * one hour of traffic takes one hour. The engine instead keeps a virtual clock and a priority queue of
+ * timestamped events: the clock jumps directly from one event to the next one.
+ * <p>
+ * There are three kinds of events:
+ * - PASSENGER_ARRIVAL: the passenger presses the hall button and the scheduler picks an elevator
+ * - ELEVATOR_MOVE: the elevator calls move() once, as Scheduler.run() does on each KeyFrame
+ * - BATCH_DISPATCH: when the scheduler batches the hall calls, the end of the batching window
+ * <p>
+ * The passengers are either scheduled one by one with schedulePassenger, or read from a PassengerSource
+ * (a TrafficGenerator or a recorded CallTraceReader): only the next passenger of the source is in the queue
+ * (TRAFFIC_ARRIVAL), the following one is read when it arrives.
+ * <p>
+ * An elevator that has nothing to do does not schedule its next move, so an empty building costs nothing.
+ * It is woken up again as soon as the scheduler assigns it a new request.
+ * <p>
+ * The engine also plays the role of the passengers: when an elevator is waiting for the user input
+ * at a floor and its door is open, the passengers waiting for it enter their destination with internalRequest.
+ * The door cycle of each stop is part of the ticks of the elevator, so it is included in the wait and journey times.
+ * The passengers wait at the hall until the scheduler tells which elevator took their call.
+ * <p>
+ * By default an elevator moves one floor per tick, whatever the length of its run. With a MotionProfile,
+ * the run from one stop to the next one is a single ELEVATOR_ARRIVAL event, at the time given by the
+ * profile for that distance. While the car runs, the controller is placed at the first floor where the
+ * car can still stop, so the scheduler puts the requests it cannot stop for behind it. A request assigned
+ * between that floor and the end of the run becomes the new end of the run.
+ * <p>
+ * The passengers board while the car has room. Those who cannot board go back to the hall and their call
+ * is given again to the scheduler, as are the calls a full car passes without stopping. The number of
+ * passengers delivered in the busiest window (getHandlingCapacity) measures what the cars can carry.
+ * <p>
+ * The wait times of the served passengers are counted in a LatencyHistogram and only the alighting times of the
+ * last window of the handling capacity are kept, so the statistics do not grow with the passengers served.
+ * <p>
+ * A snapshot holds the building, the queue of events, the passengers and the statistics: a long run can be saved
+ * periodically and continued later, and several experiments (another policy, another traffic) can start from the
+ * same warm state. The configuration (tick, motion profile, policy) and the call metrics are not in the snapshot.
+ */
+public class SimulationEngine implements HallCallListener {
+    /**
+     * Simulated duration of one elevator move, same as the KeyFrame of the application
+     */
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+    /**
+     * Window of the handling capacity: five minutes (HC5)
+     */
+    public static final long HANDLING_CAPACITY_MILLIS = 5 * 60_000L;
+    /**
+     * Size of a passenger in a snapshot: origin, destination, arrival, elevator, boarding and alighting times
+     */
+    private static final int PASSENGER_BYTES = 3 * Integer.BYTES + 3 * Long.BYTES;
+
+    private final Building building;
+    private final long tickMillis;
+    /**
+     * Motion of the cars between the stops, null to move one floor per tick
+     */
+    private MotionProfile motionProfile;
+    /**
+     * Source of the passengers, null if they are all scheduled with schedulePassenger
+     */
+    private PassengerSource passengerSource;
+    /**
+     * Passengers read from the source, skipped when a snapshot is restored
+     */
+    private long sourcePassengers;
+
+    /**
+     * Pending events ordered by time, then by insertion order
+     */
+    private final PriorityQueue<SimulationEvent> events;
+    private long sequence;
+    /**
+     * Virtual clock in milliseconds
+     */
+    private long clock;
+
+    /**
+     * Index of each elevator in the building, to go back from the scheduler choice to the passengers lists
+     */
+    private final HashMap<ElevatorController, Integer> elevatorIndexes;
+    /**
+     * For each elevator, whether its next ELEVATOR_MOVE is already in the queue
+     */
+    private final boolean[] moveScheduled;
+    /**
+     * Passengers whose hall call has not been assigned yet, for each floor and direction (index floor * 2 + direction)
+     */
+    private final ArrayList<ArrayList<Passenger>> hallPassengers;
+    private boolean batchDispatchScheduled;
+    /**
+     * For each elevator, the passengers assigned to it and still waiting on their floor
+     */
+    private final ArrayList<ArrayList<Passenger>> waitingPassengers;
+    /**
+     * For each elevator, the passengers inside it
+     */
+    private final ArrayList<ArrayList<Passenger>> ridingPassengers;
+    /**
+     * Passengers on each floor and direction who have not boarded yet, at the hall or assigned to an elevator
+     */
+    private final int[] floorPassengers;
+
+    /**
+     * Current run of each elevator with a motion profile: departure floor and time, floor where it ends,
+     * and sequence of its ELEVATOR_ARRIVAL event (the events of the previous ends of the run are ignored)
+     */
+    private final BitSet runningElevators;
+    private final int[] runFrom;
+    private final int[] runTarget;
+    private final long[] runStart;
+    private final long[] runArrivalSequence;
+
+    private long servedPassengers;
+    private long rejectedPassengers;
+    private long totalJourneyTime;
+    private long processedEvents;
+    /**
+     * Wait times of the served passengers: average, percentiles and maximum
+     */
+    private final LatencyHistogram waitTimes;
+    /**
+     * Times at which the passengers left the car during the last HANDLING_CAPACITY_MILLIS, oldest first from
+     * alightStart: the ring only grows with the passengers delivered in one window, not with the run
+     */
+    private long[] alightTimes;
+    private int alightStart;
+    private int alightCount;
+    private int handlingCapacity;
+    private long leftBehindPassengers;
+
+    public SimulationEngine(Building building) {
+        this(building, DEFAULT_TICK_MILLIS);
+    }
+
+    public SimulationEngine(Building building, long tickMillis) {
+        this.building = building;
+        this.tickMillis = tickMillis;
+        this.events = new PriorityQueue<>();
+        this.sequence = 0;
+        this.clock = 0;
+        this.waitTimes = new LatencyHistogram(CallMetrics.DEFAULT_HIGHEST_TRACKABLE_MILLIS);
+        this.alightTimes = new long[64];
+
+        int totalElevators = building.elevators.size();
+        this.elevatorIndexes = new HashMap<>();
+        this.moveScheduled = new boolean[totalElevators];
+        this.runningElevators = new BitSet(totalElevators);
+        this.runFrom = new int[totalElevators];
+        this.runTarget = new int[totalElevators];
+        this.runStart = new long[totalElevators];
+        this.runArrivalSequence = new long[totalElevators];
+        this.waitingPassengers = new ArrayList<>();
+        this.ridingPassengers = new ArrayList<>();
+        for (int i = 0; i < totalElevators; i++) {
+            this.elevatorIndexes.put(building.elevators.get(i), i);
+            this.waitingPassengers.add(new ArrayList<>());
+            this.ridingPassengers.add(new ArrayList<>());
+        }
+        this.hallPassengers = new ArrayList<>();
+        for (int i = 0; i < building.getTotalFloors() * 2; i++) this.hallPassengers.add(new ArrayList<>());
+        this.floorPassengers = new int[building.getTotalFloors() * 2];
+
+        building.scheduler.setHallCallListener(this);
+    }
+
+    /**
+     * Add a passenger pressing the hall button at the origin floor at the given time
+     */
+    public void schedulePassenger(long time, int origin, int destination) {
+        this.schedule(time, SimulationEventType.PASSENGER_ARRIVAL, -1, new Passenger(origin, destination, time));
+    }
+
+    /**
+     * Read the passengers from the source, until it has no more passengers
+     */
+    public void setPassengerSource(PassengerSource passengerSource) {
+        this.passengerSource = passengerSource;
+        this.scheduleNextTrafficArrival();
+    }
+
+    private void scheduleNextTrafficArrival() {
+        if (this.passengerSource == null) return;
+        Passenger passenger = this.passengerSource.next();
+        if (passenger == null) return;
+        this.sourcePassengers++;
+        this.schedule(passenger.getArrivalTime(), SimulationEventType.TRAFFIC_ARRIVAL, -1, passenger);
+    }
+
+    /**
+     * Process all the events up to the given time (included) and move the clock there.
+     */
+    public void runUntil(long endTime) {
+        while (!this.events.isEmpty() && this.events.peek().getTime() <= endTime) {
+            SimulationEvent event = this.events.poll();
+            this.clock = event.getTime();
+            this.processedEvents++;
+
+            switch (event.getType()) {
+                case PASSENGER_ARRIVAL -> this.handlePassengerArrival(event.getPassenger());
+                case ELEVATOR_MOVE -> this.handleElevatorMove(event.getElevatorIndex());
+                case BATCH_DISPATCH -> this.handleBatchDispatch();
+                case ELEVATOR_ARRIVAL -> this.handleElevatorArrival(event);
+                case TRAFFIC_ARRIVAL -> {
+                    this.handlePassengerArrival(event.getPassenger());
+                    this.scheduleNextTrafficArrival();
+                }
+            }
+        }
+        this.clock = Math.max(this.clock, endTime);
+    }
+
+    /**
+     * The passenger presses the hall button and waits at the hall until the scheduler assigns the call.
+     * With the batching, the end of the window is scheduled with the first pending call.
+     */
+    private void handlePassengerArrival(Passenger passenger) {
+        if (this.building.scheduler.areAllElevatorsLocked()) {
+            this.rejectedPassengers++;
+            return;
+        }
+        this.hallPassengers.get(hallIndex(passenger.getOrigin(), passenger.getDirection())).add(passenger);
+        this.floorPassengers[hallIndex(passenger.getOrigin(), passenger.getDirection())]++;
+        this.updateRunningElevators();
+        this.building.scheduler.acceptRequestAndProcess(passenger.getDirection(), passenger.getOrigin());
+        this.scheduleBatchDispatch();
+    }
+
+    private void scheduleBatchDispatch() {
+        if (this.building.scheduler.hasPendingCalls() && !this.batchDispatchScheduled) {
+            this.batchDispatchScheduled = true;
+            this.schedule(this.clock + this.building.scheduler.getBatchWindow() * this.tickMillis, SimulationEventType.BATCH_DISPATCH, -1, null);
+        }
+    }
+
+    private void handleBatchDispatch() {
+        this.batchDispatchScheduled = false;
+        this.updateRunningElevators();
+        this.building.scheduler.dispatchPendingCalls();
+    }
+
+    /**
+     * The call has been assigned: the passengers at the hall now wait for that elevator,
+     * which is woken up if it was not moving.
+     */
+    @Override
+    public void onHallCallAssigned(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {
+        int index = this.elevatorIndexes.get(elevator);
+        ArrayList<Passenger> hall = this.hallPassengers.get(hallIndex(requestFloor, requestElevatorDirection));
+        for (Passenger passenger : hall) {
+            passenger.setElevatorIndex(index);
+            this.waitingPassengers.get(index).add(passenger);
+        }
+        hall.clear();
+
+        if (this.runningElevators.get(index)) this.shortenRun(index, requestFloor);
+        else this.scheduleMove(index);
+    }
+
+    /**
+     * The elevator is full and passed the floor: its passengers there go back to the hall,
+     * until the scheduler gives the call to another elevator after the move.
+     */
+    @Override
+    public void onHallCallBypassed(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {
+        ArrayList<Passenger> hall = this.hallPassengers.get(hallIndex(requestFloor, requestElevatorDirection));
+        Iterator<Passenger> iterator = this.waitingPassengers.get(this.elevatorIndexes.get(elevator)).iterator();
+        while (iterator.hasNext()) {
+            Passenger passenger = iterator.next();
+            if (passenger.getOrigin() != requestFloor || passenger.getDirection() != requestElevatorDirection) continue;
+
+            iterator.remove();
+            passenger.setElevatorIndex(-1);
+            hall.add(passenger);
+        }
+    }
+
+    /**
+     * Wake up the elevators given requests outside of the engine (addRequest or internalRequest, for instance
+     * from the commands of the application): the next move of each elevator with something to do is scheduled.
+     */
+    public void wakeElevators() {
+        for (int index = 0; index < this.moveScheduled.length; index++) {
+            ElevatorController elevator = this.building.elevators.get(index);
+            if (!elevator.isIDLEMode() || elevator.hasToWaitUserInput() || elevator.getDoorStatus() != DoorStatus.CLOSE) {
+                this.scheduleMove(index);
+            }
+        }
+    }
+
+    private static int hallIndex(int floor, ElevatorDirection direction) {
+        return floor * 2 + (direction == ElevatorDirection.DOWN ? 1 : 0);
+    }
+
+    /**
+     * One step of the elevator:
+     * - if it is waiting for the user input with the door open, the passengers on the floor enter and select their destination
+     * - move the elevator
+     * - the passengers whose destination has been served leave
+     * - the calls the elevator could not take are given again to the scheduler
+     * <p>
+     * The next move is scheduled only if the elevator still has something to do.
+     */
+    private void handleElevatorMove(int index) {
+        this.moveScheduled[index] = false;
+        ElevatorController elevator = this.building.elevators.get(index);
+
+        int leftBehind = 0;
+        if (elevator.hasToWaitUserInput() && elevator.getDoorStatus() == DoorStatus.OPEN) leftBehind = this.boardPassengers(index, elevator);
+        int floor = elevator.getCurrentFloor();
+        elevator.move();
+        if (this.motionProfile != null && elevator.getCurrentFloor() != floor) {
+            this.startRun(index, elevator, floor);
+        } else {
+            this.alightPassengers(index, elevator);
+            if (!elevator.isIDLEMode() || elevator.hasToWaitUserInput() || elevator.getDoorStatus() != DoorStatus.CLOSE
+                    || !this.waitingPassengers.get(index).isEmpty()) {
+                this.scheduleMove(index);
+            }
+        }
+        this.redispatchCalls(floor, leftBehind);
+    }
+
+    /**
+     * The passengers on the floor enter while the car has room, the others go back to the hall.
+     * The call metrics are told before the door can close which calls of the floor still have passengers waiting:
+     * these calls keep waiting from their first press.
+     *
+     * @return int: the directions of the passengers left behind, 1 for UP and 2 for DOWN
+     */
+    private int boardPassengers(int index, ElevatorController elevator) {
+        int floor = elevator.getCurrentFloor();
+        int leftBehind = 0;
+        Iterator<Passenger> iterator = this.waitingPassengers.get(index).iterator();
+        while (iterator.hasNext()) {
+            Passenger passenger = iterator.next();
+            if (passenger.getOrigin() != floor) continue;
+
+            iterator.remove();
+            if (!elevator.boardPassenger()) {
+                passenger.setElevatorIndex(-1);
+                this.hallPassengers.get(hallIndex(floor, passenger.getDirection())).add(passenger);
+                leftBehind |= passenger.getDirection() == ElevatorDirection.DOWN ? 2 : 1;
+                this.leftBehindPassengers++;
+                continue;
+            }
+            passenger.setBoardingTime(this.clock);
+            this.floorPassengers[hallIndex(floor, passenger.getDirection())]--;
+            this.ridingPassengers.get(index).add(passenger);
+            elevator.internalRequest(passenger.getDestination());
+        }
+        CallMetrics callMetrics = this.building.scheduler.getCallMetrics();
+        if (callMetrics != null) {
+            long up = this.firstWaitingArrival(floor, ElevatorDirection.UP);
+            if (up != -1) callMetrics.recordPassengersStillWaiting(index, ElevatorDirection.UP, up);
+            long down = this.firstWaitingArrival(floor, ElevatorDirection.DOWN);
+            if (down != -1) callMetrics.recordPassengersStillWaiting(index, ElevatorDirection.DOWN, down);
+        }
+        return leftBehind;
+    }
+
+    /**
+     * Arrival of the first passenger of the floor and direction who has not boarded yet, at the hall or waiting
+     * for an elevator, -1 if there is none
+     */
+    private long firstWaitingArrival(int floor, ElevatorDirection direction) {
+        int hallIndex = hallIndex(floor, direction);
+        if (this.floorPassengers[hallIndex] == 0) return -1;
+        long first = Long.MAX_VALUE;
+        for (Passenger passenger : this.hallPassengers.get(hallIndex)) first = Math.min(first, passenger.getArrivalTime());
+        for (ArrayList<Passenger> waiting : this.waitingPassengers) {
+            for (Passenger passenger : waiting) {
+                if (passenger.getOrigin() == floor && passenger.getDirection() == direction) first = Math.min(first, passenger.getArrivalTime());
+            }
+        }
+        return first;
+    }
+
+    /**
+     * The calls passed by full elevators during the move, and the calls of the passengers left behind
+     * at the floor, are new requests for the scheduler
+     */
+    private void redispatchCalls(int floor, int leftBehind) {
+        if (leftBehind == 0 && !this.building.scheduler.hasBypassedCalls()) return;
+        this.updateRunningElevators();
+        this.building.scheduler.redispatchBypassedCalls();
+        if ((leftBehind & 1) != 0) this.building.scheduler.acceptRequestAndProcess(ElevatorDirection.UP, floor);
+        if ((leftBehind & 2) != 0) this.building.scheduler.acceptRequestAndProcess(ElevatorDirection.DOWN, floor);
+        this.scheduleBatchDispatch();
+    }
+
+    /**
+     * A passenger leaves when the elevator is at the destination floor and the floor is no longer
+     * in the queues: the stop has been processed.
+     */
+    private void alightPassengers(int index, ElevatorController elevator) {
+        int floor = elevator.getCurrentFloor();
+        if (elevator.getUpQueue().contains(floor) || elevator.getDownQueue().contains(floor)) return;
+
+        Iterator<Passenger> iterator = this.ridingPassengers.get(index).iterator();
+        while (iterator.hasNext()) {
+            Passenger passenger = iterator.next();
+            if (passenger.getDestination() != floor) continue;
+
+            iterator.remove();
+            elevator.alightPassenger();
+            passenger.setAlightingTime(this.clock);
+            this.waitTimes.record(passenger.getWaitTime());
+            this.recordAlighting(this.clock);
+            this.servedPassengers++;
+            this.totalJourneyTime += passenger.getJourneyTime();
+        }
+    }
+
+    /**
+     * Keep the alighting times of the last HANDLING_CAPACITY_MILLIS, and the most passengers they have counted
+     */
+    private void recordAlighting(long time) {
+        while (this.alightCount > 0 && time - this.alightTimes[this.alightStart] >= HANDLING_CAPACITY_MILLIS) {
+            this.alightStart = (this.alightStart + 1) % this.alightTimes.length;
+            this.alightCount--;
+        }
+        if (this.alightCount == this.alightTimes.length) {
+            long[] alightTimes = new long[this.alightTimes.length * 2];
+            for (int i = 0; i < this.alightCount; i++) alightTimes[i] = this.alightTimes[(this.alightStart + i) % this.alightTimes.length];
+            this.alightTimes = alightTimes;
+            this.alightStart = 0;
+        }
+        this.alightTimes[(this.alightStart + this.alightCount) % this.alightTimes.length] = time;
+        this.alightCount++;
+        this.handlingCapacity = Math.max(this.handlingCapacity, this.alightCount);
+    }
+
+    /**
+     * RUNS WITH A MOTION PROFILE
+     */
+
+    /**
+     * The elevator has left the floor: the run ends at the next stop of its queue, or at the floor it has
+     * moved to if a passenger waits for it there.
+     */
+    private void startRun(int index, ElevatorController elevator, int fromFloor) {
+        int target = elevator.getCurrentFloor();
+        if (!elevator.hasToWaitUserInput() && elevator.getCurrentQueue().peek() != -1) target = elevator.getCurrentQueue().peek();
+
+        this.runningElevators.set(index);
+        this.runFrom[index] = fromFloor;
+        this.runTarget[index] = target;
+        this.runStart[index] = this.clock;
+        this.scheduleArrival(index);
+    }
+
+    /**
+     * The request is on the way and the car can still stop there: the run ends at the request.
+     * The car arrives at the time of a run planned for that floor from the start.
+     */
+    private void shortenRun(int index, int requestFloor) {
+        int committed = this.building.elevators.get(index).getCurrentFloor();
+        int target = this.runTarget[index];
+        boolean up = target > this.runFrom[index];
+        if (up ? requestFloor >= committed && requestFloor < target : requestFloor <= committed && requestFloor > target) {
+            this.runTarget[index] = requestFloor;
+            this.scheduleArrival(index);
+        }
+    }
+
+    private void scheduleArrival(int index) {
+        int floors = Math.abs(this.runTarget[index] - this.runFrom[index]);
+        long arrival = this.runStart[index] + Math.round(this.motionProfile.getTravelTime(floors) * 1000);
+        this.runArrivalSequence[index] = this.sequence;
+        this.schedule(arrival, SimulationEventType.ELEVATOR_ARRIVAL, index, null);
+    }
+
+    /**
+     * The run is over: the elevator is at the floor and processes it on the next tick, as it would after
+     * moving there floor by floor.
+     */
+    private void handleElevatorArrival(SimulationEvent event) {
+        int index = event.getElevatorIndex();
+        if (!this.runningElevators.get(index) || event.getSequence() != this.runArrivalSequence[index]) return;
+
+        this.runningElevators.clear(index);
+        this.building.elevators.get(index).setElevatorFloor(this.runTarget[index]);
+        this.scheduleMove(index);
+    }
+
+    /**
+     * Place every running elevator at the first floor where it can still stop, before the scheduler chooses
+     */
+    private void updateRunningElevators() {
+        for (int index = this.runningElevators.nextSetBit(0); index != -1; index = this.runningElevators.nextSetBit(index + 1)) {
+            int floor = this.committedFloor(index);
+            ElevatorController elevator = this.building.elevators.get(index);
+            if (elevator.getCurrentFloor() != floor) elevator.setElevatorFloor(floor);
+        }
+    }
+
+    /**
+     * First floor of the run where the car can still stop, found by binary search on the commit time
+     */
+    private int committedFloor(int index) {
+        double elapsed = (this.clock - this.runStart[index]) / 1000.0;
+        int from = this.runFrom[index];
+        int floors = Math.abs(this.runTarget[index] - from);
+        int low = 1;
+        int high = floors;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (elapsed <= this.motionProfile.getCommitTime(middle)) high = middle;
+            else low = middle + 1;
+        }
+        return this.runTarget[index] > from ? from + low : from - low;
+    }
+
+    private void scheduleMove(int index) {
+        if (this.moveScheduled[index] || this.runningElevators.get(index)) return;
+        this.moveScheduled[index] = true;
+        this.schedule(this.clock + this.tickMillis, SimulationEventType.ELEVATOR_MOVE, index, null);
+    }
+
+    private void schedule(long time, SimulationEventType type, int elevatorIndex, Passenger passenger) {
+        this.events.add(new SimulationEvent(time, this.sequence++, type, elevatorIndex, passenger));
+    }
+
+    /**
+     * SNAPSHOT
+     */
+
+    /**
+     * Copy the state of the building and of the engine, in little endian: the building snapshot, then the engine
+     */
+    public ByteBuffer snapshot() {
+        int passengers = 0;
+        for (SimulationEvent event : this.events) if (event.getPassenger() != null) passengers++;
+        for (ArrayList<Passenger> list : this.hallPassengers) passengers += list.size();
+        for (ArrayList<Passenger> list : this.waitingPassengers) passengers += list.size();
+        for (ArrayList<Passenger> list : this.ridingPassengers) passengers += list.size();
+        int lists = this.hallPassengers.size() + this.waitingPassengers.size() + this.ridingPassengers.size();
+        int bytes = this.building.getSnapshotBytes() + 8 * Long.BYTES + 1 + this.moveScheduled.length * (2 + 2 * Integer.BYTES + 2 * Long.BYTES)
+                + this.waitTimes.getSnapshotBytes() + 2 * Integer.BYTES + this.alightCount * Long.BYTES
+                + Integer.BYTES + this.events.size() * (2 * Long.BYTES + 2 + Integer.BYTES) + lists * Integer.BYTES + passengers * PASSENGER_BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        this.building.writeSnapshot(buffer);
+        buffer.putLong(this.clock).putLong(this.sequence).putLong(this.processedEvents).putLong(this.servedPassengers)
+                .putLong(this.rejectedPassengers).putLong(this.totalJourneyTime)
+                .putLong(this.leftBehindPassengers).putLong(this.sourcePassengers);
+        buffer.put((byte) (this.batchDispatchScheduled ? 1 : 0));
+        for (int i = 0; i < this.moveScheduled.length; i++) {
+            buffer.put((byte) (this.moveScheduled[i] ? 1 : 0)).put((byte) (this.runningElevators.get(i) ? 1 : 0));
+            buffer.putInt(this.runFrom[i]).putInt(this.runTarget[i]).putLong(this.runStart[i]).putLong(this.runArrivalSequence[i]);
+        }
+        this.waitTimes.writeSnapshot(buffer);
+        buffer.putInt(this.handlingCapacity).putInt(this.alightCount);
+        for (int i = 0; i < this.alightCount; i++) buffer.putLong(this.alightTimes[(this.alightStart + i) % this.alightTimes.length]);
+
+        buffer.putInt(this.events.size());
+        for (SimulationEvent event : this.events) {
+            buffer.putLong(event.getTime()).putLong(event.getSequence()).put((byte) event.getType().ordinal()).putInt(event.getElevatorIndex());
+            buffer.put((byte) (event.getPassenger() != null ? 1 : 0));
+            if (event.getPassenger() != null) writePassenger(buffer, event.getPassenger());
+        }
+        for (ArrayList<Passenger> list : this.hallPassengers) writePassengers(buffer, list);
+        for (ArrayList<Passenger> list : this.waitingPassengers) writePassengers(buffer, list);
+        for (ArrayList<Passenger> list : this.ridingPassengers) writePassengers(buffer, list);
+        return buffer.flip();
+    }
+
+    /**
+     * Go back to the state of a snapshot of an engine on a building of the same size.
+     * The passengers are read again from the given source, from its start: those the engine had already processed
+     * are skipped, as are the ones that would arrive before the clock of the snapshot (a source with another seed).
+     * The source can be null if the remaining passengers are scheduled with schedulePassenger.
+     */
+    public void restore(ByteBuffer buffer, PassengerSource passengerSource) {
+        this.building.restore(buffer);
+        this.clock = buffer.getLong();
+        this.sequence = buffer.getLong();
+        this.processedEvents = buffer.getLong();
+        this.servedPassengers = buffer.getLong();
+        this.rejectedPassengers = buffer.getLong();
+        this.totalJourneyTime = buffer.getLong();
+        this.leftBehindPassengers = buffer.getLong();
+        long sourcePassengers = buffer.getLong();
+        this.batchDispatchScheduled = buffer.get() == 1;
+        for (int i = 0; i < this.moveScheduled.length; i++) {
+            this.moveScheduled[i] = buffer.get() == 1;
+            this.runningElevators.set(i, buffer.get() == 1);
+            this.runFrom[i] = buffer.getInt();
+            this.runTarget[i] = buffer.getInt();
+            this.runStart[i] = buffer.getLong();
+            this.runArrivalSequence[i] = buffer.getLong();
+        }
+        this.waitTimes.restore(buffer);
+        this.handlingCapacity = buffer.getInt();
+        this.alightCount = buffer.getInt();
+        this.alightStart = 0;
+        if (this.alightCount > this.alightTimes.length) this.alightTimes = new long[Integer.highestOneBit(this.alightCount) * 2];
+        for (int i = 0; i < this.alightCount; i++) this.alightTimes[i] = buffer.getLong();
+
+        this.events.clear();
+        SimulationEventType[] types = SimulationEventType.values();
+        long trafficSequence = -1;
+        int events = buffer.getInt();
+        for (int i = 0; i < events; i++) {
+            long time = buffer.getLong();
+            long sequence = buffer.getLong();
+            SimulationEventType type = types[buffer.get()];
+            int elevatorIndex = buffer.getInt();
+            Passenger passenger = buffer.get() == 1 ? readPassenger(buffer) : null;
+            // The next passenger of the source is read again from the new source
+            if (type == SimulationEventType.TRAFFIC_ARRIVAL && passengerSource != null) trafficSequence = sequence;
+            else this.events.add(new SimulationEvent(time, sequence, type, elevatorIndex, passenger));
+        }
+        for (ArrayList<Passenger> list : this.hallPassengers) readPassengers(buffer, list);
+        for (ArrayList<Passenger> list : this.waitingPassengers) readPassengers(buffer, list);
+        for (ArrayList<Passenger> list : this.ridingPassengers) readPassengers(buffer, list);
+        Arrays.fill(this.floorPassengers, 0);
+        for (ArrayList<Passenger> list : this.hallPassengers) countFloorPassengers(list);
+        for (ArrayList<Passenger> list : this.waitingPassengers) countFloorPassengers(list);
+
+        this.passengerSource = passengerSource;
+        this.sourcePassengers = 0;
+        if (passengerSource == null) return;
+        long skipped = trafficSequence != -1 ? sourcePassengers - 1 : sourcePassengers;
+        Passenger passenger = passengerSource.next();
+        while (passenger != null && (this.sourcePassengers < skipped || passenger.getArrivalTime() < this.clock)) {
+            this.sourcePassengers++;
+            passenger = passengerSource.next();
+        }
+        if (passenger == null) return;
+        this.sourcePassengers++;
+        long sequence = trafficSequence != -1 ? trafficSequence : this.sequence++;
+        this.events.add(new SimulationEvent(passenger.getArrivalTime(), sequence, SimulationEventType.TRAFFIC_ARRIVAL, -1, passenger));
+    }
+
+    public void saveSnapshot(Path path) throws IOException {
+        Building.writeFile(path, this.snapshot());
+    }
+
+    public void restoreSnapshot(Path path, PassengerSource passengerSource) throws IOException {
+        this.restore(Building.readFile(path), passengerSource);
+    }
+
+    private static void writePassenger(ByteBuffer buffer, Passenger passenger) {
+        buffer.putInt(passenger.getOrigin()).putInt(passenger.getDestination()).putLong(passenger.getArrivalTime());
+        buffer.putInt(passenger.getElevatorIndex()).putLong(passenger.getBoardingTime()).putLong(passenger.getAlightingTime());
+    }
+
+    private static Passenger readPassenger(ByteBuffer buffer) {
+        Passenger passenger = new Passenger(buffer.getInt(), buffer.getInt(), buffer.getLong());
+        passenger.setElevatorIndex(buffer.getInt());
+        passenger.setBoardingTime(buffer.getLong());
+        passenger.setAlightingTime(buffer.getLong());
+        return passenger;
+    }
+
+    private static void writePassengers(ByteBuffer buffer, ArrayList<Passenger> passengers) {
+        buffer.putInt(passengers.size());
+        for (Passenger passenger : passengers) writePassenger(buffer, passenger);
+    }
+
+    private void countFloorPassengers(ArrayList<Passenger> passengers) {
+        for (Passenger passenger : passengers) this.floorPassengers[hallIndex(passenger.getOrigin(), passenger.getDirection())]++;
+    }
+
+    private static void readPassengers(ByteBuffer buffer, ArrayList<Passenger> passengers) {
+        passengers.clear();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) passengers.add(readPassenger(buffer));
+    }
+
+    /**
+     * GETTERS
+     */
+    public Building getBuilding() {return this.building;}
+    public long getClock() {return this.clock;}
+    public long getTickMillis() {return this.tickMillis;}
+    public long getProcessedEvents() {return this.processedEvents;}
+    public long getServedPassengers() {return this.servedPassengers;}
+    public long getRejectedPassengers() {return this.rejectedPassengers;}
+    public long getLeftBehindPassengers() {return this.leftBehindPassengers;}
+    public long getBypassedCalls() {return this.building.scheduler.getBypassedCalls();}
+    public long getMaxWaitTime() {return this.waitTimes.getMax();}
+    public LatencyHistogram getWaitTimes() {return this.waitTimes;}
+    public MotionProfile getMotionProfile() {return this.motionProfile;}
+    public PassengerSource getPassengerSource() {return this.passengerSource;}
+
+    /**
+     * Number of door cycles of all the elevators, one for each stop
+     */
+    public long getDoorCycles() {
+        long cycles = 0;
+        for (ElevatorController elevator : this.building.elevators) cycles += elevator.getDoorCycles();
+        return cycles;
+    }
+
+    /**
+     * Move the cars with the given profile between the stops, null to move one floor per tick.
+     * It must be set before the first event is processed.
+     */
+    public void setMotionProfile(MotionProfile motionProfile) {
+        this.motionProfile = motionProfile;
+    }
+
+    /**
+     * Continuous position of the elevator, in floors: between two floors while it runs with a motion profile
+     */
+    public double getElevatorPosition(int index) {
+        if (!this.runningElevators.get(index)) return this.building.elevators.get(index).getCurrentFloor();
+        int from = this.runFrom[index];
+        int floors = Math.abs(this.runTarget[index] - from);
+        double distance = this.motionProfile.getPosition(floors, (this.clock - this.runStart[index]) / 1000.0);
+        return this.runTarget[index] > from ? from + distance : from - distance;
+    }
+
+    public double getAverageWaitTime() {
+        return this.waitTimes.getMean();
+    }
+
+    /**
+     * Wait time below which the given percentage of the served passengers have waited,
+     * with the precision of the LatencyHistogram
+     */
+    public long getWaitTimePercentile(double percentile) {
+        return this.waitTimes.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Handling capacity: the most passengers delivered during any window of HANDLING_CAPACITY_MILLIS,
+     * measured on up-peak traffic
+     */
+    public int getHandlingCapacity() {
+        return this.handlingCapacity;
+    }
+
+    public double getAverageJourneyTime() {
+        return this.servedPassengers == 0 ? 0 : (double) this.totalJourneyTime / this.servedPassengers;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Enumerations.SimulationEventType;
+
+/**
+ * A timestamped event in the queue of the simulation engine.
+ * <p>
+ * Events are ordered by time. Events with the same time are processed in the order they were
+ * scheduled (sequence), so that a run is always reproducible.
+ */
+public class SimulationEvent implements Comparable<SimulationEvent> {
+    private final long time;
+    private final long sequence;
+    private final SimulationEventType type;
+    /**
+     * Index of the elevator in the building, used by ELEVATOR_MOVE and ELEVATOR_ARRIVAL
+     */
+    private final int elevatorIndex;
+    /**
+     * The arriving passenger, used by PASSENGER_ARRIVAL
+     */
+    private final Passenger passenger;
+
+    public SimulationEvent(long time, long sequence, SimulationEventType type, int elevatorIndex, Passenger passenger) {
+        this.time = time;
+        this.sequence = sequence;
+        this.type = type;
+        this.elevatorIndex = elevatorIndex;
+        this.passenger = passenger;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        if (this.time != other.time) return Long.compare(this.time, other.time);
+        return Long.compare(this.sequence, other.sequence);
+    }
+
+    /**
+     * GETTERS
+     */
+    public long getTime() {return this.time;}
+    public long getSequence() {return this.sequence;}
+    public SimulationEventType getType() {return this.type;}
+    public int getElevatorIndex() {return this.elevatorIndex;}
+    public Passenger getPassenger() {return this.passenger;}
+}
@@ -0,0 +1,155 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Elevator.StateSnapshot;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Run a building on its own thread, in real time or faster, and publish a StateSnapshot after each tick.
+ * <p>
+ * In the application, the Timeline called Scheduler.run() and then redrew the view on the JavaFX thread: the
+ * simulation could not go faster than the view, and a slow frame delayed the elevators. Here the ticks are run
+ * by the "simulation" thread at the speed asked (1 for real time, 100 for a hundred simulated seconds per second)
+ * and the view takes the latest snapshot whenever it draws, without waiting for the simulation or holding it.
+ * <p>
+ * The building is either moved by Scheduler.run() on each tick, or by a SimulationEngine with its passengers:
+ * the engine is then advanced to the time of each tick. The commands submitted to the scheduler are applied
+ * by this thread at the start of each tick, the other threads never change the elevators.
+ * <p>
+ * When a tick takes longer than its share of real time, the loop catches up by running the late ticks one
+ * after the other; beyond MAX_LATE_TICKS, the late ticks are dropped and the simulation runs slower than asked.
+ */
+public class SimulationLoop {
+    private static final int MAX_LATE_TICKS = 1000;
+
+    private final Building building;
+    private final SimulationEngine engine;
+    private final long tickMillis;
+    private volatile double speed;
+    private volatile StateSnapshot latest;
+    private volatile boolean running;
+    private Thread thread;
+
+    private volatile long time;
+    private volatile long ticks;
+    private volatile long lastTickNanos;
+    private volatile long totalTickNanos;
+
+    /**
+     * Loop moving the building with Scheduler.run() every tick of the given length of simulated time
+     */
+    public SimulationLoop(Building building, long tickMillis) {
+        this(building, null, tickMillis);
+    }
+
+    /**
+     * Loop advancing the engine (and its building) by its tick
+     */
+    public SimulationLoop(SimulationEngine engine) {
+        this(engine.getBuilding(), engine, engine.getTickMillis());
+    }
+
+    private SimulationLoop(Building building, SimulationEngine engine, long tickMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("The tick must be positive: " + tickMillis);
+        this.building = building;
+        this.engine = engine;
+        this.tickMillis = tickMillis;
+        this.speed = 1;
+        this.time = engine != null ? engine.getClock() : 0;
+        this.latest = building.getStateStore().captureState(this.time);
+    }
+
+    /**
+     * Start the thread. With an engine, the elevators given requests before are woken up.
+     */
+    public synchronized void start() {
+        if (this.running) return;
+        if (this.engine != null) this.engine.wakeElevators();
+        this.running = true;
+        this.thread = new Thread(this::loop, "simulation");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stop after the current tick and wait for the thread
+     */
+    public synchronized void stop() {
+        if (!this.running) return;
+        this.running = false;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        long next = System.nanoTime();
+        while (this.running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+
+            long tickNanos = (long) (this.tickMillis * 1_000_000 / this.speed);
+            int late = 0;
+            while (next <= now && this.running) {
+                long start = System.nanoTime();
+                this.tick();
+                this.lastTickNanos = System.nanoTime() - start;
+                this.totalTickNanos += this.lastTickNanos;
+                next += tickNanos;
+                if (++late >= MAX_LATE_TICKS) {
+                    next = System.nanoTime() + tickNanos;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run one tick and publish its snapshot
+     */
+    private void tick() {
+        this.time += this.tickMillis;
+        if (this.engine != null) {
+            if (this.building.scheduler.applyCommands() > 0) this.engine.wakeElevators();
+            this.engine.runUntil(this.time);
+        } else {
+            this.building.scheduler.run();
+        }
+        this.ticks++;
+        this.latest = this.building.getStateStore().captureState(this.time);
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public Building getBuilding() {return this.building;}
+    public SimulationEngine getEngine() {return this.engine;}
+    public long getTickMillis() {return this.tickMillis;}
+    public StateSnapshot getLatest() {return this.latest;}
+    public long getTicks() {return this.ticks;}
+    public long getLastTickNanos() {return this.lastTickNanos;}
+    /**
+     * Time spent running the ticks since the start, the time of the ticks of an interval is the difference
+     */
+    public long getTotalTickNanos() {return this.totalTickNanos;}
+    /**
+     * Simulated time of the last tick, in milliseconds
+     */
+    public long getTime() {return this.time;}
+    public boolean isRunning() {return this.running;}
+    public double getSpeed() {return this.speed;}
+    /**
+     * Simulated seconds per real second: 1 for real time
+     */
+    public void setSpeed(double speed) {
+        if (speed <= 0) throw new IllegalArgumentException("The speed must be positive: " + speed);
+        this.speed = speed;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.learningjavafx.Simulation;
+
+/**
+ * Key figures of one finished simulation run, kept without the building so that many runs can be aggregated.
+ * Times are in milliseconds of simulated time, except the elapsed time of the run.
+ */
+public class SimulationResult {
+    private final long servedPassengers;
+    private final long rejectedPassengers;
+    private final double averageWaitTime;
+    private final long p95WaitTime;
+    private final long maxWaitTime;
+    private final double averageJourneyTime;
+    private final int handlingCapacity;
+    private final long bypassedCalls;
+    private final long doorCycles;
+    private final long processedEvents;
+    private final long elapsedNanos;
+
+    public SimulationResult(SimulationEngine engine, long elapsedNanos) {
+        this.servedPassengers = engine.getServedPassengers();
+        this.rejectedPassengers = engine.getRejectedPassengers();
+        this.averageWaitTime = engine.getAverageWaitTime();
+        this.p95WaitTime = engine.getWaitTimePercentile(95);
+        this.maxWaitTime = engine.getMaxWaitTime();
+        this.averageJourneyTime = engine.getAverageJourneyTime();
+        this.handlingCapacity = engine.getHandlingCapacity();
+        this.bypassedCalls = engine.getBypassedCalls();
+        this.doorCycles = engine.getDoorCycles();
+        this.processedEvents = engine.getProcessedEvents();
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * GETTERS
+     */
+    public long getServedPassengers() {return this.servedPassengers;}
+    public long getRejectedPassengers() {return this.rejectedPassengers;}
+    public double getAverageWaitTime() {return this.averageWaitTime;}
+    public long getP95WaitTime() {return this.p95WaitTime;}
+    public long getMaxWaitTime() {return this.maxWaitTime;}
+    public double getAverageJourneyTime() {return this.averageJourneyTime;}
+    /**
+     * Most passengers delivered in five minutes
+     */
+    public int getHandlingCapacity() {return this.handlingCapacity;}
+    public long getBypassedCalls() {return this.bypassedCalls;}
+    public long getDoorCycles() {return this.doorCycles;}
+    public long getProcessedEvents() {return this.processedEvents;}
+    public long getElapsedNanos() {return this.elapsedNanos;}
+}
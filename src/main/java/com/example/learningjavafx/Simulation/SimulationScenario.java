@@ -0,0 +1,176 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Dispatch.EstimatedTimePolicy;
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Enumerations.TrafficProfile;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One configuration of a headless simulation: the building, its dispatch and its traffic.
+ * <p>
+ * Every call of createEngine (or run) builds a new Building and SimulationEngine, and nothing is shared between
+ * two of them: several seeds of the same scenario, or different scenarios, can run at the same time on different
+ * threads. A scenario must not be modified while it runs.
+ */
+public class SimulationScenario {
+    private int floors;
+    private int elevators;
+    private int hours;
+    /**
+     * Mean time between two passengers, in seconds
+     */
+    private double interarrival;
+    /**
+     * "cascade" or "eta"
+     */
+    private String policy;
+    private int batchWindow;
+    /**
+     * "tick" or "kinematic"
+     */
+    private String motion;
+    private int[] doorTimings;
+    private int ratedLoad;
+    /**
+     * Ticks a car waits for the user input with the door open, 0 to wait forever
+     */
+    private int userInputTimeout;
+    /**
+     * "uniform" or the name of a TrafficProfile in lower case
+     */
+    private String traffic;
+
+    public SimulationScenario() {
+        this.floors = 8;
+        this.elevators = 3;
+        this.hours = 24;
+        this.interarrival = 30;
+        this.policy = "cascade";
+        this.batchWindow = 0;
+        this.motion = "tick";
+        this.doorTimings = new int[]{ElevatorStateStore.DEFAULT_DOOR_OPENING_TICKS, ElevatorStateStore.DEFAULT_DOOR_DWELL_TICKS,
+                ElevatorStateStore.DEFAULT_DOOR_CLOSING_TICKS};
+        this.ratedLoad = ElevatorStateStore.DEFAULT_RATED_LOAD;
+        this.userInputTimeout = ElevatorStateStore.DEFAULT_USER_INPUT_TIMEOUT_TICKS;
+        this.traffic = "uniform";
+    }
+
+    /**
+     * New scenario with the same parameters
+     */
+    public SimulationScenario copy() {
+        SimulationScenario copy = new SimulationScenario();
+        copy.floors = this.floors;
+        copy.elevators = this.elevators;
+        copy.hours = this.hours;
+        copy.interarrival = this.interarrival;
+        copy.policy = this.policy;
+        copy.batchWindow = this.batchWindow;
+        copy.motion = this.motion;
+        copy.doorTimings = this.doorTimings.clone();
+        copy.ratedLoad = this.ratedLoad;
+        copy.userInputTimeout = this.userInputTimeout;
+        copy.traffic = this.traffic;
+        return copy;
+    }
+
+    /**
+     * Building and engine ready to run, with the passengers generated for the traffic of the scenario and the given seed
+     */
+    public SimulationEngine createEngine(long seed) {
+        return this.createEngine(this.createTrafficGenerator(seed));
+    }
+
+    /**
+     * Engine continuing from a snapshot taken by SimulationEngine.snapshot, with the traffic of the given seed.
+     * With the seed of the run of the snapshot, the run continues exactly as it would have; with another seed,
+     * or another configuration of this scenario (policy, batch window), the run branches from the same state.
+     */
+    public SimulationEngine restoreEngine(ByteBuffer snapshot, long seed) {
+        SimulationEngine engine = this.createEngine((PassengerSource) null);
+        engine.restore(snapshot.duplicate().order(snapshot.order()), this.createTrafficGenerator(seed));
+        return engine;
+    }
+
+    private TrafficGenerator createTrafficGenerator(long seed) {
+        double[][] matrix = this.traffic.equals("uniform") ? TrafficGenerator.uniformMatrix(this.floors)
+                : TrafficGenerator.profileMatrix(TrafficProfile.valueOf(this.traffic.toUpperCase()), this.floors);
+        return new TrafficGenerator(matrix, 3600 / this.interarrival, seed, this.getDuration());
+    }
+
+    /**
+     * Building and engine ready to run, with the passengers of the given source (for instance a recorded trace)
+     */
+    public SimulationEngine createEngine(PassengerSource passengerSource) {
+        Building building = new Building(this.floors, this.elevators);
+        building.setDoorTimings(this.doorTimings[0], this.doorTimings[1], this.doorTimings[2]);
+        building.setRatedLoad(this.ratedLoad);
+        building.setUserInputTimeout(this.userInputTimeout);
+        if (this.policy.equals("eta")) building.scheduler.setDispatchPolicy(new EstimatedTimePolicy());
+        building.scheduler.setBatchWindow(this.batchWindow);
+
+        SimulationEngine engine = new SimulationEngine(building);
+        if (this.motion.equals("kinematic")) engine.setMotionProfile(new MotionProfile());
+        building.enableCallMetrics(engine::getClock);
+        if (passengerSource != null) engine.setPassengerSource(passengerSource);
+        return engine;
+    }
+
+    /**
+     * Simulate the whole duration with the given seed
+     */
+    public SimulationResult run(long seed) {
+        long start = System.nanoTime();
+        SimulationEngine engine = this.createEngine(seed);
+        engine.runUntil(this.getDuration());
+        return new SimulationResult(engine, System.nanoTime() - start);
+    }
+
+    public long getDuration() {
+        return this.hours * 3_600_000L;
+    }
+
+    /**
+     * GETTERS AND SETTERS
+     */
+    public int getFloors() {return this.floors;}
+    public int getElevators() {return this.elevators;}
+    public int getHours() {return this.hours;}
+    public double getInterarrival() {return this.interarrival;}
+    public String getPolicy() {return this.policy;}
+    public int getBatchWindow() {return this.batchWindow;}
+    public String getMotion() {return this.motion;}
+    public int[] getDoorTimings() {return this.doorTimings.clone();}
+    public int getRatedLoad() {return this.ratedLoad;}
+    public int getUserInputTimeout() {return this.userInputTimeout;}
+    public String getTraffic() {return this.traffic;}
+
+    public void setFloors(int floors) {this.floors = floors;}
+    public void setElevators(int elevators) {this.elevators = elevators;}
+    public void setHours(int hours) {this.hours = hours;}
+    public void setInterarrival(double interarrival) {this.interarrival = interarrival;}
+    public void setBatchWindow(int batchWindow) {this.batchWindow = batchWindow;}
+    public void setRatedLoad(int ratedLoad) {this.ratedLoad = ratedLoad;}
+    public void setUserInputTimeout(int userInputTimeout) {this.userInputTimeout = userInputTimeout;}
+
+    public void setPolicy(String policy) {
+        if (!policy.equals("cascade") && !policy.equals("eta")) throw new IllegalArgumentException("Unknown policy: " + policy);
+        this.policy = policy;
+    }
+
+    public void setMotion(String motion) {
+        if (!motion.equals("tick") && !motion.equals("kinematic")) throw new IllegalArgumentException("Unknown motion: " + motion);
+        this.motion = motion;
+    }
+
+    public void setDoorTimings(int openingTicks, int dwellTicks, int closingTicks) {
+        this.doorTimings = new int[]{openingTicks, dwellTicks, closingTicks};
+    }
+
+    public void setTraffic(String traffic) {
+        if (!traffic.equals("uniform")) TrafficProfile.valueOf(traffic.toUpperCase());
+        this.traffic = traffic;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Helpers.Console;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo sweep over a grid of scenarios, run on all the cores without the JavaFX application.
+ * <p>
+ * java -cp target/classes com.example.learningjavafx.Simulation.SweepRunner [key=value,value,...] ...
+ * <p>
+ * The keys are the parameters of SimulationScenario: floors, elevators, hours, interarrival, policy, batch,
+ * motion, door (opening:dwell:closing), load, timeout (ticks waiting for the user input) and traffic.
+ * A key with several values adds a dimension to the grid.
+ * The options are seeds (runs for each point of the grid, 10 by default), seed (first seed, 42), threads
+ * (all the cores by default) and out (CSV file where the table is also written).
+ * <p>
+ * Each run is a task with its own Building and SimulationEngine: the runs share nothing, so they only compete
+ * for the cores. Every point of the grid is run with the same seeds, so the differences between two points
+ * come from the parameters and not from the passengers (common random numbers).
+ * For each point, the table gives the mean of each figure over the seeds and the half-width of its 95% confidence interval.
+ */
+public class SweepRunner {
+    private static final String[] FIGURES = {"served", "wait_s", "p95_wait_s", "max_wait_s", "journey_s", "hc5", "bypassed"};
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        LinkedHashMap<String, String[]> grid = new LinkedHashMap<>();
+        int seeds = 10;
+        long firstSeed = 42;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) throw new IllegalArgumentException("Expected key=value: " + arg);
+            switch (keyValue[0]) {
+                case "seeds" -> seeds = Integer.parseInt(keyValue[1]);
+                case "seed" -> firstSeed = Long.parseLong(keyValue[1]);
+                case "threads" -> threads = Integer.parseInt(keyValue[1]);
+                case "out" -> out = keyValue[1];
+                default -> grid.put(keyValue[0], keyValue[1].split(","));
+            }
+        }
+        Console.setEnabled(false);
+
+        List<String[]> points = new ArrayList<>();
+        expand(grid.values().toArray(new String[0][]), new String[grid.size()], 0, points);
+        ArrayList<SimulationScenario> scenarios = new ArrayList<>();
+        for (String[] point : points) scenarios.add(scenario(grid, point));
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<Future<SimulationResult>> futures = new ArrayList<>();
+        double[][][] figures = new double[points.size()][FIGURES.length][seeds];
+        long runNanos = 0;
+        // A failed run must not leave the other threads of the pool running: the JVM would not exit
+        try {
+            for (SimulationScenario scenario : scenarios) {
+                for (int i = 0; i < seeds; i++) {
+                    long seed = firstSeed + i;
+                    futures.add(pool.submit(() -> scenario.run(seed)));
+                }
+            }
+            for (int task = 0; task < futures.size(); task++) {
+                SimulationResult result = futures.get(task).get();
+                runNanos += result.getElapsedNanos();
+                for (int figure = 0; figure < FIGURES.length; figure++) figures[task / seeds][figure][task % seeds] = figure(result, figure);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d runs (%d points x %d seeds) on %d threads in %.1f s, %.1f runs/s, cores busy %.0f%%%n", futures.size(),
+                points.size(), seeds, threads, elapsed / 1e9, futures.size() / (elapsed / 1e9), 100.0 * runNanos / ((double) elapsed * threads));
+        printTable(grid, points, figures);
+        if (out != null) writeCsv(Path.of(out), grid, points, figures);
+    }
+
+    /**
+     * Every combination of the values of the grid, the first key changing the slowest
+     */
+    private static void expand(String[][] values, String[] point, int key, List<String[]> points) {
+        if (key == point.length) {
+            points.add(point.clone());
+            return;
+        }
+        for (String value : values[key]) {
+            point[key] = value;
+            expand(values, point, key + 1, points);
+        }
+    }
+
+    private static SimulationScenario scenario(LinkedHashMap<String, String[]> grid, String[] point) {
+        SimulationScenario scenario = new SimulationScenario();
+        int key = 0;
+        for (String name : grid.keySet()) {
+            String value = point[key++];
+            switch (name) {
+                case "floors" -> scenario.setFloors(Integer.parseInt(value));
+                case "elevators" -> scenario.setElevators(Integer.parseInt(value));
+                case "hours" -> scenario.setHours(Integer.parseInt(value));
+                case "interarrival" -> scenario.setInterarrival(Double.parseDouble(value));
+                case "policy" -> scenario.setPolicy(value);
+                case "batch" -> scenario.setBatchWindow(Integer.parseInt(value));
+                case "motion" -> scenario.setMotion(value);
+                case "load" -> scenario.setRatedLoad(Integer.parseInt(value));
+                case "timeout" -> scenario.setUserInputTimeout(Integer.parseInt(value));
+                case "traffic" -> scenario.setTraffic(value);
+                case "door" -> {
+                    String[] ticks = value.split(":");
+                    scenario.setDoorTimings(Integer.parseInt(ticks[0]), Integer.parseInt(ticks[1]), Integer.parseInt(ticks[2]));
+                }
+                default -> throw new IllegalArgumentException("Unknown parameter: " + name);
+            }
+        }
+        return scenario;
+    }
+
+    private static double figure(SimulationResult result, int figure) {
+        return switch (figure) {
+            case 0 -> result.getServedPassengers();
+            case 1 -> result.getAverageWaitTime() / 1000;
+            case 2 -> result.getP95WaitTime() / 1000.0;
+            case 3 -> result.getMaxWaitTime() / 1000.0;
+            case 4 -> result.getAverageJourneyTime() / 1000;
+            case 5 -> result.getHandlingCapacity();
+            default -> result.getBypassedCalls();
+        };
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) sum += value;
+        return sum / values.length;
+    }
+
+    /**
+     * Half-width of the 95% confidence interval of the mean (normal approximation)
+     */
+    private static double confidence(double[] values) {
+        if (values.length < 2) return 0;
+        double mean = mean(values);
+        double squares = 0;
+        for (double value : values) squares += (value - mean) * (value - mean);
+        return 1.96 * Math.sqrt(squares / (values.length - 1) / values.length);
+    }
+
+    private static void printTable(LinkedHashMap<String, String[]> grid, List<String[]> points, double[][][] figures) {
+        StringBuilder header = new StringBuilder();
+        for (String key : grid.keySet()) header.append(String.format("%-14s", key));
+        for (String figure : FIGURES) header.append(String.format("%18s", figure));
+        System.out.println(header);
+
+        for (int i = 0; i < points.size(); i++) {
+            StringBuilder row = new StringBuilder();
+            for (String value : points.get(i)) row.append(String.format("%-14s", value));
+            for (double[] values : figures[i]) row.append(String.format("%18s", String.format("%.1f +-%.1f", mean(values), confidence(values))));
+            System.out.println(row);
+        }
+    }
+
+    private static void writeCsv(Path path, LinkedHashMap<String, String[]> grid, List<String[]> points, double[][][] figures) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            ArrayList<String> header = new ArrayList<>(grid.keySet());
+            header.add("runs");
+            for (String figure : FIGURES) {
+                header.add(figure);
+                header.add(figure + "_ci95");
+            }
+            writer.println(String.join(",", header));
+
+            for (int i = 0; i < points.size(); i++) {
+                ArrayList<String> row = new ArrayList<>(List.of(points.get(i)));
+                row.add(String.valueOf(figures[i][0].length));
+                for (double[] values : figures[i]) {
+                    row.add(String.format(Locale.ROOT, "%.3f", mean(values)));
+                    row.add(String.format(Locale.ROOT, "%.3f", confidence(values)));
+                }
+                writer.println(String.join(",", row));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Convert a CSV log of calls into the binary trace read by CallTraceReader.
+ * <p>
+ * java -cp target/classes com.example.learningjavafx.Simulation.TraceConverter [calls.csv] [calls.trace]
+ * <p>
+ * Each line is timestamp,floor,direction,destination: the time of the hall call in milliseconds, the floor and
+ * the direction (UP or DOWN) of the hall call, and the floor then entered inside the car. The lines must be in
+ * increasing order of time. A first line that does not start with a number is a header, and the lines starting
+ * with # are ignored. The file is read line by line, so it can be larger than the memory.
+ */
+public class TraceConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TraceConverter [calls.csv] [calls.trace]");
+            return;
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+
+        long start = System.nanoTime();
+        long records;
+        try (BufferedReader reader = Files.newBufferedReader(input); CallTraceWriter writer = new CallTraceWriter(output)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (lineNumber == 1 && !Character.isDigit(line.charAt(0))) continue;
+
+                String[] fields = line.split(",");
+                try {
+                    if (fields.length != 4) throw new IllegalArgumentException("Expected timestamp,floor,direction,destination");
+                    writer.write(Long.parseLong(fields[0].trim()), Integer.parseInt(fields[1].trim()),
+                            ElevatorDirection.valueOf(fields[2].trim().toUpperCase()), Integer.parseInt(fields[3].trim()));
+                } catch (IllegalArgumentException exception) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": " + exception.getMessage(), exception);
+                }
+            }
+            records = writer.getRecords();
+        }
+        // The trace is complete once the writer is closed
+        System.out.printf("%d calls converted in %.1f ms: %d bytes of CSV, %d bytes of trace%n", records,
+                (System.nanoTime() - start) / 1e6, Files.size(input), Files.size(output));
+    }
+}
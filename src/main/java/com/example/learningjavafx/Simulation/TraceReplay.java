@@ -0,0 +1,52 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Helpers.Console;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replay a recorded trace of calls against each dispatch policy, to compare them on real traffic.
+ * <p>
+ * java -cp target/classes com.example.learningjavafx.Simulation.TraceReplay [calls.trace] [elevators] [policies] [motion] [door]
+ * <p>
+ * The policies are separated by commas ("cascade,eta" by default), the motion and the door timings are the same
+ * as in HeadlessSimulation. The building has the number of floors of the trace. Each policy replays the whole
+ * trace from its own mapping of the file, until the last passenger has arrived at the destination.
+ */
+public class TraceReplay {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: TraceReplay [calls.trace] [elevators] [policies] [motion] [door]");
+            return;
+        }
+        Path path = Path.of(args[0]);
+        int elevators = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        String[] policies = (args.length > 2 ? args[2] : "cascade,eta").split(",");
+        String motion = args.length > 3 ? args[3] : "tick";
+        String[] door = (args.length > 4 ? args[4] : ElevatorStateStore.DEFAULT_DOOR_OPENING_TICKS + "," + ElevatorStateStore.DEFAULT_DOOR_DWELL_TICKS
+                + "," + ElevatorStateStore.DEFAULT_DOOR_CLOSING_TICKS).split(",");
+        Console.setEnabled(false);
+
+        System.out.printf("%-10s %10s %10s %12s %12s %12s %8s %12s%n", "policy", "calls", "served", "wait (s)", "p95 (s)", "journey (s)", "hc5", "time (ms)");
+        for (String policy : policies) {
+            try (CallTraceReader reader = new CallTraceReader(path)) {
+                SimulationScenario scenario = new SimulationScenario();
+                scenario.setFloors(reader.getTotalFloors());
+                scenario.setElevators(elevators);
+                scenario.setPolicy(policy);
+                scenario.setMotion(motion);
+                scenario.setDoorTimings(Integer.parseInt(door[0]), Integer.parseInt(door[1]), Integer.parseInt(door[2]));
+
+                long start = System.nanoTime();
+                SimulationEngine engine = scenario.createEngine(reader);
+                engine.runUntil(Long.MAX_VALUE);
+                SimulationResult result = new SimulationResult(engine, System.nanoTime() - start);
+                System.out.printf("%-10s %10d %10d %12.1f %12.1f %12.1f %8d %12.1f%n", policy, reader.getRecords(), result.getServedPassengers(),
+                        result.getAverageWaitTime() / 1000, result.getP95WaitTime() / 1000.0, result.getAverageJourneyTime() / 1000,
+                        result.getHandlingCapacity(), result.getElapsedNanos() / 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Enumerations.TrafficProfile;
+
+import java.util.Random;
+
+/**
+ * Source of passengers for the SimulationEngine: Poisson arrivals with an origin/destination matrix.
+ * <p>
+ * The interarrival times are exponentially distributed for the given rate, and the origin and destination of
+ * each passenger are drawn together from the weights of the matrix (weight[origin][destination], the diagonal
+ * is ignored). The matrices of the standard profiles are built by profileMatrix, with the lobby at floor 0.
+ * <p>
+ * The passengers are drawn one at a time when the engine asks for the next one, so a whole day of traffic is
+ * never held in memory. For the same matrix, rate and seed, the sequence of passengers is always the same.
+ */
+public class TrafficGenerator implements PassengerSource {
+    private final int totalFloors;
+    /**
+     * Cumulative weights of the pairs, index origin * floors + destination
+     */
+    private final double[] cumulativeWeights;
+    private final double meanInterarrivalMillis;
+    /**
+     * No passenger arrives after this time
+     */
+    private final long endTime;
+    private final Random random;
+    private long time;
+
+    /**
+     * @param originDestinationWeights relative weight of each pair of floors, square matrix of the size of the building
+     * @param arrivalsPerHour mean number of passengers per hour
+     * @param seed seed of the random numbers
+     * @param endTime time of the last possible arrival, in milliseconds
+     */
+    public TrafficGenerator(double[][] originDestinationWeights, double arrivalsPerHour, long seed, long endTime) {
+        int floors = originDestinationWeights.length;
+        if (floors < 2) throw new IllegalArgumentException("The building must have at least two floors");
+        if (arrivalsPerHour <= 0) throw new IllegalArgumentException("The arrival rate must be positive");
+
+        this.totalFloors = floors;
+        this.cumulativeWeights = new double[floors * floors];
+        double total = 0;
+        for (int origin = 0; origin < floors; origin++) {
+            if (originDestinationWeights[origin].length != floors) throw new IllegalArgumentException("The matrix must be square");
+            for (int destination = 0; destination < floors; destination++) {
+                double weight = originDestinationWeights[origin][destination];
+                if (weight < 0) throw new IllegalArgumentException("The weights cannot be negative");
+                if (origin != destination) total += weight;
+                this.cumulativeWeights[origin * floors + destination] = total;
+            }
+        }
+        if (total == 0) throw new IllegalArgumentException("At least one pair of floors must have a weight");
+
+        this.meanInterarrivalMillis = 3_600_000 / arrivalsPerHour;
+        this.endTime = endTime;
+        this.random = new Random(seed);
+        this.time = 0;
+    }
+
+    public TrafficGenerator(TrafficProfile profile, int totalFloors, double arrivalsPerHour, long seed, long endTime) {
+        this(profileMatrix(profile, totalFloors), arrivalsPerHour, seed, endTime);
+    }
+
+    /**
+     * The next passenger, null once the end time is passed
+     */
+    @Override
+    public Passenger next() {
+        if (this.time > this.endTime) return null;
+        this.time += (long) (-Math.log(1 - this.random.nextDouble()) * this.meanInterarrivalMillis);
+        if (this.time > this.endTime) return null;
+
+        int pair = this.samplePair(this.random.nextDouble() * this.cumulativeWeights[this.cumulativeWeights.length - 1]);
+        return new Passenger(pair / this.totalFloors, pair % this.totalFloors, this.time);
+    }
+
+    /**
+     * First pair whose cumulative weight is above the value: pairs without weight are never chosen
+     */
+    private int samplePair(double value) {
+        int low = 0;
+        int high = this.cumulativeWeights.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.cumulativeWeights[middle] > value) high = middle;
+            else low = middle + 1;
+        }
+        return low;
+    }
+
+    /**
+     * Matrix of the profile with the lobby at floor 0: each share is divided equally among its pairs of floors
+     */
+    public static double[][] profileMatrix(TrafficProfile profile, int totalFloors) {
+        double[][] weights = new double[totalFloors][totalFloors];
+        int upperFloors = totalFloors - 1;
+        for (int floor = 1; floor < totalFloors; floor++) {
+            weights[0][floor] = profile.getIncoming() / upperFloors;
+            weights[floor][0] = profile.getOutgoing() / upperFloors;
+        }
+        if (upperFloors < 2) return weights;
+        double interfloor = profile.getInterfloor() / (upperFloors * (upperFloors - 1));
+        for (int origin = 1; origin < totalFloors; origin++) {
+            for (int destination = 1; destination < totalFloors; destination++) {
+                if (origin != destination) weights[origin][destination] = interfloor;
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Matrix where every pair of different floors is equally likely
+     */
+    public static double[][] uniformMatrix(int totalFloors) {
+        double[][] weights = new double[totalFloors][totalFloors];
+        for (int origin = 0; origin < totalFloors; origin++) {
+            for (int destination = 0; destination < totalFloors; destination++) {
+                if (origin != destination) weights[origin][destination] = 1;
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * GETTERS
+     */
+    public int getTotalFloors() {return this.totalFloors;}
+    public long getEndTime() {return this.endTime;}
+    public double getMeanInterarrivalMillis() {return this.meanInterarrivalMillis;}
+}
@@ -0,0 +1,49 @@
+package com.example.learningjavafx.Benchmark;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Dispatch.BatchAssigner;
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Helpers.Console;
+
+import java.util.Random;
+
+/**
+ * Measure the time needed to solve a batch of hall calls with the BatchAssigner,
+ * to verify that a batch of 200 calls on 64 elevators is solved within one tick (1 second).
+ * <p>
+ * java -cp target/classes:target/test-classes com.example.learningjavafx.Benchmark.BatchAssignmentBenchmark
+ */
+public class BatchAssignmentBenchmark {
+    private static final int FLOORS = 8;
+    private static final int[][] SIZES = {{8, 25}, {16, 50}, {32, 100}, {64, 200}};
+    private static final int ROUNDS = 30;
+    private static final long TICK_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        Console.setEnabled(false);
+        Random random = new Random(42);
+        BatchAssigner assigner = new BatchAssigner();
+
+        System.out.printf("%10s %8s %12s %12s %10s%n", "elevators", "calls", "best ms", "worst ms", "tick %");
+        for (int[] size : SIZES) {
+            Building building = new Building(FLOORS, size[0]);
+            for (ElevatorController elevator : building.elevators) {
+                elevator.setElevatorFloor(random.nextInt(FLOORS));
+                if (random.nextInt(5) != 0) elevator.addRequest(random.nextInt(FLOORS));
+            }
+
+            long best = Long.MAX_VALUE;
+            long worst = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                int[] calls = new int[size[1]];
+                for (int i = 0; i < calls.length; i++) calls[i] = random.nextInt(FLOORS);
+
+                assigner.assign(building.scheduler.getElevatorIndex(), calls);
+                best = Math.min(best, assigner.getLastSolveNanos());
+                // The first rounds run in the interpreter, they are not representative of a long simulation
+                if (round >= ROUNDS / 2) worst = Math.max(worst, assigner.getLastSolveNanos());
+            }
+            System.out.printf("%10d %8d %12.3f %12.3f %9.2f%%%n", size[0], size[1], best / 1e6, worst / 1e6, 100.0 * worst / TICK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.learningjavafx.Benchmark;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Elevator.CommandHandler;
+import com.example.learningjavafx.Elevator.CommandQueue;
+import com.example.learningjavafx.Enumerations.CommandType;
+import com.example.learningjavafx.Helpers.Console;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measure the commands sent by 1, 2, 4 and 8 producer threads to a CommandQueue drained by a single thread,
+ * and check that every command is applied exactly once.
+ * <p>
+ * Each producer sends its commands as fast as it can and tries again when the queue is full. First the queue
+ * alone is drained by a handler that only counts the commands, then the commands are requests for the elevators
+ * of a Building, applied by Scheduler.run().
+ * <p>
+ * java -cp target/classes:target/test-classes com.example.learningjavafx.Benchmark.CommandQueueBenchmark [commands per producer]
+ */
+public class CommandQueueBenchmark {
+    private static final int FLOORS = 60;
+    private static final int ELEVATORS = 1_000;
+    private static final int[] PRODUCERS = {1, 2, 4, 8};
+    /**
+     * False once a run has lost or duplicated a command
+     */
+    private static boolean checked = true;
+
+    public static void main(String[] args) throws InterruptedException {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Console.setEnabled(false);
+
+        System.out.printf("%d commands per producer, %d cores available%n", commands, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%10s %18s %18s %8s%n", "producers", "queue cmd/s", "scheduler cmd/s", "checked");
+        for (int producers : PRODUCERS) {
+            // First run to warm up the JIT, second one measured
+            measureQueue(producers, commands);
+            double queue = measureQueue(producers, commands);
+            double scheduler = measureScheduler(producers, commands / 10);
+            System.out.printf("%10d %18.0f %18.0f %8s%n", producers, queue, scheduler, checked);
+        }
+    }
+
+    private static double measureQueue(int producers, int commands) throws InterruptedException {
+        CommandQueue queue = new CommandQueue();
+        long[] sums = new long[2];
+        CommandHandler handler = (type, elevator, floor) -> {
+            sums[0]++;
+            sums[1] += floor;
+        };
+        Thread[] threads = startProducers(producers, commands, queue);
+        long start = System.nanoTime();
+        long total = (long) producers * commands;
+        while (sums[0] < total) {
+            if (queue.drain(handler) == 0) Thread.onSpinWait();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        for (Thread thread : threads) thread.join();
+        checked &= sums[1] == expectedSum(producers, commands) && queue.isEmpty();
+        return total / elapsed;
+    }
+
+    private static double measureScheduler(int producers, int commands) throws InterruptedException {
+        Building building = new Building(FLOORS, ELEVATORS);
+        CommandQueue queue = building.scheduler.getCommandQueue();
+        Thread[] threads = startProducers(producers, commands, queue);
+        long start = System.nanoTime();
+        long total = (long) producers * commands;
+        while (queue.getOffered() < total || !queue.isEmpty()) building.scheduler.run();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        for (Thread thread : threads) thread.join();
+        checked &= queue.getOffered() == total && queue.isEmpty();
+        return total / elapsed;
+    }
+
+    /**
+     * Producer i sends the floors i, i + producers, i + 2 * producers... modulo FLOORS, to random elevators
+     */
+    private static Thread[] startProducers(int producers, int commands, CommandQueue queue) {
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            int producer = i;
+            threads[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int command = 0; command < commands; command++) {
+                    int floor = (producer + command * producers) % FLOORS;
+                    while (!queue.offer(CommandType.REQUEST, random.nextInt(ELEVATORS), floor)) Thread.onSpinWait();
+                }
+            }, "producer-" + i);
+            threads[i].start();
+        }
+        return threads;
+    }
+
+    private static long expectedSum(int producers, int commands) {
+        long sum = 0;
+        for (int producer = 0; producer < producers; producer++) {
+            for (int command = 0; command < commands; command++) sum += (producer + (long) command * producers) % FLOORS;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.learningjavafx.Benchmark;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Dispatch.DispatchPolicy;
+import com.example.learningjavafx.Dispatch.ElevatorIndex;
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Helpers.Console;
+
+import java.util.Random;
+
+/**
+ * Measure the time needed by the scheduler to choose an elevator for a hall call,
+ * for banks from 3 to 1000 elevators.
+ * <p>
+ * The elevators are placed at random floors with random requests, then the same sequence of
+ * random hall calls is dispatched on each bank. Only the decision is measured: the request is not
+ * added to the elevator, so the state of the bank does not change during the measure.
+ * <p>
+ * java -cp target/classes:target/test-classes com.example.learningjavafx.Benchmark.DispatchBenchmark
+ */
+public class DispatchBenchmark {
+    private static final int FLOORS = 8;
+    private static final int[] ELEVATORS = {3, 10, 30, 100, 300, 1000};
+    private static final int CALLS = 1 << 16;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) {
+        Console.setEnabled(false);
+        Random random = new Random(42);
+
+        int[] floors = new int[CALLS];
+        ElevatorDirection[] directions = new ElevatorDirection[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            floors[i] = random.nextInt(FLOORS);
+            directions[i] = random.nextBoolean() ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+        }
+
+        System.out.printf("%10s %14s%n", "elevators", "ns/dispatch");
+        for (int elevators : ELEVATORS) {
+            Building building = createBuilding(elevators, random);
+
+            // Warm up, then keep the best round to remove the noise of the JIT and GC
+            long best = Long.MAX_VALUE;
+            int checksum = 0;
+            DispatchPolicy policy = building.scheduler.getDispatchPolicy();
+            ElevatorIndex index = building.scheduler.getElevatorIndex();
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < CALLS; i++) {
+                    checksum += policy.findOptimalElevator(index, directions[i], floors[i]).getCurrentFloor();
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%10d %14.1f   (checksum %d)%n", elevators, (double) best / CALLS, checksum);
+        }
+    }
+
+    /**
+     * Building with the elevators at random floors, about a fifth of them IDLE and the others
+     * moving UP or DOWN with a random request.
+     */
+    private static Building createBuilding(int elevators, Random random) {
+        Building building = new Building(FLOORS, elevators);
+        for (ElevatorController elevator : building.elevators) {
+            elevator.setElevatorFloor(random.nextInt(FLOORS));
+            if (random.nextInt(5) != 0) elevator.addRequest(random.nextInt(FLOORS));
+        }
+        return building;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.learningjavafx.Benchmark;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Dispatch.HallCallListener;
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Helpers.Console;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Measure Scheduler.run() with the elevators moved on 1, 2, 4, 8 and 16 threads,
+ * and check that every configuration ends in exactly the same state.
+ * <p>
+ * On each tick, random requests, hall calls and passengers are added with a fixed seed, then the
+ * scheduler moves all the elevators. The cars hold two passengers, so some of them are full and pass
+ * their hall calls. The checksum covers the snapshot of the building (every row of the store: queues,
+ * stop sets, door, timers, load, and the calls kept by the scheduler) and the order of the calls given
+ * and bypassed seen by a listener: it must be the same for every number of threads.
+ * <p>
+ * java -cp target/classes:target/test-classes com.example.learningjavafx.Benchmark.ParallelTickBenchmark [elevators] [ticks]
+ */
+public class ParallelTickBenchmark {
+    private static final int FLOORS = 8;
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+    private static final int RATED_LOAD = 2 * ElevatorStateStore.PASSENGER_MASS;
+
+    public static void main(String[] args) {
+        int elevators = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Console.setEnabled(false);
+
+        System.out.printf("%d elevators, %d ticks, %d cores available%n", elevators, ticks, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %12s %10s %20s %10s%n", "threads", "ticks/s", "speedup", "checksum", "same");
+        double sequential = 0;
+        long sequentialChecksum = 0;
+        boolean same = true;
+        for (int threads : THREADS) {
+            // First run to warm up the JIT, second one measured
+            simulate(elevators, ticks, threads);
+            long start = System.nanoTime();
+            long checksum = simulate(elevators, ticks, threads);
+            double ticksPerSecond = ticks / ((System.nanoTime() - start) / 1e9);
+            if (threads == 1) {
+                sequential = ticksPerSecond;
+                sequentialChecksum = checksum;
+            }
+            same &= checksum == sequentialChecksum;
+            System.out.printf("%8d %12.1f %9.2fx %20d %10s%n", threads, ticksPerSecond, ticksPerSecond / sequential, checksum, checksum == sequentialChecksum);
+        }
+        if (!same) {
+            System.out.println("ERROR: the parallel runs do not end in the state of the sequential run");
+            System.exit(1);
+        }
+    }
+
+    private static long simulate(int elevators, int ticks, int threads) {
+        Building building = new Building(FLOORS, elevators);
+        building.setRatedLoad(RATED_LOAD);
+        building.scheduler.setParallelism(threads);
+        CallRecorder recorder = new CallRecorder();
+        building.scheduler.setHallCallListener(recorder);
+        Random random = new Random(42);
+
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < elevators / 10; i++) {
+                building.elevators.get(random.nextInt(elevators)).addRequest(random.nextInt(FLOORS));
+            }
+            for (int i = 0; i < elevators / 20; i++) {
+                int floor = random.nextInt(FLOORS);
+                building.scheduler.acceptRequestAndProcess(floor == FLOORS - 1 || (floor > 0 && random.nextBoolean())
+                        ? ElevatorDirection.DOWN : ElevatorDirection.UP, floor);
+                ElevatorController elevator = building.elevators.get(random.nextInt(elevators));
+                if (random.nextBoolean()) elevator.boardPassenger();
+                else elevator.alightPassenger();
+            }
+            building.scheduler.run();
+        }
+        building.scheduler.setParallelism(1);
+
+        ByteBuffer snapshot = building.snapshot();
+        long checksum = recorder.checksum;
+        while (snapshot.remaining() >= Long.BYTES) checksum = checksum * 31 + snapshot.getLong();
+        while (snapshot.hasRemaining()) checksum = checksum * 31 + snapshot.get();
+        return checksum * 31 + building.scheduler.getBypassedCalls();
+    }
+
+    /**
+     * Hash of the calls given and bypassed, in the order of the notifications
+     */
+    private static class CallRecorder implements HallCallListener {
+        private long checksum;
+
+        @Override
+        public void onHallCallAssigned(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {
+            this.checksum = ((this.checksum * 31 + elevator.getRow()) * 31 + requestFloor) * 31 + requestElevatorDirection.ordinal();
+        }
+
+        @Override
+        public void onHallCallBypassed(ElevatorController elevator, ElevatorDirection requestElevatorDirection, int requestFloor) {
+            this.checksum = ((this.checksum * 37 + elevator.getRow()) * 37 + requestFloor) * 37 + requestElevatorDirection.ordinal();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.learningjavafx.Benchmark;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Helpers.Console;
+
+import java.util.Random;
+
+/**
+ * Measure the heap used by each elevator of a very large building and the ticks per second of Scheduler.run().
+ * <p>
+ * The heap is measured after a full GC before and after the construction of the building, so it includes
+ * the scheduler and its ElevatorIndex. On each tick, random requests are added to random elevators with
+ * a fixed seed; the checksum of the final state is printed to compare two versions of the code.
+ * <p>
+ * java -cp target/classes:target/test-classes com.example.learningjavafx.Benchmark.StateStoreBenchmark [elevators] [floors] [ticks]
+ */
+public class StateStoreBenchmark {
+    public static void main(String[] args) {
+        int elevators = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int floors = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        Console.setEnabled(false);
+
+        long before = usedHeap();
+        Building building = new Building(floors, elevators);
+        long after = usedHeap();
+        System.out.printf("%d elevators, %d floors: %.1f bytes of heap per elevator%n", elevators, floors, (after - before) / (double) elevators);
+
+        // First half of the ticks to warm up the JIT, second half measured
+        Random random = new Random(42);
+        simulate(building, random, ticks / 2, floors);
+        long start = System.nanoTime();
+        simulate(building, random, ticks - ticks / 2, floors);
+        double ticksPerSecond = (ticks - ticks / 2) / ((System.nanoTime() - start) / 1e9);
+
+        long checksum = 0;
+        for (ElevatorController elevator : building.elevators) {
+            checksum = checksum * 31 + elevator.getCurrentFloor();
+            checksum = checksum * 31 + elevator.getDirection().ordinal();
+            checksum = checksum * 31 + elevator.getUpQueue().size() * 8L + elevator.getDownQueue().size();
+        }
+        System.out.printf("%.1f ticks/s, checksum %d%n", ticksPerSecond, checksum);
+    }
+
+    private static void simulate(Building building, Random random, int ticks, int floors) {
+        int elevators = building.elevators.size();
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = 0; i < elevators / 10; i++) {
+                building.elevators.get(random.nextInt(elevators)).addRequest(random.nextInt(floors));
+            }
+            building.scheduler.run();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.learningjavafx.Benchmark;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Helpers.Console;
+
+import java.lang.reflect.Method;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Measure the time and the memory allocated by addRequest and move on a single controller,
+ * and the cost of the membership test (used by addRequest, the Updater and print) compared with
+ * the PriorityQueue of Integer used before, both holding the same pending stops.
+ * <p>
+ * The allocated bytes are read from the thread allocation counter of the JVM, so the numbers include
+ * everything allocated by the loop. The counter (com.sun.management.ThreadMXBean) is reached by reflection:
+ * the module of the application does not require jdk.management for a benchmark, and the bytes are not
+ * shown when the JVM does not provide it. The controller has no listener, as in a standalone elevator.
+ * <p>
+ * java -cp target/classes:target/test-classes com.example.learningjavafx.Benchmark.StopSetBenchmark
+ */
+public class StopSetBenchmark {
+    private static final int FLOORS = 8;
+    private static final int OPERATIONS = 1 << 20;
+    private static final int ROUNDS = 20;
+
+    /**
+     * ThreadMXBean of the JVM and its getCurrentThreadAllocatedBytes method, null when not available
+     */
+    private static final Object THREADS;
+    private static final Method ALLOCATED_BYTES;
+
+    static {
+        Object threads = null;
+        Method allocatedBytes = null;
+        try {
+            threads = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+            allocatedBytes = Class.forName("com.sun.management.ThreadMXBean").getMethod("getCurrentThreadAllocatedBytes");
+            allocatedBytes.invoke(threads);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            threads = null;
+            allocatedBytes = null;
+        }
+        THREADS = threads;
+        ALLOCATED_BYTES = allocatedBytes;
+    }
+
+    public static void main(String[] args) {
+        Console.setEnabled(false);
+        Random random = new Random(42);
+        int[] floors = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) floors[i] = random.nextInt(FLOORS);
+
+        System.out.printf("%-28s %10s %12s%n", "", "ns/op", "bytes/op");
+        measure("addRequest + move", floors, StopSetBenchmark::controllerLoop);
+        measure("contains, StopSet", floors, StopSetBenchmark::stopSetContains);
+        measure("contains, PriorityQueue", floors, StopSetBenchmark::priorityQueueContains);
+    }
+
+    private interface Loop {
+        long run(int[] floors);
+    }
+
+    private static void measure(String name, int[] floors, Loop loop) {
+        long bestTime = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            checksum += loop.run(floors);
+            bestTime = Math.min(bestTime, System.nanoTime() - start);
+            bestBytes = Math.min(bestBytes, allocatedBytes() - bytes);
+        }
+        String bytesPerOperation = ALLOCATED_BYTES == null ? "n/a" : String.format("%.3f", (double) bestBytes / floors.length);
+        System.out.printf("%-28s %10.2f %12s   (checksum %d)%n", name, (double) bestTime / floors.length, bytesPerOperation, checksum);
+    }
+
+    /**
+     * Bytes allocated by the current thread since its start, 0 when the counter is not available
+     */
+    private static long allocatedBytes() {
+        if (ALLOCATED_BYTES == null) return 0;
+        try {
+            return (long) ALLOCATED_BYTES.invoke(THREADS);
+        } catch (ReflectiveOperationException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * One request and one move for each operation
+     */
+    private static long controllerLoop(int[] floors) {
+        ElevatorController controller = new ElevatorController();
+        long checksum = 0;
+        for (int floor : floors) {
+            controller.addRequest(floor);
+            controller.move();
+            checksum += controller.getCurrentFloor();
+        }
+        return checksum;
+    }
+
+    /**
+     * Membership test on an up queue holding all the floors above the ground floor
+     */
+    private static long stopSetContains(int[] floors) {
+        ElevatorController controller = new ElevatorController();
+        for (int floor = 1; floor < FLOORS; floor++) controller.addRequest(floor);
+        long checksum = 0;
+        for (int floor : floors) {
+            if (controller.getUpQueue().contains(floor)) checksum += floor;
+        }
+        return checksum;
+    }
+
+    private static long priorityQueueContains(int[] floors) {
+        PriorityQueue<Integer> upQueue = new PriorityQueue<>();
+        for (int floor = 1; floor < FLOORS; floor++) upQueue.add(floor);
+        long checksum = 0;
+        for (int floor : floors) {
+            if (upQueue.contains(floor)) checksum += floor;
+        }
+        return checksum;
+    }
+}
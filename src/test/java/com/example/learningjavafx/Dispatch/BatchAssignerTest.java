@@ -0,0 +1,113 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Helpers.Console;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchAssignerTest {
+    @BeforeAll
+    static void disableConsole() {
+        Console.setEnabled(false);
+    }
+
+    @Test
+    void hungarianFindsTheKnownOptimum() {
+        long[][] costs = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}
+        };
+        int[] columns = BatchAssigner.hungarian(3, 3, (row, column) -> costs[row][column]);
+        assertArrayEquals(new int[]{1, 0, 2}, columns);
+
+        // More columns than rows: the cheapest columns are taken
+        long[][] wide = {
+                {7, 3, 9, 1},
+                {8, 2, 6, 4}
+        };
+        assertArrayEquals(new int[]{3, 1}, BatchAssigner.hungarian(2, 4, (row, column) -> wide[row][column]));
+    }
+
+    @Test
+    void hungarianMatchesABruteForceSearch() {
+        Random random = new Random(3);
+        for (int run = 0; run < 200; run++) {
+            int rows = 1 + random.nextInt(5);
+            int columns = rows + random.nextInt(3);
+            long[][] costs = new long[rows][columns];
+            for (long[] row : costs) for (int j = 0; j < columns; j++) row[j] = random.nextInt(20);
+
+            int[] assignment = BatchAssigner.hungarian(rows, columns, (row, column) -> costs[row][column]);
+            boolean[] taken = new boolean[columns];
+            long total = 0;
+            for (int row = 0; row < rows; row++) {
+                assertTrue(!taken[assignment[row]], "column given twice");
+                taken[assignment[row]] = true;
+                total += costs[row][assignment[row]];
+            }
+            assertEquals(bruteForce(costs, 0, new boolean[columns]), total);
+        }
+    }
+
+    @Test
+    void moreCallsThanCarsAreSpreadOverTheSlots() {
+        ElevatorIndex index = index(10, 0, 9);
+        int[] calls = {1, 2, 3, 4, 5, 6, 7};
+        int[] assignment = new BatchAssigner(5).assign(index, calls);
+
+        int[] perCar = new int[2];
+        for (int car : assignment) perCar[car]++;
+        assertEquals(calls.length, perCar[0] + perCar[1]);
+        // Each car has ceil(7 / 2) slots
+        assertTrue(perCar[0] <= 4 && perCar[1] <= 4);
+        assertEquals(0, assignment[0]);
+        assertEquals(1, assignment[6]);
+    }
+
+    @Test
+    void singleCarTakesAllTheCalls() {
+        ElevatorIndex index = index(10, 4);
+        assertArrayEquals(new int[]{0, 0, 0}, new BatchAssigner().assign(index, new int[]{0, 9, 4}));
+        assertArrayEquals(new int[0], new BatchAssigner().assign(index, new int[0]));
+    }
+
+    @Test
+    void onlyTheUnlockedCarIsUsed() {
+        ElevatorIndex index = index(10, 0, 3, 6, 9);
+        for (int car = 0; car < 4; car++) if (car != 2) index.get(car).lock();
+        assertArrayEquals(new int[]{2, 2, 2}, new BatchAssigner().assign(index, new int[]{0, 3, 9}));
+
+        index.get(2).lock();
+        assertArrayEquals(new int[]{-1, -1}, new BatchAssigner().assign(index, new int[]{1, 8}));
+    }
+
+    private static ElevatorIndex index(int totalFloors, int... floors) {
+        ElevatorStateStore store = new ElevatorStateStore(floors.length, totalFloors);
+        ArrayList<ElevatorController> controllers = new ArrayList<>();
+        for (int row = 0; row < floors.length; row++) controllers.add(store.getController(row));
+        ElevatorIndex index = new ElevatorIndex(controllers);
+        for (int row = 0; row < floors.length; row++) controllers.get(row).setElevatorFloor(floors[row]);
+        return index;
+    }
+
+    private static long bruteForce(long[][] costs, int row, boolean[] taken) {
+        if (row == costs.length) return 0;
+        long best = Long.MAX_VALUE;
+        for (int column = 0; column < taken.length; column++) {
+            if (taken[column]) continue;
+            taken[column] = true;
+            best = Math.min(best, costs[row][column] + bruteForce(costs, row + 1, taken));
+            taken[column] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.learningjavafx.Dispatch;
+
+import com.example.learningjavafx.Elevator.ElevatorController;
+import com.example.learningjavafx.Elevator.ElevatorStateStore;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Helpers.Console;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ElevatorIndexTest {
+    private static final int FLOORS = 6;
+    private static final int ELEVATORS = 8;
+
+    @BeforeAll
+    static void disableConsole() {
+        Console.setEnabled(false);
+    }
+
+    @Test
+    void lookupsMatchAScanOfTheRowsOfAStore() {
+        ElevatorStateStore store = new ElevatorStateStore(ELEVATORS, FLOORS);
+        ArrayList<ElevatorController> controllers = new ArrayList<>();
+        for (int row = 0; row < ELEVATORS; row++) {
+            store.setRatedLoad(row, 2 * ElevatorStateStore.PASSENGER_MASS);
+            controllers.add(store.getController(row));
+        }
+        this.checkRandomStates(controllers, new Random(11));
+    }
+
+    @Test
+    void lookupsMatchAScanOfSeparateControllers() {
+        ArrayList<ElevatorController> controllers = new ArrayList<>();
+        for (int i = 0; i < ELEVATORS; i++) controllers.add(new ElevatorController(0, FLOORS));
+        this.checkRandomStates(controllers, new Random(12));
+    }
+
+    /**
+     * Random requests, moves, locks and passengers: the elevators change floor and move between the sets,
+     * and with more elevators than floors several of them share a floor
+     */
+    private void checkRandomStates(ArrayList<ElevatorController> controllers, Random random) {
+        ElevatorIndex index = new ElevatorIndex(controllers);
+        for (int step = 0; step < 3000; step++) {
+            ElevatorController elevator = controllers.get(random.nextInt(ELEVATORS));
+            int floor = random.nextInt(FLOORS);
+            switch (random.nextInt(9)) {
+                // Placed like at the start of a run: moving a car with stops would leave it past them
+                case 0 -> {
+                    if (elevator.isIDLEMode()) elevator.setElevatorFloor(floor);
+                }
+                case 1 -> elevator.externalRequest(floor, random.nextBoolean() ? ElevatorDirection.UP : ElevatorDirection.DOWN);
+                case 2 -> elevator.internalRequest(floor);
+                case 3 -> elevator.clearAllRequests();
+                case 4 -> elevator.lock();
+                case 5 -> elevator.unlock();
+                case 6 -> elevator.boardPassenger();
+                case 7 -> elevator.alightPassenger();
+                default -> {
+                    for (ElevatorController controller : controllers) controller.move();
+                }
+            }
+            for (int requestFloor = 0; requestFloor < FLOORS; requestFloor++) check(index, controllers, requestFloor);
+        }
+    }
+
+    private static void check(ElevatorIndex index, ArrayList<ElevatorController> controllers, int floor) {
+        for (ElevatorDirection direction : new ElevatorDirection[]{ElevatorDirection.UP, ElevatorDirection.DOWN}) {
+            boolean up = direction == ElevatorDirection.UP;
+            ElevatorDirection same = up ? ElevatorDirection.UP : ElevatorDirection.DOWN;
+            ElevatorDirection opposite = up ? ElevatorDirection.DOWN : ElevatorDirection.UP;
+            String call = direction + " call at " + floor;
+
+            // A: on the way in the same direction, the closest
+            assertEquals(up ? highest(controllers, same, 0, floor) : lowest(controllers, same, floor, FLOORS - 1), index.findInClassA(direction, floor), "A, " + call);
+            // B: turns before the floor, the farthest in the opposite direction
+            int farthestOpposite = up ? lowest(controllers, opposite, 0, FLOORS - 1) : highest(controllers, opposite, 0, FLOORS - 1);
+            assertEquals(farthestOpposite != -1 && (up ? floorOf(controllers, farthestOpposite) <= floor : floorOf(controllers, farthestOpposite) >= floor) ? farthestOpposite : -1,
+                    index.findInClassB(direction, floor), "B, " + call);
+            // C: passes the floor in the opposite direction, the closest
+            assertEquals(up ? lowest(controllers, opposite, floor, FLOORS - 1) : highest(controllers, opposite, 0, floor), index.findInClassC(direction, floor), "C, " + call);
+            // D: has passed the floor in the same direction, the farthest
+            int farthestSame = up ? highest(controllers, same, 0, FLOORS - 1) : lowest(controllers, same, 0, FLOORS - 1);
+            assertEquals(farthestSame != -1 && (up ? floorOf(controllers, farthestSame) >= floor : floorOf(controllers, farthestSame) <= floor) ? farthestSame : -1,
+                    index.findInClassD(direction, floor), "D, " + call);
+        }
+
+        int closest = -1;
+        for (int i = 0; i < controllers.size(); i++) {
+            if (!isIn(controllers.get(i), ElevatorDirection.IDLE)) continue;
+            if (closest == -1 || Math.abs(floorOf(controllers, i) - floor) < Math.abs(floorOf(controllers, closest) - floor)) closest = i;
+        }
+        assertEquals(closest, index.findClosestIDLE(floor), "IDLE closest to " + floor);
+    }
+
+    /**
+     * The elevator of the set at the highest floor of the range, the lowest index on that floor
+     */
+    private static int highest(ArrayList<ElevatorController> controllers, ElevatorDirection set, int from, int to) {
+        int found = -1;
+        for (int i = 0; i < controllers.size(); i++) {
+            int floor = floorOf(controllers, i);
+            if (!isIn(controllers.get(i), set) || floor < from || floor > to) continue;
+            if (found == -1 || floor > floorOf(controllers, found)) found = i;
+        }
+        return found;
+    }
+
+    private static int lowest(ArrayList<ElevatorController> controllers, ElevatorDirection set, int from, int to) {
+        int found = -1;
+        for (int i = 0; i < controllers.size(); i++) {
+            int floor = floorOf(controllers, i);
+            if (!isIn(controllers.get(i), set) || floor < from || floor > to) continue;
+            if (found == -1 || floor < floorOf(controllers, found)) found = i;
+        }
+        return found;
+    }
+
+    /**
+     * Set of the elevator read from its live state: locked and full elevators are in none
+     */
+    private static boolean isIn(ElevatorController elevator, ElevatorDirection set) {
+        if (elevator.isLocked() || elevator.isFull()) return false;
+        if (elevator.isIDLEMode()) return set == ElevatorDirection.IDLE;
+        return set != ElevatorDirection.IDLE && elevator.getDirection() == set;
+    }
+
+    private static int floorOf(ArrayList<ElevatorController> controllers, int i) {
+        return controllers.get(i).getCurrentFloor();
+    }
+}
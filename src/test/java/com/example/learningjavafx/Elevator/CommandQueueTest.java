@@ -0,0 +1,118 @@
+package com.example.learningjavafx.Elevator;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Enumerations.CommandType;
+import com.example.learningjavafx.Helpers.Console;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandQueueTest {
+    private static final int MAX_ELEVATOR = (1 << 23) - 1;
+    private static final int MIN_ELEVATOR = -(1 << 23);
+
+    @BeforeAll
+    static void disableConsole() {
+        Console.setEnabled(false);
+    }
+
+    @Test
+    void everyCommandIsDecodedAsEncoded() {
+        int[] elevators = {-1, 0, MAX_ELEVATOR, MIN_ELEVATOR};
+        int[] floors = {Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE};
+        CommandQueue queue = new CommandQueue(128);
+        ArrayList<String> expected = new ArrayList<>();
+        for (CommandType type : CommandType.values()) {
+            for (int elevator : elevators) {
+                for (int floor : floors) {
+                    assertTrue(queue.offer(type, elevator, floor));
+                    expected.add(type + " " + elevator + " " + floor);
+                }
+            }
+        }
+
+        ArrayList<String> decoded = new ArrayList<>();
+        assertEquals(expected.size(), queue.drain((type, elevator, floor) -> decoded.add(type + " " + elevator + " " + floor)));
+        assertEquals(expected, decoded);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void fullRingRejectsUntilDrainedAndWrapsAround() {
+        CommandQueue queue = new CommandQueue(4);
+        for (int floor = 0; floor < 4; floor++) assertTrue(queue.offer(CommandType.REQUEST, 0, floor));
+        assertFalse(queue.offer(CommandType.REQUEST, 0, 4));
+        assertEquals(1, queue.getRejected());
+        assertEquals(4, queue.size());
+
+        int[] next = {0};
+        for (int round = 0; round < 10; round++) {
+            queue.drain((type, elevator, floor) -> assertEquals(next[0]++, floor));
+            for (int i = 0; i < 4; i++) assertTrue(queue.offer(CommandType.REQUEST, 0, 4 * round + 4 + i));
+            assertFalse(queue.offer(CommandType.REQUEST, 0, -1));
+        }
+        queue.drain((type, elevator, floor) -> assertEquals(next[0]++, floor));
+        assertEquals(44, next[0]);
+        assertEquals(11, queue.getRejected());
+    }
+
+    @Test
+    void submitReturnsFalseWhenTheQueueIsFull() {
+        Building building = new Building(10, 1);
+        for (int i = 0; i < CommandQueue.DEFAULT_CAPACITY; i++) assertTrue(building.scheduler.submit(CommandType.REQUEST, 0, 5));
+        assertFalse(building.scheduler.submit(CommandType.REQUEST, 0, 5));
+
+        building.scheduler.run();
+        assertTrue(building.scheduler.submit(CommandType.REQUEST, 0, 5));
+    }
+
+    @Test
+    void producersLoseAndDuplicateNothing() throws InterruptedException {
+        int producers = 4;
+        int commands = 20_000;
+        CommandQueue queue = new CommandQueue(256);
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int floor = 0; floor < commands; floor++) {
+                    while (!queue.offer(CommandType.CAR_CALL, producer, floor)) Thread.yield();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // Each producer sends its floors in order: the next one expected from each tells a loss or a duplicate
+        int[] next = new int[producers];
+        boolean[] ordered = {true};
+        start.countDown();
+        long received = 0;
+        while (received < (long) producers * commands) {
+            int applied = queue.drain((type, elevator, floor) -> {
+                if (floor != next[elevator]) ordered[0] = false;
+                next[elevator]++;
+            });
+            if (applied == 0) Thread.yield();
+            received += applied;
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertTrue(ordered[0]);
+        for (int p = 0; p < producers; p++) assertEquals(commands, next[p]);
+        assertTrue(queue.isEmpty());
+        assertEquals((long) producers * commands, queue.getOffered());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.learningjavafx.Elevator;
+
+import com.example.learningjavafx.Enumerations.DoorStatus;
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Helpers.Console;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElevatorStateStoreTest {
+    @BeforeAll
+    static void disableConsole() {
+        Console.setEnabled(false);
+    }
+
+    @Test
+    void lockClearsTheHallCallsWaitingForAnInput() {
+        ElevatorStateStore store = new ElevatorStateStore(1, 10);
+        store.setUserInputTimeout(10);
+        store.externalRequest(0, 0, ElevatorDirection.UP);
+        store.move(0);
+        assertTrue(store.hasToWaitUserInput(0));
+
+        store.lock(0);
+        for (int tick = 0; tick < 30; tick++) store.move(0);
+        assertEquals(0, store.getInputTimeouts(0));
+        assertEquals(DoorStatus.CLOSE, store.getDoorStatus(0));
+
+        store.unlock(0);
+        assertFalse(store.hasToWaitUserInput(0));
+    }
+
+    @Test
+    void lockedElevatorDoesNotWaitForAnInput() {
+        ElevatorStateStore store = new ElevatorStateStore(1, 10);
+        store.setUserInputTimeout(10);
+        store.lock(0);
+        store.externalRequest(0, 0, ElevatorDirection.UP);
+
+        for (int tick = 0; tick < 30; tick++) store.move(0);
+        assertEquals(0, store.getInputTimeouts(0));
+        assertEquals(DoorStatus.CLOSE, store.getDoorStatus(0));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.learningjavafx.Elevator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The StopSet must give the stops in the order of the PriorityQueue it replaced: ascending for the up queue,
+ * descending (reverseOrder) for the down queue, including across the words of 64 floors.
+ */
+class StopSetTest {
+    private static final int[] FLOORS = {8, 63, 64, 65, 128, 129, 200};
+
+    @Test
+    void nextStopFollowsThePriorityQueueInBothDirections() {
+        Random random = new Random(42);
+        for (int floors : FLOORS) {
+            for (boolean descending : new boolean[] {false, true}) {
+                int words = StopSet.wordsFor(floors);
+                long[] bits = new long[words + 2];
+                // The range starts after a word of another set, which must never be read or written
+                StopSet set = new StopSet(bits, 1, words, descending);
+                PriorityQueue<Integer> queue = descending ? new PriorityQueue<>(Collections.reverseOrder()) : new PriorityQueue<>();
+
+                for (int operation = 0; operation < 2000; operation++) {
+                    int floor = random.nextInt(floors);
+                    if (random.nextInt(3) > 0) {
+                        StopSet.add(bits, 1, floor);
+                        if (!queue.contains(floor)) queue.add(floor);
+                    } else {
+                        StopSet.remove(bits, 1, words, floor);
+                        queue.remove(floor);
+                    }
+                    assertEquals(queue.isEmpty() ? -1 : queue.peek(), set.peek(), floors + " floors");
+                    assertEquals(queue.size(), set.size());
+                    assertEquals(queue.contains(floor), set.contains(floor));
+                }
+                assertEquals(0, bits[0]);
+                assertEquals(0, bits[words + 1]);
+
+                // Serving the stops one after the other gives the order of the queue
+                assertEquals(sorted(queue), set.toString());
+                while (!queue.isEmpty()) {
+                    int next = queue.poll();
+                    assertEquals(next, set.peek());
+                    StopSet.remove(bits, 1, words, next);
+                }
+                assertTrue(set.isEmpty());
+                assertEquals(-1, set.peek());
+            }
+        }
+    }
+
+    @Test
+    void wordBoundaries() {
+        long[] bits = new long[StopSet.wordsFor(129)];
+        StopSet up = new StopSet(bits, 0, bits.length, false);
+        StopSet down = new StopSet(bits, 0, bits.length, true);
+        for (int floor : new int[] {128, 64, 63, 127, 0}) StopSet.add(bits, 0, floor);
+
+        assertEquals("[0, 63, 64, 127, 128]", up.toString());
+        assertEquals("[128, 127, 64, 63, 0]", down.toString());
+        assertEquals(0, up.peek());
+        assertEquals(128, down.peek());
+        assertEquals(64, up.next(64));
+        assertEquals(127, up.next(65));
+        assertEquals(128, up.next(128));
+        assertEquals(-1, up.next(129));
+        assertEquals(2, up.countBelow(64));
+        assertEquals(4, up.countBelow(128));
+        assertEquals(2, up.countAbove(64));
+        assertEquals(0, up.countAbove(128));
+
+        StopSet.remove(bits, 0, bits.length, 63);
+        StopSet.remove(bits, 0, bits.length, 64);
+        assertFalse(up.contains(63));
+        assertFalse(up.contains(64));
+        assertFalse(up.contains(-1));
+        assertFalse(up.contains(192));
+        assertEquals(127, up.next(1));
+        assertEquals("[128, 127, 0]", down.toString());
+    }
+
+    /**
+     * Floors of the queue in the order poll() would give them, as printed by StopSet.toString
+     */
+    private static String sorted(PriorityQueue<Integer> queue) {
+        PriorityQueue<Integer> copy = new PriorityQueue<>(queue);
+        StringBuilder builder = new StringBuilder("[");
+        while (!copy.isEmpty()) {
+            if (builder.length() > 1) builder.append(", ");
+            builder.append(copy.poll());
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.learningjavafx.Journal;
+
+import com.example.learningjavafx.Building;
+import com.example.learningjavafx.Enumerations.JournalEventType;
+import com.example.learningjavafx.Helpers.Console;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class EventJournalTest {
+    @BeforeAll
+    static void disableConsole() {
+        Console.setEnabled(false);
+    }
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsRecordedAfterCloseAreDropped() throws IOException {
+        Path path = this.directory.resolve("closed.journal");
+        EventJournal journal = new EventJournal(path, 1, 10, () -> 0);
+        journal.record(JournalEventType.FLOOR, 0, 3, 0);
+        journal.close();
+
+        // More events than the ring holds: nobody drains it any more
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 200_000; i++) journal.record(JournalEventType.FLOOR, 0, 4, 0);
+        });
+        assertEquals(1, journal.getRecords());
+        try (JournalReplayer replayer = new JournalReplayer(path)) {
+            assertEquals(1, replayer.getRecords());
+            replayer.replayUntil(Long.MAX_VALUE);
+            assertEquals(3, replayer.getFloor(0));
+        }
+    }
+
+    @Test
+    void valuesAreNotTruncatedTo16Bits() throws IOException {
+        Path path = this.directory.resolve("values.journal");
+        try (EventJournal journal = new EventJournal(path, 3, 10, () -> 123_456_789L)) {
+            journal.record(JournalEventType.RATED_LOAD, 0, 0, 100_000);
+            journal.record(JournalEventType.RATED_LOAD, 1, 0, EventJournal.MAX_VALUE);
+            journal.record(JournalEventType.PASSENGERS, 2, 0, 70_000);
+            journal.record(JournalEventType.FLAGS, 2, 0, (byte) 0x80);
+            assertThrows(IllegalArgumentException.class, () -> journal.record(JournalEventType.RATED_LOAD, 0, 0, EventJournal.MAX_VALUE + 1));
+            assertThrows(IllegalArgumentException.class, () -> journal.record(JournalEventType.PASSENGERS, 0, 0, EventJournal.MIN_VALUE - 1));
+        }
+
+        try (JournalReplayer replayer = new JournalReplayer(path)) {
+            assertEquals(4, replayer.getRecords());
+            assertEquals(123_456_789L, replayer.getEndTime());
+            replayer.replayUntil(Long.MAX_VALUE);
+            assertEquals(100_000, replayer.getRatedLoad(0));
+            assertEquals(EventJournal.MAX_VALUE, replayer.getRatedLoad(1));
+            assertEquals(70_000, replayer.getPassengers(2));
+            assertEquals((byte) 0x80, replayer.getFlags(2));
+        }
+        assertEquals(-5, EventJournal.value((long) 0xFF << 48, (short) -5));
+    }
+
+    @Test
+    void closeDetachesTheJournalFromTheBuilding() throws IOException {
+        Building building = new Building(10, 2);
+        EventJournal journal = building.enableJournal(this.directory.resolve("building.journal"), () -> 0);
+        journal.close();
+
+        assertNull(building.scheduler.getJournal());
+        assertNull(building.getStateStore().getJournal());
+    }
+}
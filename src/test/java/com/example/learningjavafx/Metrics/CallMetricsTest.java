@@ -0,0 +1,115 @@
+package com.example.learningjavafx.Metrics;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CallMetricsTest {
+    private long now;
+    private final CallMetrics metrics = new CallMetrics(10, 2, () -> this.now);
+
+    @Test
+    void waitGoesFromTheFirstPressToTheDoor() {
+        this.pressAt(1000, ElevatorDirection.UP, 3);
+        this.pressAt(2000, ElevatorDirection.UP, 3);
+        assertEquals(1, this.metrics.getHallCalls());
+        assertEquals(3000, this.metrics.getLongestWaitingCall(4000));
+
+        this.now = 5000;
+        this.metrics.recordHallCallsServed(0, 3, true, false);
+        assertEquals(0, this.metrics.getLongestWaitingCall(5000));
+        // Recorded when the door closes, nobody was left at the floor
+        assertEquals(0, this.metrics.getWaitTimes().getCount());
+        this.now = 9000;
+        this.metrics.recordDoorClose(0);
+
+        assertEquals(1, this.metrics.getWaitTimes().getCount());
+        assertEquals(4000, this.metrics.getWaitTimes().getMax());
+        assertEquals(4000, this.metrics.getFloorWaitTimes(3).getMax());
+        assertEquals(4000, this.metrics.getCarWaitTimes(0).getMax());
+        assertEquals(0, this.metrics.getCarWaitTimes(1).getCount());
+    }
+
+    @Test
+    void journeyGoesFromTheFirstPressToTheDestination() {
+        this.pressAt(1000, ElevatorDirection.DOWN, 6);
+        this.now = 4000;
+        this.metrics.recordHallCallsServed(1, 6, false, true);
+        this.now = 6000;
+        this.metrics.recordCarCall(1, 2);
+        this.metrics.recordDoorClose(1);
+        // Entered from the inside without a hall call: from the moment it is entered
+        this.now = 10_000;
+        this.metrics.recordCarCall(1, 0);
+
+        this.now = 20_000;
+        this.metrics.recordCarCallServed(1, 2);
+        this.now = 26_000;
+        this.metrics.recordCarCallServed(1, 0);
+        // Served once
+        this.metrics.recordCarCallServed(1, 0);
+
+        assertEquals(2, this.metrics.getJourneyTimes().getCount());
+        assertEquals(19_000, this.metrics.getFloorJourneyTimes(2).getMax());
+        assertEquals(16_000, this.metrics.getFloorJourneyTimes(0).getMax());
+        assertEquals(2, this.metrics.getCarJourneyTimes(1).getCount());
+    }
+
+    @Test
+    void callKeepsItsFirstPressUntilItsPassengersHaveBoarded() {
+        this.pressAt(1000, ElevatorDirection.UP, 0);
+        this.now = 5000;
+        this.metrics.recordHallCallsServed(0, 0, true, false);
+        // The car is full: a passenger there since 1500 stays at the floor and presses again
+        this.metrics.recordPassengersStillWaiting(0, ElevatorDirection.UP, 1500);
+        this.pressAt(6000, ElevatorDirection.UP, 0);
+        this.now = 8000;
+        this.metrics.recordDoorClose(0);
+
+        assertEquals(1, this.metrics.getHallCalls());
+        assertEquals(0, this.metrics.getWaitTimes().getCount());
+        assertEquals(29_000, this.metrics.getLongestWaitingCall(30_000));
+
+        this.now = 40_000;
+        this.metrics.recordHallCallsServed(1, 0, true, false);
+        this.metrics.recordDoorClose(1);
+        assertEquals(1, this.metrics.getWaitTimes().getCount());
+        assertEquals(39_000, this.metrics.getWaitTimes().getMax());
+    }
+
+    @Test
+    void passengersArrivedAfterTheDoorOpenedPressANewCall() {
+        this.pressAt(1000, ElevatorDirection.UP, 4);
+        this.now = 5000;
+        this.metrics.recordHallCallsServed(0, 4, true, false);
+        this.pressAt(5500, ElevatorDirection.UP, 4);
+        this.metrics.recordPassengersStillWaiting(0, ElevatorDirection.UP, 5500);
+        this.now = 8000;
+        this.metrics.recordDoorClose(0);
+
+        assertEquals(2, this.metrics.getHallCalls());
+        assertEquals(4000, this.metrics.getWaitTimes().getMax());
+        assertEquals(4500, this.metrics.getLongestWaitingCall(10_000));
+    }
+
+    @Test
+    void callClearedByALockStopsWaiting() {
+        this.pressAt(1000, ElevatorDirection.UP, 5);
+        this.metrics.recordHallCallsCleared(5, ElevatorDirection.UP);
+        assertEquals(0, this.metrics.getLongestWaitingCall(600_000));
+
+        // The next press is a new call
+        this.pressAt(600_000, ElevatorDirection.UP, 5);
+        assertEquals(2, this.metrics.getHallCalls());
+        this.now = 603_000;
+        this.metrics.recordHallCallsServed(0, 5, true, false);
+        this.metrics.recordDoorClose(0);
+        assertEquals(3000, this.metrics.getWaitTimes().getMax());
+    }
+
+    private void pressAt(long time, ElevatorDirection direction, int floor) {
+        this.now = time;
+        this.metrics.recordHallCall(direction, floor);
+    }
+}
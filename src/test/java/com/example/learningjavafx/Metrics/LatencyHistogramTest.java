@@ -0,0 +1,78 @@
+package com.example.learningjavafx.Metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    @Test
+    void bucketIndex() {
+        // Exact below 128, then 64 buckets for each power of two
+        for (int value = 0; value < 128; value++) assertEquals(value, LatencyHistogram.bucketIndex(value));
+        assertEquals(128, LatencyHistogram.bucketIndex(128));
+        assertEquals(128, LatencyHistogram.bucketIndex(129));
+        assertEquals(129, LatencyHistogram.bucketIndex(130));
+        assertEquals(191, LatencyHistogram.bucketIndex(255));
+        assertEquals(192, LatencyHistogram.bucketIndex(256));
+        assertEquals(192, LatencyHistogram.bucketIndex(259));
+        assertEquals(193, LatencyHistogram.bucketIndex(260));
+
+        // Each value is in the bucket whose range holds it, with a relative error below 1/64
+        int previous = -1;
+        for (long value = 0; value < 5_000_000; value += 1 + value / 200) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= previous);
+            assertTrue(LatencyHistogram.highestValueIn(index) >= value);
+            if (index > 0) assertTrue(LatencyHistogram.highestValueIn(index - 1) < value);
+            assertTrue(LatencyHistogram.highestValueIn(index) - value <= value / 64);
+            previous = index;
+        }
+    }
+
+    @Test
+    void valuesAboveTheHighestTrackableValueAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        histogram.record(5000);
+        histogram.record(1_000_000);
+
+        assertEquals(LatencyHistogram.bucketIndex(1000) + 1, histogram.getBucketCount());
+        assertEquals(2, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(1_005_000, histogram.getTotal());
+        // The last bucket holds them: its highest value, not the exact values
+        assertEquals(LatencyHistogram.highestValueIn(LatencyHistogram.bucketIndex(1000)), histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.highestValueIn(LatencyHistogram.bucketIndex(1000)), histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void valueAtPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram(CallMetrics.DEFAULT_HIGHEST_TRACKABLE_MILLIS);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+
+        for (int value = 1; value <= 100; value++) histogram.record(value);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(90, histogram.getValueAtPercentile(90));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+
+        for (int value = 101; value <= 10_000; value++) histogram.record(value);
+        for (double percentile : new double[] {50, 90, 99, 99.9}) {
+            long exact = Math.round(percentile * 100);
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(value >= exact && value - exact <= exact / 64, percentile + ": " + value);
+        }
+        // Never above the exact maximum
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void negativeValuesAreCountedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        histogram.record(-20);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.learningjavafx.Metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSeriesTest {
+    @Test
+    void slotOfEachIndexBeforeAndAfterTheRingWraps() {
+        TimeSeries series = new TimeSeries(4);
+        assertTrue(series.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> series.slot(0));
+
+        series.add(10, 1);
+        series.add(20, 2);
+        assertEquals(2, series.size());
+        assertEquals(0, series.slot(0));
+        assertEquals(1, series.slot(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> series.slot(2));
+
+        // Six samples in four slots: the two oldest are replaced, index 0 is the oldest left
+        for (int i = 3; i <= 6; i++) series.add(i * 10, i);
+        assertEquals(4, series.size());
+        assertEquals(4, series.getCapacity());
+        assertEquals(2, series.slot(0));
+        assertEquals(3, series.slot(1));
+        assertEquals(0, series.slot(2));
+        assertEquals(1, series.slot(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> series.slot(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> series.slot(-1));
+        for (int index = 0; index < 4; index++) {
+            assertEquals((index + 3) * 10, series.getTime(index));
+            assertEquals(index + 3, series.getValue(index));
+        }
+    }
+
+    @Test
+    void samplesWithoutMeasure() {
+        TimeSeries series = new TimeSeries(3);
+        assertTrue(Double.isNaN(series.getLast()));
+        assertEquals(0, series.getMax());
+
+        series.add(1, 5);
+        series.add(2, Double.NaN);
+        assertEquals(5, series.getLast());
+        assertEquals(5, series.getMax());
+        series.add(3, 2);
+        series.add(4, Double.NaN);
+        // The 5 has been replaced
+        assertEquals(2, series.getLast());
+        assertEquals(2, series.getMax());
+        assertTrue(Double.isNaN(series.getValue(2)));
+
+        series.clear();
+        assertTrue(series.isEmpty());
+        series.add(5, 7);
+        assertEquals(0, series.slot(0));
+        assertEquals(7, series.getLast());
+    }
+}
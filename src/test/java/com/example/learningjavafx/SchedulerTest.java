@@ -0,0 +1,40 @@
+package com.example.learningjavafx;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import com.example.learningjavafx.Helpers.Console;
+import com.example.learningjavafx.Metrics.CallMetrics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SchedulerTest {
+    private long now;
+
+    @BeforeAll
+    static void disableConsole() {
+        Console.setEnabled(false);
+    }
+
+    @Test
+    void groundLockCancelsTheWaitingHallCalls() {
+        Building building = new Building(10, 2);
+        CallMetrics callMetrics = building.enableCallMetrics(() -> this.now);
+        building.scheduler.acceptRequestAndProcess(ElevatorDirection.UP, 5);
+
+        building.scheduler.enableGroundLock();
+        building.scheduler.disableGroundLock();
+        for (int tick = 0; tick < 600; tick++) {
+            this.now += 1000;
+            building.scheduler.run();
+        }
+        assertEquals(0, callMetrics.getLongestWaitingCall(this.now));
+
+        // Pressed again after the lock: waits from this press
+        long pressed = this.now;
+        building.scheduler.acceptRequestAndProcess(ElevatorDirection.UP, 5);
+        this.now += 2000;
+        assertEquals(2000, callMetrics.getLongestWaitingCall(this.now));
+        assertEquals(pressed, this.now - callMetrics.getLongestWaitingCall(this.now));
+    }
+}
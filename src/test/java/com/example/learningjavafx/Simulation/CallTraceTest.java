@@ -0,0 +1,100 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Enumerations.ElevatorDirection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CallTraceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreReadBackAcrossTheWindows() throws IOException {
+        Path path = this.directory.resolve("calls.trace");
+        int calls = 25;
+        try (CallTraceWriter writer = new CallTraceWriter(path)) {
+            for (int i = 0; i < calls; i++) {
+                int floor = i % 7;
+                int destination = i % 2 == 0 ? 12 : 0;
+                if (floor == destination) destination = 3;
+                writer.write(5000 + 100L * i, floor, destination > floor ? ElevatorDirection.UP : ElevatorDirection.DOWN, destination);
+            }
+            assertEquals(calls, writer.getRecords());
+        }
+
+        // Windows of 4 records: the last one is not full
+        try (CallTraceReader reader = new CallTraceReader(path, 4)) {
+            assertEquals(13, reader.getTotalFloors());
+            assertEquals(calls, reader.getRecords());
+            for (int i = 0; i < calls; i++) {
+                Passenger passenger = reader.next();
+                int floor = i % 7;
+                int destination = i % 2 == 0 ? 12 : 0;
+                if (floor == destination) destination = 3;
+                assertEquals(floor, passenger.getOrigin(), "record " + i);
+                assertEquals(destination, passenger.getDestination(), "record " + i);
+                // Replayed from the first call
+                assertEquals(100L * i, passenger.getArrivalTime(), "record " + i);
+            }
+            assertNull(reader.next());
+            assertEquals(calls, reader.getPosition());
+        }
+    }
+
+    @Test
+    void headerHasTheHighestFloorOfTheCalls() throws IOException {
+        Path path = this.directory.resolve("floors.trace");
+        try (CallTraceWriter writer = new CallTraceWriter(path)) {
+            writer.write(0, 40, ElevatorDirection.DOWN, 2);
+            writer.write(10, 0, ElevatorDirection.UP, 17);
+        }
+        try (CallTraceReader reader = new CallTraceReader(path)) {
+            assertEquals(41, reader.getTotalFloors());
+        }
+
+        Path empty = this.directory.resolve("empty.trace");
+        new CallTraceWriter(empty).close();
+        try (CallTraceReader reader = new CallTraceReader(empty)) {
+            assertEquals(0, reader.getRecords());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void truncatedTraceIsRejected() throws IOException {
+        Path path = this.directory.resolve("truncated.trace");
+        try (CallTraceWriter writer = new CallTraceWriter(path)) {
+            writer.write(0, 1, ElevatorDirection.UP, 5);
+            writer.write(10, 5, ElevatorDirection.DOWN, 1);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(CallTraceWriter.HEADER_BYTES + CallTraceWriter.RECORD_BYTES + 6);
+        }
+        assertThrows(IOException.class, () -> new CallTraceReader(path));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(CallTraceWriter.HEADER_BYTES - 1);
+        }
+        assertThrows(IOException.class, () -> new CallTraceReader(path));
+    }
+
+    @Test
+    void callsOutOfOrderAreRejected() throws IOException {
+        try (CallTraceWriter writer = new CallTraceWriter(this.directory.resolve("order.trace"))) {
+            writer.write(1000, 0, ElevatorDirection.UP, 3);
+            // Same time is allowed
+            writer.write(1000, 2, ElevatorDirection.UP, 3);
+            assertThrows(IllegalArgumentException.class, () -> writer.write(999, 4, ElevatorDirection.DOWN, 0));
+            assertEquals(2, writer.getRecords());
+        }
+    }
+}
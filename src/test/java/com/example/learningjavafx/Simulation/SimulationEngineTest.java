@@ -0,0 +1,60 @@
+package com.example.learningjavafx.Simulation;
+
+import com.example.learningjavafx.Helpers.Console;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationEngineTest {
+    @BeforeAll
+    static void disableConsole() {
+        Console.setEnabled(false);
+    }
+
+    @Test
+    void runContinuedFromASnapshotEndsInTheSameState() {
+        SimulationScenario scenario = new SimulationScenario();
+        scenario.setFloors(12);
+        scenario.setElevators(2);
+        scenario.setHours(2);
+        scenario.setInterarrival(8);
+        scenario.setRatedLoad(600);
+        scenario.setTraffic("up_peak");
+
+        SimulationEngine uninterrupted = scenario.createEngine(7);
+        uninterrupted.runUntil(scenario.getDuration());
+
+        SimulationEngine first = scenario.createEngine(7);
+        first.runUntil(scenario.getDuration() / 2);
+        SimulationEngine continued = scenario.restoreEngine(first.snapshot(), 7);
+        continued.runUntil(scenario.getDuration());
+
+        assertTrue(uninterrupted.getLeftBehindPassengers() > 0);
+        assertEquals(uninterrupted.getServedPassengers(), continued.getServedPassengers());
+        assertEquals(uninterrupted.getAverageWaitTime(), continued.getAverageWaitTime());
+        assertEquals(uninterrupted.getWaitTimePercentile(95), continued.getWaitTimePercentile(95));
+        assertEquals(uninterrupted.getMaxWaitTime(), continued.getMaxWaitTime());
+        assertEquals(uninterrupted.getAverageJourneyTime(), continued.getAverageJourneyTime());
+        assertEquals(uninterrupted.getHandlingCapacity(), continued.getHandlingCapacity());
+        assertEquals(uninterrupted.snapshot(), continued.snapshot());
+    }
+
+    @Test
+    void snapshotDoesNotGrowWithTheServedPassengers() {
+        SimulationScenario scenario = new SimulationScenario();
+        scenario.setHours(24);
+        SimulationEngine engine = scenario.createEngine(42);
+
+        engine.runUntil(3_600_000L);
+        ByteBuffer early = engine.snapshot();
+        long served = engine.getServedPassengers();
+        engine.runUntil(scenario.getDuration());
+
+        assertTrue(engine.getServedPassengers() > 10 * served);
+        assertTrue(engine.snapshot().remaining() < early.remaining() + 1024, early.remaining() + " then " + engine.snapshot().remaining());
+    }
+}